@@ -3,8 +3,10 @@ package eu.toolchain.concurrent;
 import java.util.Collection;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.LongBinaryOperator;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -30,6 +32,38 @@ public interface Async {
    */
   <T> Completable<T> completable();
 
+  /**
+   * Build a new completable which is confined to the current thread.
+   *
+   * <p>The completable, and all stages derived from it, must only be used from the thread that
+   * built it, like the thread of an event loop. This includes completing stages which are composed
+   * into it. In exchange, it avoids the cost of synchronizing with other threads.
+   *
+   * <p>Joining a thread confined completable which is not done fails, since no other thread can
+   * complete it.
+   *
+   * @param <T> type of the completable.
+   * @return a new completable
+   * @see #completable()
+   */
+  <T> Completable<T> localCompletable();
+
+  /**
+   * Build a new completable for primitive {@code long} values.
+   *
+   * @return a new completable
+   * @see #completable()
+   */
+  LongCompletable longCompletable();
+
+  /**
+   * Build a new completable for primitive {@code double} values.
+   *
+   * @return a new completable
+   * @see #completable()
+   */
+  DoubleCompletable doubleCompletable();
+
   /**
    * Returns an already completed void completable.
    *
@@ -82,6 +116,8 @@ public interface Async {
   /**
    * Build a new completable that is the result of collecting all the results in a collection.
    *
+   * <p>The results are in the same order as the stages they came from, and can not be modified.
+   *
    * @param stages the collection of stages
    * @param <T> type of the collected completable
    * @return a stage completed with the collection of values
@@ -94,6 +130,9 @@ public interface Async {
    * Build a new completable that is the result of reducing the provided collection of stages using
    * the provided collector.
    *
+   * <p>The collector is given a read-only view of the results, in the same order as the stages
+   * they came from.
+   *
    * @param stages the collection of stages
    * @param collector the collector
    * @param <T> source type of the collected stages
@@ -105,6 +144,34 @@ public interface Async {
       Function<? super Collection<T>, ? extends U> collector
   );
 
+  /**
+   * Collect the values of multiple primitive stages into an array, without boxing them.
+   *
+   * <p>The values are stored in the iteration order of the given collection.
+   *
+   * @param stages the collection of stages
+   * @return a stage completed with the collected values
+   * @see #collect(Collection)
+   */
+  Stage<long[]> collectLongs(Collection<? extends LongStage> stages);
+
+  /**
+   * Reduce the values of multiple primitive stages, without boxing them.
+   *
+   * <pre>{@code
+   *   async.reduceLongs(stages, 0L, Long::sum);
+   * }</pre>
+   *
+   * @param stages the collection of stages
+   * @param identity the initial value of the reduction
+   * @param reducer function used to combine two values
+   * @return a stage completed with the reduced value
+   * @see #collectLongs(Collection)
+   */
+  LongStage reduceLongs(
+      Collection<? extends LongStage> stages, long identity, LongBinaryOperator reducer
+  );
+
   /**
    * Build a new stage that is the result of applying a computation on a collection of stages.
    *
@@ -200,6 +267,52 @@ public interface Async {
    */
   <T> Stage<T> call(Callable<? extends T> callable, ExecutorService executor);
 
+  /**
+   * Build a stage which is completed after the given delay.
+   *
+   * <p>Cancelling the stage before then removes it from the timer. The stage is not completed on
+   * the thread of the timer, but on the executor that the timer hands its work off to.
+   *
+   * @param delay delay after which the stage completes
+   * @param unit unit of the delay
+   * @return a stage which completes after the delay
+   */
+  Stage<Void> delay(long delay, TimeUnit unit);
+
+  /**
+   * Call the given callable on the default executor after the given delay.
+   *
+   * @param callable operation to call
+   * @param delay delay after which the operation is called
+   * @param unit unit of the delay
+   * @param <T> type of the operation
+   * @return a stage tracking the result of the operation
+   * @throws IllegalStateException if no default executor service is configured
+   * @see #call(Callable)
+   */
+  <T> Stage<T> schedule(Callable<? extends T> callable, long delay, TimeUnit unit);
+
+  /**
+   * Repeatedly run the given action, at most once per period.
+   *
+   * <p>The first run happens after one period. The next run is only scheduled once the stage of
+   * the previous one is done, so runs never overlap. If a run takes longer than the period, the
+   * next one follows immediately after it.
+   *
+   * <p>The action is invoked on the executor that the timer hands its work off to, and is expected
+   * to start an asynchronous operation rather than to do any heavy work itself.
+   *
+   * <p>The returned stage is never completed. It fails if an action throws or its stage fails,
+   * which stops the repetition. Cancelling the returned stage also stops the repetition, and
+   * cancels the stage of an action that is currently running.
+   *
+   * @param action action to run
+   * @param period period between the start of two runs
+   * @param unit unit of the period
+   * @return a stage which can be cancelled to stop the repetition
+   */
+  Stage<Void> repeatEvery(Supplier<? extends Stage<?>> action, long period, TimeUnit unit);
+
   /**
    * Setup a managed reference.
    *
@@ -1,5 +1,7 @@
 package eu.toolchain.concurrent;
 
+import java.util.List;
+
 /**
  * Methods for calling user-defined actions and report errors.
  *
@@ -54,4 +56,19 @@ public interface Caller {
    * @param runnable action to execute
    */
   void execute(Runnable runnable);
+
+  /**
+   * Execute all the given actions.
+   *
+   * <p>This is used when a stage has many listeners that should be executed at once, which allows
+   * implementations that hand off to other threads to do so in bulk. The default implementation
+   * calls {@link #execute(Runnable)} for each action, in order.
+   *
+   * @param runnables actions to execute
+   */
+  default void executeAll(final List<? extends Runnable> runnables) {
+    for (final Runnable runnable : runnables) {
+      execute(runnable);
+    }
+  }
 }
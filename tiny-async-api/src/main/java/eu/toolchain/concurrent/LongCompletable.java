@@ -0,0 +1,17 @@
+package eu.toolchain.concurrent;
+
+/**
+ * A {@link LongStage} that can be completed at a later point in time.
+ *
+ * @see Completable
+ */
+public interface LongCompletable extends LongStage, Completable<Long> {
+  /**
+   * Complete the current stage with a primitive value.
+   *
+   * @param result result of the computation
+   * @return {@code true} if the completable was completed by this call
+   * @see #complete(Object)
+   */
+  boolean complete(long result);
+}
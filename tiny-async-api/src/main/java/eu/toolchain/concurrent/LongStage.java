@@ -0,0 +1,75 @@
+package eu.toolchain.concurrent;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongConsumer;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * A stage specialized for primitive {@code long} values.
+ *
+ * <p>The value is stored as a primitive, and is only boxed when it is accessed through the methods
+ * inherited from {@link Stage}.
+ *
+ * @see Stage
+ */
+public interface LongStage extends Stage<Long> {
+  /**
+   * Join the result of the current stage as a primitive.
+   *
+   * @return the result of the computation
+   * @throws ExecutionException when the underlying computation throws an exception
+   * @throws CancellationException when the computation was cancelled
+   * @throws InterruptedException when this thread is interrupted
+   * @see #join()
+   */
+  long joinAsLong() throws ExecutionException, InterruptedException;
+
+  /**
+   * Join the result of the current stage as a primitive with a timeout.
+   *
+   * @param timeout timeout after which {@link java.util.concurrent.TimeoutException} will be
+   * thrown.
+   * @param unit unit of the timeout
+   * @return the result of the computation
+   * @throws ExecutionException when the underlying computation throws an exception
+   * @throws CancellationException if the computation was cancelled
+   * @throws TimeoutException when the computation does not finish within the given timeout
+   * @throws InterruptedException when this thread is interrupted
+   * @see #join(long, TimeUnit)
+   */
+  long joinAsLong(long timeout, TimeUnit unit)
+      throws ExecutionException, InterruptedException, TimeoutException;
+
+  /**
+   * Join the result of the current stage as a primitive, or fail if it's state is still running.
+   *
+   * @return the result of the computation
+   * @throws IllegalStateException if the result is not available
+   * @throws ExecutionException when the underlying computation throws an exception
+   * @throws CancellationException if the computation was cancelled
+   * @see #joinNow()
+   */
+  long joinNowAsLong() throws ExecutionException;
+
+  /**
+   * Register a listener that is called when a stage is completed, with the primitive value.
+   *
+   * @param consumer listener to register
+   * @return the current stage
+   * @see #whenComplete(java.util.function.Consumer)
+   */
+  LongStage whenCompleteAsLong(LongConsumer consumer);
+
+  /**
+   * Transform the value of the current stage using an immediate function, without boxing either
+   * the value or the result.
+   *
+   * @param fn transformation to use
+   * @return the applied stage
+   * @see #thenApply(java.util.function.Function)
+   */
+  LongStage thenApplyLong(LongUnaryOperator fn);
+}
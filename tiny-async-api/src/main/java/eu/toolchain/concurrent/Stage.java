@@ -1,12 +1,16 @@
 package eu.toolchain.concurrent;
 
+import java.util.Collection;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
 
 /**
  * An interface that defines a contract with a computation that could be asynchronous.
@@ -153,6 +157,30 @@ public interface Stage<T> {
    */
   Stage<T> whenDone(Runnable runnable);
 
+  /**
+   * Register a collection of listeners to be called when the current stage finishes for any
+   * reason.
+   *
+   * <p>This is equivalent to calling {@link #whenDone(Runnable)} for each listener, but registers
+   * all of them at once, which is cheaper when a stage is shared by many threads.
+   *
+   * @param runnables functions to be fired, in the order they should be fired
+   * @return the current stage
+   */
+  Stage<T> whenDone(Collection<? extends Runnable> runnables);
+
+  /**
+   * Register a listener to be called when the current stage finishes for any reason, which can be
+   * removed before then.
+   *
+   * <p>This is useful for listeners that are only interested in the result of long-lived stages
+   * for a limited time, since they would otherwise be retained until the stage is done.
+   *
+   * @param runnable function to be fired
+   * @return a subscription that can be used to remove the listener
+   */
+  Subscription subscribe(Runnable runnable);
+
   /**
    * Register a listener to be called when the current stage is completed.
    *
@@ -192,6 +220,66 @@ public interface Stage<T> {
    */
   <U> Stage<U> thenApply(Function<? super T, ? extends U> fn);
 
+  /**
+   * Transform the value of the current stage into a primitive {@code long} using an immediate
+   * function.
+   *
+   * <p>The resulting stage stores the value without boxing it:
+   *
+   * <pre>{@code
+   *   operation().thenApplyAsLong(result -> result.size()).joinAsLong();
+   * }</pre>
+   *
+   * @param fn transformation to use
+   * @return the applied stage
+   * @see #thenApply(Function)
+   */
+  LongStage thenApplyAsLong(ToLongFunction<? super T> fn);
+
+  /**
+   * Transform the value of the current stage into a primitive {@code double} using an immediate
+   * function.
+   *
+   * <p>The resulting stage stores the value without boxing it.
+   *
+   * @param fn transformation to use
+   * @return the applied stage
+   * @see #thenApply(Function)
+   */
+  DoubleStage thenApplyAsDouble(ToDoubleFunction<? super T> fn);
+
+  /**
+   * Build a stage which fails with a {@link TimeoutException} if the current stage is not done
+   * within the given timeout.
+   *
+   * <p>Otherwise the returned stage ends up in the same state as the current stage. Cancelling the
+   * returned stage cancels the current stage.
+   *
+   * <pre>{@code
+   *   operation().orTimeout(100, TimeUnit.MILLISECONDS);
+   * }</pre>
+   *
+   * @param timeout timeout after which the returned stage fails
+   * @param unit unit of the timeout
+   * @return a stage which fails if the timeout expires
+   */
+  Stage<T> orTimeout(long timeout, TimeUnit unit);
+
+  /**
+   * Build a stage which is completed with the given value if the current stage is not done within
+   * the given timeout.
+   *
+   * <p>Otherwise the returned stage ends up in the same state as the current stage. Cancelling the
+   * returned stage cancels the current stage.
+   *
+   * @param value value to complete the returned stage with if the timeout expires
+   * @param timeout timeout after which the returned stage is completed
+   * @param unit unit of the timeout
+   * @return a stage which completes with the given value if the timeout expires
+   * @see #orTimeout(long, TimeUnit)
+   */
+  Stage<T> completeOnTimeout(T value, long timeout, TimeUnit unit);
+
   /**
    * Compose the current stage with the given function.
    *
@@ -209,6 +297,42 @@ public interface Stage<T> {
    */
   <U> Stage<U> thenCompose(Function<? super T, ? extends Stage<U>> fn);
 
+  /**
+   * Transform the value of the current stage into another type using a function which is run on
+   * the given executor.
+   *
+   * <p>This is useful when only some transformations are expensive enough to warrant running on a
+   * separate thread, regardless of which {@link Caller} is in use:
+   *
+   * <pre>{@code
+   *   operation().thenApplyAsync(body -> decode(body), cpuPool);
+   * }</pre>
+   *
+   * <p>Exactly one task is submitted to the executor, and only if the current stage is completed.
+   * Failures and cancellations are propagated without going through the executor.
+   *
+   * @param <U> the type of the newly applied stage
+   * @param fn transformation to use
+   * @param executor executor to run the transformation on
+   * @return the applied stage
+   * @see #thenApply(Function)
+   */
+  <U> Stage<U> thenApplyAsync(Function<? super T, ? extends U> fn, Executor executor);
+
+  /**
+   * Compose the current stage with the given function, which is run on the given executor.
+   *
+   * <p>Exactly one task is submitted to the executor, and only if the current stage is completed.
+   * Failures and cancellations are propagated without going through the executor.
+   *
+   * @param <U> type of the composed stage
+   * @param fn the function to use when transforming the value
+   * @param executor executor to run the function on
+   * @return the composed stage
+   * @see #thenCompose(Function)
+   */
+  <U> Stage<U> thenComposeAsync(Function<? super T, ? extends Stage<U>> fn, Executor executor);
+
   /**
    * Apply a failed stage.
    *
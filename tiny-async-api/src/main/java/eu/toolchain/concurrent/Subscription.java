@@ -0,0 +1,19 @@
+package eu.toolchain.concurrent;
+
+/**
+ * A listener registered on a {@link Stage}, which can be removed.
+ *
+ * @see Stage#subscribe(Runnable)
+ */
+public interface Subscription {
+  /**
+   * Remove the listener from the stage it was registered on.
+   *
+   * <p>After this has been called, the listener is guaranteed to not be called by the stage
+   * unless it has already been called.
+   *
+   * @return {@code true} if the listener was removed before being called, {@code false} if it has
+   * already been called, or was already removed
+   */
+  boolean unsubscribe();
+}
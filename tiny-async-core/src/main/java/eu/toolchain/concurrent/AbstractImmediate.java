@@ -1,8 +1,14 @@
 package eu.toolchain.concurrent;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
 import lombok.RequiredArgsConstructor;
 
 /**
@@ -19,8 +25,69 @@ import lombok.RequiredArgsConstructor;
  */
 @RequiredArgsConstructor
 abstract class AbstractImmediate<T> implements Stage<T> {
+  /**
+   * Subscription for a listener which has already been called.
+   */
+  static final Subscription CALLED = () -> false;
+
   protected final Caller caller;
 
+  /**
+   * Options for completables derived from this stage.
+   *
+   * <p>Immediate stages do not carry any options, so they derive completables with the default
+   * options. Overridden by completables which are configured with options.
+   */
+  CompletableOptions options() {
+    return ConcurrentCompletable.DEFAULT_OPTIONS;
+  }
+
+  /**
+   * Build a stage which has been completed with the given value.
+   *
+   * <p>This and the other stage factories are overridden by {@link ConcurrentCompletable} to
+   * avoid mixing in the immediate stage types, see {@link CompletableOptions#isMonomorphic()}.
+   */
+  <U> Stage<U> completedStage(final U value) {
+    return new ImmediateCompleted<>(caller, value);
+  }
+
+  <U> Stage<U> failedStage(final Throwable cause) {
+    return new ImmediateFailed<>(caller, cause);
+  }
+
+  <U> Stage<U> cancelledStage() {
+    return new ImmediateCancelled<>(caller);
+  }
+
+  @Override
+  public Stage<T> whenDone(final Collection<? extends Runnable> runnables) {
+    if (caller instanceof DirectCaller) {
+      executeEach(runnables);
+      return this;
+    }
+
+    if (!runnables.isEmpty()) {
+      caller.executeAll(new ArrayList<>(runnables));
+    }
+
+    return this;
+  }
+
+  /**
+   * Execute the given runnables one at a time.
+   *
+   * <p>Used instead of {@link Caller#executeAll(List)} for a {@link DirectCaller}, which would
+   * run them in place anyway, so that no list has to be built to hand them over.
+   *
+   * @param runnables runnables to execute
+   */
+  void executeEach(final Iterable<? extends Runnable> runnables) {
+    for (final Runnable runnable : runnables) {
+      caller.execute(runnable);
+    }
+  }
+
   <U> Stage<U> thenApplyCompleted(
       final Function<? super T, ? extends U> fn, final T value
   ) {
@@ -29,10 +96,115 @@ abstract class AbstractImmediate<T> implements Stage<T> {
     try {
       result = fn.apply(value);
     } catch (final Exception e) {
-      return new ImmediateFailed<>(caller, e);
+      return failedStage(e);
+    }
+
+    return completedStage(result);
+  }
+
+  <U> Stage<U> thenApplyAsyncCompleted(
+      final Function<? super T, ? extends U> fn, final Executor executor, final T value
+  ) {
+    final ConcurrentCompletable<U> target = new ConcurrentCompletable<>(caller, options());
+
+    try {
+      executor.execute(() -> {
+        if (target.isDone()) {
+          return;
+        }
+
+        final U result;
+
+        try {
+          result = fn.apply(value);
+        } catch (final Exception e) {
+          target.fail(e);
+          return;
+        }
+
+        target.complete(result);
+      });
+    } catch (final Exception e) {
+      return failedStage(e);
+    }
+
+    return target;
+  }
+
+  <U> Stage<U> thenComposeAsyncCompleted(
+      final Function<? super T, ? extends Stage<U>> fn, final Executor executor, final T value
+  ) {
+    final ConcurrentCompletable<U> target = new ConcurrentCompletable<>(caller, options());
+
+    try {
+      executor.execute(() -> {
+        if (target.isDone()) {
+          return;
+        }
+
+        target.handleStage(() -> fn.apply(value), target);
+      });
+    } catch (final Exception e) {
+      return failedStage(e);
     }
 
-    return new ImmediateCompleted<>(caller, result);
+    return target;
+  }
+
+  LongStage thenApplyAsLongCompleted(final ToLongFunction<? super T> fn, final T value) {
+    final ConcurrentLongCompletable target = new ConcurrentLongCompletable(caller, options());
+
+    final long result;
+
+    try {
+      result = fn.applyAsLong(value);
+    } catch (final Exception e) {
+      target.fail(e);
+      return target;
+    }
+
+    target.complete(result);
+    return target;
+  }
+
+  DoubleStage thenApplyAsDoubleCompleted(final ToDoubleFunction<? super T> fn, final T value) {
+    final ConcurrentDoubleCompletable target = new ConcurrentDoubleCompletable(caller, options());
+
+    final double result;
+
+    try {
+      result = fn.applyAsDouble(value);
+    } catch (final Exception e) {
+      target.fail(e);
+      return target;
+    }
+
+    target.complete(result);
+    return target;
+  }
+
+  LongStage failedLong(final Throwable cause) {
+    final ConcurrentLongCompletable target = new ConcurrentLongCompletable(caller, options());
+    target.fail(cause);
+    return target;
+  }
+
+  DoubleStage failedDouble(final Throwable cause) {
+    final ConcurrentDoubleCompletable target = new ConcurrentDoubleCompletable(caller, options());
+    target.fail(cause);
+    return target;
+  }
+
+  LongStage cancelledLong() {
+    final ConcurrentLongCompletable target = new ConcurrentLongCompletable(caller, options());
+    target.cancel();
+    return target;
+  }
+
+  DoubleStage cancelledDouble() {
+    final ConcurrentDoubleCompletable target = new ConcurrentDoubleCompletable(caller, options());
+    target.cancel();
+    return target;
   }
 
   <U> Stage<U> thenComposeCompleted(
@@ -41,7 +213,7 @@ abstract class AbstractImmediate<T> implements Stage<T> {
     try {
       return fn.apply(value);
     } catch (final Exception e) {
-      return new ImmediateFailed<>(caller, e);
+      return failedStage(e);
     }
   }
 
@@ -56,7 +228,7 @@ abstract class AbstractImmediate<T> implements Stage<T> {
       return executionExceptionFailed(e, cause);
     }
 
-    return new ImmediateCompleted<>(caller, value);
+    return completedStage(value);
   }
 
   Stage<T> thenComposeFailedFailed(
@@ -71,9 +243,9 @@ abstract class AbstractImmediate<T> implements Stage<T> {
 
   Stage<T> thenSupplyCancelledCancelled(final Supplier<? extends T> fn) {
     try {
-      return new ImmediateCompleted<>(caller, fn.get());
+      return completedStage(fn.get());
     } catch (final Exception e) {
-      return new ImmediateFailed<>(caller, e);
+      return failedStage(e);
     }
   }
 
@@ -83,7 +255,7 @@ abstract class AbstractImmediate<T> implements Stage<T> {
     try {
       return fn.get();
     } catch (final Exception e) {
-      return new ImmediateFailed<>(caller, e);
+      return failedStage(e);
     }
   }
 
@@ -93,7 +265,7 @@ abstract class AbstractImmediate<T> implements Stage<T> {
     try {
       next = notComplete.get();
     } catch (final Exception e) {
-      return new ImmediateFailed<>(caller, e);
+      return failedStage(e);
     }
 
     return next.thenCancel();
@@ -136,7 +308,7 @@ abstract class AbstractImmediate<T> implements Stage<T> {
     try {
       next = complete.get();
     } catch (final Exception e) {
-      return new ImmediateFailed<>(caller, e);
+      return failedStage(e);
     }
 
     return next.thenApply(v -> result);
@@ -162,15 +334,25 @@ abstract class AbstractImmediate<T> implements Stage<T> {
     try {
       next = supplier.get();
     } catch (final Exception e) {
-      return new ImmediateFailed<>(caller, e);
+      return failedStage(e);
     }
 
     return next.thenCancel();
   }
 
   Stage<T> executionExceptionFailed(final Throwable e, final Throwable cause) {
-    final ExecutionException ee = new ExecutionException(e);
+    final ExecutionException ee = executionException(e);
     ee.addSuppressed(cause);
-    return new ImmediateFailed<>(caller, ee);
+    return failedStage(ee);
+  }
+
+  /**
+   * Build the exception used to wrap a failure.
+   *
+   * <p>Overridden by completables which can be configured to build it without a stack trace, see
+   * {@link CompletableOptions#isStacklessExceptions()}.
+   */
+  ExecutionException executionException(final Throwable cause) {
+    return new ExecutionException(cause);
   }
 }
@@ -0,0 +1,98 @@
+package eu.toolchain.concurrent;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A {@link Caller} implementation that defers all execution to a
+ * {@link java.util.concurrent.ExecutorService}, but batches it into fewer tasks.
+ *
+ * <p>Runnables are added to a lock-free queue, which is drained by a single task that is submitted
+ * to the executor while the queue is non-empty. Each task runs at most {@code maxBatch} runnables
+ * before it yields the executor thread by submitting a new task. This is the same guarantee as
+ * {@link ExecutorCaller}, no runnable is run on the thread that invokes {@link #execute(Runnable)},
+ * at a fraction of the traffic on the queue of the executor.
+ *
+ * <p>Since runnables are run in sequence by the drain task, one runnable that blocks will delay
+ * all the others.
+ */
+public final class BatchingExecutorCaller implements Caller {
+  private final ExecutorService executor;
+  private final Caller caller;
+  private final int maxBatch;
+
+  private final ConcurrentLinkedQueue<Runnable> queue = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+
+  public BatchingExecutorCaller(
+      final ExecutorService executor, final Caller caller, final int maxBatch
+  ) {
+    if (maxBatch <= 0) {
+      throw new IllegalArgumentException("maxBatch: must be positive");
+    }
+
+    this.executor = executor;
+    this.caller = caller;
+    this.maxBatch = maxBatch;
+  }
+
+  @Override
+  public void execute(final Runnable runnable) {
+    queue.add(runnable);
+    schedule();
+  }
+
+  @Override
+  public void executeAll(final List<? extends Runnable> runnables) {
+    queue.addAll(runnables);
+    schedule();
+  }
+
+  @Override
+  public void referenceLeaked(final Object reference, final StackTraceElement[] stack) {
+    execute(() -> caller.referenceLeaked(reference, stack));
+  }
+
+  void schedule() {
+    if (!scheduled.compareAndSet(false, true)) {
+      return;
+    }
+
+    try {
+      executor.execute(this::drain);
+    } catch (final RuntimeException e) {
+      /* queued runnables are picked up by the next successful submission */
+      scheduled.set(false);
+      throw e;
+    }
+  }
+
+  void drain() {
+    try {
+      for (int i = 0; i < maxBatch; i++) {
+        final Runnable runnable = queue.poll();
+
+        if (runnable == null) {
+          break;
+        }
+
+        try {
+          runnable.run();
+        } catch (final Exception e) {
+          final Thread t = Thread.currentThread();
+          t.getUncaughtExceptionHandler().uncaughtException(t, e);
+        }
+      }
+    } finally {
+      scheduled.set(false);
+    }
+
+    /* runnables added after the last poll, but before the flag was cleared, have not scheduled a
+     * drain of their own */
+    if (!queue.isEmpty()) {
+      schedule();
+    }
+  }
+}
@@ -0,0 +1,135 @@
+package eu.toolchain.concurrent;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A completable which is also the task that completes it, as used by {@link
+ * Async#call(Callable)}.
+ *
+ * <p>Since the task is submitted using {@link java.util.concurrent.Executor#execute(Runnable)},
+ * there is no {@link java.util.concurrent.FutureTask} wrapping it. Cancellation is checked through
+ * the state of the completable before the callable is invoked.
+ *
+ * @param <T> type of the completable
+ */
+class CallTask<T> extends ConcurrentCompletable<T> implements Runnable {
+  static final AtomicReferenceFieldUpdater<CallTask, Thread> RUNNER =
+      AtomicReferenceFieldUpdater.newUpdater(CallTask.class, Thread.class, "runner");
+
+  /**
+   * Number of times to check for the interrupt of a cancel before parking, see
+   * {@link #clearCancelInterrupt()}.
+   */
+  static final int CLEAR_INTERRUPT_SPINS = 64;
+
+  private final Callable<? extends T> callable;
+
+  /**
+   * Thread running the callable, only tracked if it should be interrupted when the task is
+   * cancelled, see {@link CompletableOptions#isInterruptOnCancel()}.
+   */
+  volatile Thread runner;
+  /**
+   * Set once a cancel has interrupted the runner, which is then unparked.
+   */
+  volatile boolean interrupted;
+
+  CallTask(
+    final Caller caller, final CompletableOptions options, final Callable<? extends T> callable
+  ) {
+    super(caller, options);
+    this.callable = callable;
+  }
+
+  @Override
+  public void run() {
+    // task is already done, do not perform potentially expensive operation.
+    if (isDone()) {
+      return;
+    }
+
+    if (!options.isInterruptOnCancel()) {
+      call();
+      return;
+    }
+
+    runner = Thread.currentThread();
+
+    try {
+      // might have been cancelled before the runner was visible.
+      if (!isDone()) {
+        call();
+      }
+    } finally {
+      if (RUNNER.getAndSet(this, null) == null) {
+        clearCancelInterrupt();
+      }
+    }
+  }
+
+  @Override
+  public boolean cancel() {
+    if (!super.cancel()) {
+      return false;
+    }
+
+    if (options.isInterruptOnCancel()) {
+      final Thread thread = RUNNER.getAndSet(this, null);
+
+      if (thread != null) {
+        interruptRunner(thread);
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Interrupt a runner that has been claimed by a cancel, and wake it up in case it is already
+   * waiting for the interrupt in {@link #clearCancelInterrupt()}.
+   */
+  void interruptRunner(final Thread thread) {
+    thread.interrupt();
+    interrupted = true;
+    LockSupport.unpark(thread);
+  }
+
+  private void call() {
+    final T result;
+
+    try {
+      result = callable.call();
+    } catch (final Exception error) {
+      fail(error);
+      return;
+    }
+
+    complete(result);
+  }
+
+  /**
+   * The runner was claimed by a cancel, which interrupts it. Wait for the interrupt and clear it,
+   * unless the callable already did, so that it doesn't leak into whatever the thread runs next.
+   *
+   * <p>The cancel is normally only a few instructions away, so this spins for a while before
+   * parking until the cancel unparks it. A pending interrupt is cleared before parking, since it
+   * would otherwise make parking return immediately.
+   */
+  private void clearCancelInterrupt() {
+    int spins = CLEAR_INTERRUPT_SPINS;
+
+    while (!interrupted) {
+      if (spins > 0) {
+        spins--;
+        continue;
+      }
+
+      Thread.interrupted();
+      LockSupport.park(this);
+    }
+
+    Thread.interrupted();
+  }
+}
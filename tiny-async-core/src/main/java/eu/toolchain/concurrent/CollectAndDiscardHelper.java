@@ -4,6 +4,7 @@ import static eu.toolchain.concurrent.CoreAsync.buildCollectedException;
 
 import java.util.Collection;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -13,17 +14,37 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 class CollectAndDiscardHelper implements Handle<Object> {
   private final Completable<Void> target;
-  private final AtomicInteger countdown;
+  private final StripedCountdown countdown;
   private final AtomicInteger cancelled = new AtomicInteger();
   private final ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
 
+  /**
+   * If the target should be failed by the first stage that fails or is cancelled, without waiting
+   * for the rest.
+   */
+  private final boolean failFast;
+  private final AtomicBoolean done = new AtomicBoolean();
+
   CollectAndDiscardHelper(int size, Completable<Void> target) {
+    this(size, target, false);
+  }
+
+  CollectAndDiscardHelper(int size, Completable<Void> target, boolean failFast) {
     this.target = target;
-    this.countdown = new AtomicInteger(size);
+    this.countdown = new StripedCountdown(size);
+    this.failFast = failFast;
   }
 
   @Override
   public void failed(Throwable e) {
+    if (failFast) {
+      if (done.compareAndSet(false, true)) {
+        target.fail(e);
+      }
+
+      return;
+    }
+
     errors.add(e);
     check();
   }
@@ -35,6 +56,14 @@ class CollectAndDiscardHelper implements Handle<Object> {
 
   @Override
   public void cancelled() {
+    if (failFast) {
+      if (done.compareAndSet(false, true)) {
+        target.cancel();
+      }
+
+      return;
+    }
+
     cancelled.incrementAndGet();
     check();
   }
@@ -54,7 +83,7 @@ class CollectAndDiscardHelper implements Handle<Object> {
   }
 
   private void check() {
-    if (countdown.decrementAndGet() == 0) {
+    if (countdown.countDown() && done.compareAndSet(false, true)) {
       done();
     }
   }
@@ -2,9 +2,11 @@ package eu.toolchain.concurrent;
 
 import static eu.toolchain.concurrent.CoreAsync.buildCollectedException;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
@@ -13,52 +15,50 @@ import lombok.RequiredArgsConstructor;
 /**
  * Helper class for {@link CoreAsync#collect(Collection, Function)}
  *
- * <p>The helper implements {@code Handle}, and is intended to be used by binding it as a
- * listener to the futures being collected.
+ * <p>Each source stage is bound to a {@link Slot}, which writes its result at the position of the
+ * source. The collector is given a read-only view of the results in the same order as the sources,
+ * without copying them.
  *
- * <p>This is a lock-free implementation capable of writing the results out of order.
+ * <p>This is a lock-free implementation, results may be written in any order.
  *
  * @param <T> the source type being collected
  * @param <U> the collected value
  */
-class CollectHelper<T, U> implements Handle<T> {
-  static final byte COMPLETED = 0x1;
-  static final byte FAILED = 0x2;
-  static final byte CANCELLED = 0x3;
-
+class CollectHelper<T, U> {
   final int size;
   final Function<? super Collection<T>, ? extends U> collector;
 
   /**
-   * A collection of all source stages.
+   * All source stages, indexed by their position. Each entry is cleared once the source has
+   * checked in, so that they are not retained by a collect which is still pending.
    */
-  Collection<? extends Stage<?>> sources;
+  Stage<?>[] sources;
 
   final Completable<? super U> target;
 
   /**
-   * The collected results, non-final to allow for setting to null. Allows for random writes
-   * since final size is known at initialization.
+   * The collected results, indexed by the position of their source. Non-final to allow for
+   * setting to null.
    **/
   Object[] values;
 
   /**
-   * Flags for all collected states.
+   * Errors and cancellations of the sources, which cause the results to be discarded.
    */
-  byte[] states;
+  final ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+  final AtomicInteger cancelled = new AtomicInteger();
 
   /**
-   * maintain position separate since the is a potential race condition between getting the
-   * current position and setting the entry. This is avoided by only relying on countdown to trigger
-   * when we are done.
+   * Countdown of sources that have not checked in. Each source writes to its slot before counting
+   * down, so the last one to count down sees all results.
    **/
-  final AtomicInteger write;
+  final StripedCountdown countdown;
 
   /**
-   * Maintain a separate countdown since the write position might be out of order, this causes all
-   * threads to synchronize after the write
-   **/
-  final AtomicInteger countdown;
+   * If the target should be failed by the first source that fails or is cancelled, without
+   * waiting for the rest.
+   */
+  final boolean failFast;
 
   /**
    * State of the collector.
@@ -69,6 +69,14 @@ class CollectHelper<T, U> implements Handle<T> {
   CollectHelper(
       int size, Function<? super Collection<T>, ? extends U> collector,
       Collection<? extends Stage<?>> sources, Completable<? super U> target
+  ) {
+    this(size, collector, sources, target, false);
+  }
+
+  CollectHelper(
+      int size, Function<? super Collection<T>, ? extends U> collector,
+      Collection<? extends Stage<?>> sources, Completable<? super U> target,
+      boolean failFast
   ) {
     if (size <= 0) {
       throw new IllegalArgumentException("size");
@@ -76,32 +84,80 @@ class CollectHelper<T, U> implements Handle<T> {
 
     this.size = size;
     this.collector = collector;
-    this.sources = sources;
+    this.sources = toArray(size, sources);
     this.target = target;
+    this.failFast = failFast;
 
     this.values = new Object[size];
-    this.states = new byte[size];
-    this.write = new AtomicInteger();
-    this.countdown = new AtomicInteger(size);
+    this.countdown = new StripedCountdown(size);
     this.failed = new AtomicBoolean();
     this.done = new AtomicBoolean();
   }
 
-  @Override
-  public void completed(T result) {
-    add(COMPLETED, result);
+  /**
+   * Build the handle for the source at the given position.
+   *
+   * @param index position of the source
+   * @return a handle to bind to the source
+   */
+  Handle<T> slot(final int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("index: " + index);
+    }
+
+    return new Slot(index);
+  }
+
+  void completed(final int index, final T result) {
+    final Object[] values = this.values;
+
+    // released by a fail fast
+    if (values != null) {
+      values[index] = result;
+    }
+
+    release(index);
+    check();
   }
 
-  @Override
-  public void failed(Throwable e) {
-    add(FAILED, e);
+  void release(final int index) {
+    final Stage<?>[] sources = this.sources;
+
+    if (sources != null) {
+      sources[index] = null;
+    }
+  }
+
+  void failed(final Throwable e) {
+    if (failFast) {
+      if (done.compareAndSet(false, true)) {
+        values = null;
+        target.fail(e);
+      }
+
+      checkFailed();
+      return;
+    }
+
+    errors.add(e);
     checkFailed();
+    check();
   }
 
-  @Override
-  public void cancelled() {
-    add(CANCELLED, null);
+  void cancelled() {
+    if (failFast) {
+      if (done.compareAndSet(false, true)) {
+        values = null;
+        target.cancel();
+      }
+
+      checkFailed();
+      return;
+    }
+
+    cancelled.incrementAndGet();
     checkFailed();
+    check();
   }
 
   void checkFailed() {
@@ -109,63 +165,57 @@ class CollectHelper<T, U> implements Handle<T> {
       return;
     }
 
-    for (final Stage<?> source : sources) {
-      source.cancel();
-    }
+    final Stage<?>[] sources = this.sources;
 
     // help garbage collection.
-    sources = null;
-  }
+    this.sources = null;
 
-  /**
-   * Checks in a doCall back. It also wraps up the group if all the callbacks have checked in.
-   */
-  void add(final byte type, final Object value) {
-    final int w = write.getAndIncrement();
-
-    if (w < size) {
-      writeAt(w, type, value);
+    if (sources == null) {
+      return;
     }
 
-    // countdown could wrap around, however we check the state of finished in here.
-    // MUST be called after write to make sure that results and states are synchronized.
-    final int c = countdown.decrementAndGet();
-
-    if (c < 0) {
-      throw new IllegalStateException("already finished (countdown)");
+    for (final Stage<?> source : sources) {
+      if (source != null) {
+        source.cancel();
+      }
     }
+  }
 
+  /**
+   * Checks in a source. It also wraps up the group if all the sources have checked in.
+   */
+  void check() {
     // if this thread is not the last thread to check-in, do nothing..
-    if (c != 0) {
+    if (!countdown.countDown()) {
       return;
     }
 
     // make sure this can only happen once.
-    // This protects against countdown, and write wrapping around which should very rarely
-    // happen.
     if (!done.compareAndSet(false, true)) {
+      // the target has already been failed by a fail fast
+      if (failFast) {
+        return;
+      }
+
       throw new IllegalStateException("already finished");
     }
 
-    done(collect());
+    done();
   }
 
-  void writeAt(final int w, final byte state, final Object value) {
-    states[w] = state;
-    values[w] = value;
-  }
+  void done() {
+    final Object[] values = this.values;
 
-  void done(Results r) {
-    final Collection<T> results = r.results;
-    final Collection<Throwable> errors = r.errors;
-    final int cancelled = r.cancelled;
+    // help garbage collector
+    this.values = null;
+    this.sources = null;
 
     if (!errors.isEmpty()) {
       target.fail(buildCollectedException(errors));
       return;
     }
 
-    if (cancelled > 0) {
+    if (cancelled.get() > 0) {
       target.cancel();
       return;
     }
@@ -173,7 +223,7 @@ class CollectHelper<T, U> implements Handle<T> {
     U result;
 
     try {
-      result = collector.apply(results);
+      result = collector.apply(results(values));
     } catch (final Exception error) {
       target.fail(error);
       return;
@@ -182,41 +232,45 @@ class CollectHelper<T, U> implements Handle<T> {
     target.complete(result);
   }
 
-  @SuppressWarnings("unchecked")
-  Results collect() {
-    final List<T> results = new ArrayList<>();
-    final List<Throwable> errors = new ArrayList<>();
-    int cancelled = 0;
-
-    for (int i = 0; i < size; i++) {
-      final byte type = states[i];
-
-      switch (type) {
-        case COMPLETED:
-          results.add((T) values[i]);
-          break;
-        case FAILED:
-          errors.add((Throwable) values[i]);
-          break;
-        case CANCELLED:
-          cancelled++;
-          break;
-        default:
-          throw new IllegalArgumentException("Invalid entry type: " + type);
-      }
+  static Stage<?>[] toArray(final int size, final Collection<? extends Stage<?>> sources) {
+    final Stage<?>[] array = new Stage<?>[size];
+
+    int index = 0;
+
+    for (final Stage<?> source : sources) {
+      array[index++] = source;
     }
 
-    // help garbage collector
-    this.states = null;
-    this.values = null;
+    return array;
+  }
 
-    return new Results(results, errors, cancelled);
+  @SuppressWarnings("unchecked")
+  static <T> List<T> results(final Object[] values) {
+    return Collections.unmodifiableList(Arrays.asList((T[]) values));
   }
 
+  /**
+   * Handle for a single source, which knows the position of its result.
+   */
   @RequiredArgsConstructor
-  class Results {
-    private final List<T> results;
-    private final List<Throwable> errors;
-    private final int cancelled;
+  class Slot implements Handle<T> {
+    private final int index;
+
+    @Override
+    public void completed(final T result) {
+      CollectHelper.this.completed(index, result);
+    }
+
+    @Override
+    public void failed(final Throwable e) {
+      release(index);
+      CollectHelper.this.failed(e);
+    }
+
+    @Override
+    public void cancelled() {
+      release(index);
+      CollectHelper.this.cancelled();
+    }
   }
 }
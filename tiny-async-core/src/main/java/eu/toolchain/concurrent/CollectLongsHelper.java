@@ -0,0 +1,63 @@
+package eu.toolchain.concurrent;
+
+import static eu.toolchain.concurrent.CoreAsync.buildCollectedException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Helper for {@link CoreAsync#collectLongs(Collection)}.
+ *
+ * <p>A single instance is registered as a listener on all sources. Values are read from the
+ * sources as primitives once all of them are done, so no value is boxed and no per-source state
+ * has to be allocated.
+ */
+class CollectLongsHelper implements Runnable {
+  private final LongStage[] sources;
+  private final Completable<long[]> target;
+  private final StripedCountdown countdown;
+
+  CollectLongsHelper(final LongStage[] sources, final Completable<long[]> target) {
+    this.sources = sources;
+    this.target = target;
+    this.countdown = new StripedCountdown(sources.length);
+  }
+
+  @Override
+  public void run() {
+    if (countdown.countDown()) {
+      done();
+    }
+  }
+
+  private void done() {
+    final long[] values = new long[sources.length];
+    final List<Throwable> errors = new ArrayList<>();
+    int cancelled = 0;
+
+    for (int i = 0; i < sources.length; i++) {
+      try {
+        values[i] = sources[i].joinNowAsLong();
+      } catch (final ExecutionException e) {
+        errors.add(e.getCause());
+      } catch (final CancellationException e) {
+        cancelled++;
+      }
+    }
+
+    if (!errors.isEmpty()) {
+      target.fail(buildCollectedException(errors));
+      return;
+    }
+
+    if (cancelled > 0) {
+      target.cancel();
+      return;
+    }
+
+    target.complete(values);
+  }
+}
@@ -0,0 +1,331 @@
+package eu.toolchain.concurrent;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import lombok.Data;
+
+/**
+ * Options that can be modified when building {@link ConcurrentCompletable} instances.
+ */
+@Data
+public class CompletableOptions {
+  private static final int NCPU = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * Spinning is pointless on a single processor, since the thread that would complete the
+   * completable can't run while we spin.
+   */
+  private static final int JOIN_SPINS = NCPU > 1 ? 1 << 8 : 0;
+  private static final int JOIN_YIELDS = NCPU > 1 ? 1 << 2 : 0;
+
+  /**
+   * Timer shared by all completables which have not been configured with one. Its thread is only
+   * started once it is first used.
+   */
+  private static final HashedWheelTimer DEFAULT_TIMER = new HashedWheelTimer();
+
+  /**
+   * Number of times to spin waiting for a result before yielding in
+   * {@link ConcurrentCompletable#join()}.
+   */
+  private final int joinSpins;
+  /**
+   * Number of times to yield waiting for a result before parking in
+   * {@link ConcurrentCompletable#join()}.
+   */
+  private final int joinYields;
+  /**
+   * Timer used for timeouts, like {@link ConcurrentCompletable#orTimeout(long,
+   * java.util.concurrent.TimeUnit)}.
+   */
+  private final HashedWheelTimer timer;
+  /**
+   * Executor that expired timers hand their work off to, see
+   * {@link Builder#timerExecutor(Executor)}.
+   */
+  private final Executor timerExecutor;
+  /**
+   * If a completable should only be cancelled by the stages derived from it once all of them have
+   * been cancelled, see {@link Builder#refCountedCancellation(boolean)}.
+   */
+  private final boolean refCountedCancellation;
+  /**
+   * If a {@link LocalCompletable} should verify that it is only used from the thread that created
+   * it.
+   */
+  private final boolean checkLocalThread;
+  /**
+   * If stages which are already done should be represented by {@link ConcurrentCompletable}, see
+   * {@link Builder#monomorphic(boolean)}.
+   */
+  private final boolean monomorphic;
+  /**
+   * If exceptions for outcomes like cancellation should be built without stack traces, see
+   * {@link Builder#stacklessExceptions(boolean)}.
+   */
+  private final boolean stacklessExceptions;
+  /**
+   * If cancelling a stage created through {@link Async#call(java.util.concurrent.Callable)} should
+   * interrupt the thread running it, see {@link Builder#interruptOnCancel(boolean)}.
+   */
+  private final boolean interruptOnCancel;
+  /**
+   * If collected stages should fail as soon as any of the collected stages fails or is cancelled,
+   * see {@link Builder#failFastCollect(boolean)}.
+   */
+  private final boolean failFastCollect;
+  /**
+   * If the consumer of a stream collect should only be called by one thread at a time, see
+   * {@link Builder#serializedStreamCollect(boolean)}.
+   */
+  private final boolean serializedStreamCollect;
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static CompletableOptions newDefault() {
+    return builder().build();
+  }
+
+  /**
+   * Options builder.
+   */
+  public static class Builder {
+    private Optional<Integer> joinSpins = Optional.empty();
+    private Optional<Integer> joinYields = Optional.empty();
+    private Optional<HashedWheelTimer> timer = Optional.empty();
+    private Optional<Executor> timerExecutor = Optional.empty();
+    private Optional<Boolean> refCountedCancellation = Optional.empty();
+    private Optional<Boolean> checkLocalThread = Optional.empty();
+    private Optional<Boolean> monomorphic = Optional.empty();
+    private Optional<Boolean> stacklessExceptions = Optional.empty();
+    private Optional<Boolean> interruptOnCancel = Optional.empty();
+    private Optional<Boolean> failFastCollect = Optional.empty();
+    private Optional<Boolean> serializedStreamCollect = Optional.empty();
+
+    Builder() {
+    }
+
+    /**
+     * Configure how many times join should spin waiting for a result before yielding.
+     *
+     * <p>Spinning avoids the cost of parking and unparking a thread when a result is expected to
+     * become available shortly. Setting both this and {@link #joinYields(int)} to {@code 0} causes
+     * join to park immediately.
+     *
+     * @param joinSpins number of spins, defaults to {@code 256} on multiprocessor machines, and
+     * {@code 0} otherwise
+     * @return this builder
+     */
+    public Builder joinSpins(final int joinSpins) {
+      if (joinSpins < 0) {
+        throw new IllegalArgumentException("joinSpins: must be non-negative");
+      }
+
+      this.joinSpins = Optional.of(joinSpins);
+      return this;
+    }
+
+    /**
+     * Configure how many times join should yield waiting for a result before parking.
+     *
+     * @param joinYields number of yields, defaults to {@code 4} on multiprocessor machines, and
+     * {@code 0} otherwise
+     * @return this builder
+     */
+    public Builder joinYields(final int joinYields) {
+      if (joinYields < 0) {
+        throw new IllegalArgumentException("joinYields: must be non-negative");
+      }
+
+      this.joinYields = Optional.of(joinYields);
+      return this;
+    }
+
+    /**
+     * Configure the timer used for timeouts.
+     *
+     * <p>The thread of the timer only keeps track of time, the work of an expired timer is handed
+     * off to the {@link #timerExecutor(Executor)}.
+     *
+     * @param timer timer to use, defaults to a timer which is shared by the whole process
+     * @return this builder
+     */
+    public Builder timer(final HashedWheelTimer timer) {
+      this.timer = Optional.of(Objects.requireNonNull(timer, "timer"));
+      return this;
+    }
+
+    /**
+     * Configure the executor that expired timers hand their work off to.
+     *
+     * <p>This is where stages that time out, and stages built through
+     * {@link Async#delay(long, java.util.concurrent.TimeUnit)}, are completed, and so where their
+     * callbacks run when a direct caller is used. Keeping that work off the thread of the timer
+     * prevents one slow callback from delaying every other timer.
+     *
+     * @param timerExecutor executor to use, defaults to {@link ForkJoinPool#commonPool()}
+     * @return this builder
+     */
+    public Builder timerExecutor(final Executor timerExecutor) {
+      this.timerExecutor = Optional.of(Objects.requireNonNull(timerExecutor, "timerExecutor"));
+      return this;
+    }
+
+    /**
+     * Configure how cancellation propagates from derived stages to the stage they were derived
+     * from.
+     *
+     * <p>By default, cancelling a stage derived from another through a method like
+     * {@link Stage#thenApply(java.util.function.Function)} also cancels the stage it was derived
+     * from, even if other derived stages are still interested in its result.
+     *
+     * <p>With reference counted cancellation, each completable keeps track of how many stages have
+     * been derived from it, and is only cancelled once all of them have been cancelled. This allows
+     * abandoned work to be cancelled when a result is shared by many consumers. Derived stages that
+     * are done before the stage they were derived from, like ones that time out, no longer count.
+     *
+     * @param refCountedCancellation {@code true} to enable reference counted cancellation, defaults
+     * to {@code false}
+     * @return this builder
+     */
+    public Builder refCountedCancellation(final boolean refCountedCancellation) {
+      this.refCountedCancellation = Optional.of(refCountedCancellation);
+      return this;
+    }
+
+    /**
+     * Configure if local completables should verify that they are only used from the thread that
+     * created them.
+     *
+     * <p>This is intended to be enabled while debugging, since it checks the current thread on
+     * every interaction. Any violation throws an {@link IllegalStateException}.
+     *
+     * @param checkLocalThread {@code true} to verify the thread, defaults to {@code false}
+     * @return this builder
+     * @see LocalCompletable
+     */
+    public Builder checkLocalThread(final boolean checkLocalThread) {
+      this.checkLocalThread = Optional.of(checkLocalThread);
+      return this;
+    }
+
+    /**
+     * Configure if stages which are already done should be represented by the same type as stages
+     * which are pending.
+     *
+     * <p>By default, stages that are built in a completed, failed, or cancelled state use a
+     * separate, lighter implementation for each state. If these are mixed with pending stages, call
+     * sites like {@link Stage#thenApply(java.util.function.Function)} see up to four
+     * implementations, which prevents the JVM from inlining them. Enabling this option represents
+     * all of them with {@link ConcurrentCompletable}, at the cost of a slightly larger object for
+     * stages that are already done.
+     *
+     * @param monomorphic {@code true} to only use a single type of stage, defaults to {@code false}
+     * @return this builder
+     */
+    public Builder monomorphic(final boolean monomorphic) {
+      this.monomorphic = Optional.of(monomorphic);
+      return this;
+    }
+
+    /**
+     * Configure if exceptions for expected outcomes should be built without stack traces.
+     *
+     * <p>Filling in the stack trace dominates the cost of building an exception. With this
+     * enabled, the {@link java.util.concurrent.CancellationException} thrown when joining a
+     * cancelled completable, the {@link java.util.concurrent.TimeoutException} thrown when a join
+     * times out, and the {@link java.util.concurrent.ExecutionException} wrapping a failure do not
+     * capture a stack trace. A new exception is still built each time, so callers are free to
+     * modify it.
+     *
+     * <p>Stages which are already done when they are built only honor this option when
+     * {@link #monomorphic(boolean)} is enabled.
+     *
+     * @param stacklessExceptions {@code true} to build exceptions without stack traces, defaults to
+     * {@code false}
+     * @return this builder
+     */
+    public Builder stacklessExceptions(final boolean stacklessExceptions) {
+      this.stacklessExceptions = Optional.of(stacklessExceptions);
+      return this;
+    }
+
+    /**
+     * Configure if cancelling a stage created through {@link
+     * Async#call(java.util.concurrent.Callable)} should interrupt the thread running it.
+     *
+     * <p>By default, a call which is cancelled before it has started is not invoked, but a call
+     * which is already running is left to finish. Interrupting it requires keeping track of the
+     * thread it runs on.
+     *
+     * @param interruptOnCancel {@code true} to interrupt running calls when they are cancelled,
+     * defaults to {@code false}
+     * @return this builder
+     */
+    public Builder interruptOnCancel(final boolean interruptOnCancel) {
+      this.interruptOnCancel = Optional.of(interruptOnCancel);
+      return this;
+    }
+
+    /**
+     * Configure if collected stages should fail as soon as any of the collected stages fails or is
+     * cancelled.
+     *
+     * <p>By default, {@link Async#collect(java.util.Collection)} and {@link
+     * Async#collectAndDiscard(java.util.Collection)} wait for all stages to be done before failing,
+     * so a single slow stage keeps a failed collect pending. With fail fast, the collected stage is
+     * failed or cancelled immediately, results which are already collected are released, and
+     * stages that are done later are ignored.
+     *
+     * @param failFastCollect {@code true} to fail collected stages as soon as possible, defaults to
+     * {@code false}
+     * @return this builder
+     */
+    public Builder failFastCollect(final boolean failFastCollect) {
+      this.failFastCollect = Optional.of(failFastCollect);
+      return this;
+    }
+
+    /**
+     * Configure if the consumer given to {@link Async#streamCollect(java.util.Collection,
+     * java.util.function.Consumer, java.util.function.Supplier)} should only be called by one
+     * thread at a time.
+     *
+     * <p>By default, the consumer is called from whichever thread completes a collected stage, so
+     * it has to be thread-safe. With serialized stream collect, results are queued and handed to
+     * the consumer by one thread at a time, which makes it safe to use a consumer which is not
+     * thread-safe, without any locking. Results are still consumed in the order they are
+     * completed.
+     *
+     * @param serializedStreamCollect {@code true} to call the consumer from one thread at a time,
+     * defaults to {@code false}
+     * @return this builder
+     */
+    public Builder serializedStreamCollect(final boolean serializedStreamCollect) {
+      this.serializedStreamCollect = Optional.of(serializedStreamCollect);
+      return this;
+    }
+
+    public CompletableOptions build() {
+      final int joinSpins = this.joinSpins.orElse(JOIN_SPINS);
+      final int joinYields = this.joinYields.orElse(JOIN_YIELDS);
+      final HashedWheelTimer timer = this.timer.orElse(DEFAULT_TIMER);
+      final Executor timerExecutor = this.timerExecutor.orElseGet(ForkJoinPool::commonPool);
+      final boolean refCountedCancellation = this.refCountedCancellation.orElse(false);
+      final boolean checkLocalThread = this.checkLocalThread.orElse(false);
+      final boolean monomorphic = this.monomorphic.orElse(false);
+      final boolean stacklessExceptions = this.stacklessExceptions.orElse(false);
+      final boolean interruptOnCancel = this.interruptOnCancel.orElse(false);
+      final boolean failFastCollect = this.failFastCollect.orElse(false);
+      final boolean serializedStreamCollect = this.serializedStreamCollect.orElse(false);
+      return new CompletableOptions(joinSpins, joinYields, timer, timerExecutor,
+          refCountedCancellation,
+          checkLocalThread, monomorphic, stacklessExceptions, interruptOnCancel, failFastCollect,
+          serializedStreamCollect);
+    }
+  }
+}
@@ -1,33 +1,56 @@
 package eu.toolchain.concurrent;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.text.MessageFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeoutException;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.concurrent.locks.LockSupport;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
-import lombok.AllArgsConstructor;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
 import lombok.RequiredArgsConstructor;
 
 /**
  * A concurrent implementation of {@link Completable}.
  *
  * <p>The callback uses the calling thread to execute result listeners, see
- * {@link #postComplete()} for details.
+ * {@link #postComplete(Object, boolean)} for details.
  *
  * @param <T> type of the completable stage
  */
 public class ConcurrentCompletable<T> extends AbstractImmediate<T>
   implements Handle<T>, Completable<T> {
   /**
-   * the max number of spins allowed before {@link Thread#yield()}
+   * Max number of doublings of the randomized backoff after a contended update of the callbacks,
+   * before yielding instead of spinning, see {@link #backoff(int)}.
+   *
+   * <p>Spinning is pointless on a single processor, so it yields immediately there.
+   */
+  static final int MAX_BACKOFF = Runtime.getRuntime().availableProcessors() > 1 ? 8 : 0;
+
+  /**
+   * Options used when none are provided.
    */
-  static final int MAX_SPINS = 4;
+  static final CompletableOptions DEFAULT_OPTIONS = CompletableOptions.newDefault();
+
+  /**
+   * Handle to {@code Thread#onSpinWait()}, or {@code null} if it is not available (pre Java 9).
+   */
+  static final MethodHandle ON_SPIN_WAIT = lookupOnSpinWait();
 
   /**
    * Possible states of the completable. A state being set <em>does not</em> indicate that the
@@ -44,27 +67,101 @@ public class ConcurrentCompletable<T> extends AbstractImmediate<T>
    */
   static final Object NULL = new Object();
   static final Object CANCEL = new Object();
+  /**
+   * Indicates a result which is stored in a primitive field, see
+   * {@link ConcurrentPrimitiveCompletable}.
+   */
+  static final Object VALUE = new Object();
+  /**
+   * Indicates that a stage should fail when its timeout expires, see {@link TimeoutRunnable}.
+   */
+  static final Object TIMEOUT = new Object();
 
   /**
    * pair to CAS into callbacks when done
    */
   static final RunnablePair END = new RunnablePair(null, null);
 
-  private final Caller caller;
+  /**
+   * Marks a fusable runnable that has run, and will not pick up any more fused runnables.
+   */
+  static final Object SEALED = new Object();
+
+  /**
+   * Callbacks which have been deferred by completables completed on the current thread, see
+   * {@link #postComplete(Object, boolean)}.
+   */
+  static final ThreadLocal<Trampoline> TRAMPOLINE = ThreadLocal.withInitial(Trampoline::new);
+
+  /**
+   * Waiter that can be reused by the current thread, see {@link Waiter#acquire()}.
+   */
+  static final ThreadLocal<Waiter> WAITER = new ThreadLocal<>();
+
+  /**
+   * Updaters for the volatile fields below.
+   *
+   * <p>State, result and callbacks are kept as fields on the completable itself to avoid
+   * allocating separate atomic holders for every stage.
+   */
+  @SuppressWarnings("rawtypes")
+  static final AtomicIntegerFieldUpdater<ConcurrentCompletable> STATE =
+    AtomicIntegerFieldUpdater.newUpdater(ConcurrentCompletable.class, "state");
+  @SuppressWarnings("rawtypes")
+  static final AtomicIntegerFieldUpdater<ConcurrentCompletable> DEPENDENTS =
+    AtomicIntegerFieldUpdater.newUpdater(ConcurrentCompletable.class, "dependents");
+  @SuppressWarnings("rawtypes")
+  static final AtomicIntegerFieldUpdater<ConcurrentCompletable> REMOVED =
+    AtomicIntegerFieldUpdater.newUpdater(ConcurrentCompletable.class, "removed");
+  @SuppressWarnings("rawtypes")
+  static final AtomicReferenceFieldUpdater<ConcurrentCompletable, Object> CALLBACKS =
+    AtomicReferenceFieldUpdater.newUpdater(ConcurrentCompletable.class, Object.class,
+      "callbacks");
+  static final AtomicReferenceFieldUpdater<Fusable, Object> NEXT =
+    AtomicReferenceFieldUpdater.newUpdater(Fusable.class, Object.class, "next");
+  static final AtomicReferenceFieldUpdater<Subscriber, Runnable> SUBSCRIBER =
+    AtomicReferenceFieldUpdater.newUpdater(Subscriber.class, Runnable.class, "runnable");
 
   /**
    * Current state of the completable.
    */
-  final AtomicInteger state = new AtomicInteger();
+  volatile int state = PENDING;
   /**
    * Result of the completable.
    * Never stored null, but uses {@link #NULL} as a surrogate instead.
    */
   volatile Object result = null;
   /**
-   * a linked list of callbacks to execute
+   * Callbacks to execute when done.
+   *
+   * <p>Is either {@code null} (no callbacks), a single {@link Runnable} stored inline, a linked
+   * list of {@link RunnablePair}s once a second callback has been added, or {@link #END} when the
+   * completable is done.
+   */
+  volatile Object callbacks;
+  /**
+   * The stage that this completable was derived from, which should be cancelled if this
+   * completable is cancelled.
+   *
+   * <p>Is either the {@link ConcurrentCompletable} this was derived from, or the
+   * {@link FusableRunnable} that will complete this completable. Cleared when this completable is
+   * done.
+   */
+  volatile Object upstream;
+  /**
+   * Number of stages derived from this completable that have not been cancelled, only maintained
+   * with {@link CompletableOptions#isRefCountedCancellation()}.
+   */
+  volatile int dependents;
+  /**
+   * Number of callbacks which have been removed, but are still linked, see {@link #removed()}.
+   */
+  volatile int removed;
+
+  /**
+   * Options for this completable, which are inherited by all derived completables.
    */
-  final AtomicReference<RunnablePair> callbacks;
+  final CompletableOptions options;
 
   /**
    * Setup a concurrent completable that uses a custom caller implementation. <p> The provided
@@ -75,75 +172,268 @@ public class ConcurrentCompletable<T> extends AbstractImmediate<T>
    * @param caller The caller implementation to use.
    */
   public ConcurrentCompletable(final Caller caller) {
+    this(caller, DEFAULT_OPTIONS);
+  }
+
+  /**
+   * Setup a concurrent completable that uses a custom caller implementation and custom options.
+   *
+   * @param caller The caller implementation to use.
+   * @param options The options to use.
+   * @see #ConcurrentCompletable(Caller)
+   */
+  public ConcurrentCompletable(final Caller caller, final CompletableOptions options) {
     super(caller);
-    this.caller = caller;
-    this.callbacks = new AtomicReference<>();
+    this.options = options;
   }
 
   /**
-   * Constructor that provides an initial callback.
+   * Constructor for a completable derived from another completable.
    *
    * @param caller caller implementation to use
-   * @param runnable initial callback
+   * @param options options to use
+   * @param upstream stage to cancel if this completable is cancelled
    */
-  ConcurrentCompletable(final Caller caller, final Runnable runnable) {
+  ConcurrentCompletable(
+    final Caller caller, final CompletableOptions options, final Object upstream
+  ) {
     super(caller);
-    this.caller = caller;
-    this.callbacks = new AtomicReference<>(new RunnablePair(runnable, null));
+    this.options = options;
+    this.upstream = upstream;
+
+    if (upstream instanceof ConcurrentCompletable) {
+      ((ConcurrentCompletable<?>) upstream).retain();
+    }
   }
 
   @Override
   public void completed(final T result) {
-    complete(result);
+    complete(result, true);
+  }
+
+  /**
+   * Build a completable which has already been completed.
+   *
+   * @see CompletableOptions#isMonomorphic()
+   */
+  static <T> ConcurrentCompletable<T> newCompleted(
+    final Caller caller, final CompletableOptions options, final T value
+  ) {
+    return newDone(caller, options, COMPLETED, value == null ? NULL : value);
+  }
+
+  static <T> ConcurrentCompletable<T> newFailed(
+    final Caller caller, final CompletableOptions options, final Throwable cause
+  ) {
+    return newDone(caller, options, FAILED, cause);
+  }
+
+  static <T> ConcurrentCompletable<T> newCancelled(
+    final Caller caller, final CompletableOptions options
+  ) {
+    return newDone(caller, options, CANCELLED, CANCEL);
+  }
+
+  static <T> ConcurrentCompletable<T> newDone(
+    final Caller caller, final CompletableOptions options, final int state, final Object result
+  ) {
+    final ConcurrentCompletable<T> c = new ConcurrentCompletable<>(caller, options);
+    c.state = state;
+    c.callbacks = END;
+    c.result = result;
+    return c;
+  }
+
+  @Override
+  CompletableOptions options() {
+    return options;
+  }
+
+  @Override
+  <U> Stage<U> completedStage(final U value) {
+    if (options.isMonomorphic()) {
+      return newCompleted(caller, options, value);
+    }
+
+    return super.completedStage(value);
+  }
+
+  @Override
+  <U> Stage<U> failedStage(final Throwable cause) {
+    if (options.isMonomorphic()) {
+      return newFailed(caller, options, cause);
+    }
+
+    return super.failedStage(cause);
+  }
+
+  @Override
+  <U> Stage<U> cancelledStage() {
+    if (options.isMonomorphic()) {
+      return newCancelled(caller, options);
+    }
+
+    return super.cancelledStage();
   }
 
   @Override
   public void failed(final Throwable cause) {
-    fail(cause);
+    fail(cause, true);
   }
 
   @Override
   public void cancelled() {
-    cancel();
+    cancel(true);
   }
 
   @Override
   public boolean complete(final T result) {
-    if (!state.compareAndSet(PENDING, COMPLETED)) {
+    return complete(result, false);
+  }
+
+  @Override
+  public boolean fail(final Throwable cause) {
+    return fail(cause, false);
+  }
+
+  @Override
+  public boolean cancel() {
+    return cancel(false);
+  }
+
+  /**
+   * Complete this completable.
+   *
+   * @param result result to complete with
+   * @param forwarded if the result is forwarded through {@link Handle}, see
+   * {@link #postComplete(Object, boolean)}
+   * @return {@code true} if this completable was completed
+   */
+  boolean complete(final T result, final boolean forwarded) {
+    if (!STATE.compareAndSet(this, PENDING, COMPLETED)) {
       return false;
     }
 
     this.result = (result == null ? NULL : result);
-    postComplete();
+    final Object u = clearUpstream();
+    postComplete(u, forwarded);
+    releaseUpstream(u);
     return true;
   }
 
-  @Override
-  public boolean fail(final Throwable cause) {
+  boolean fail(final Throwable cause, final boolean forwarded) {
     if (cause == null) {
       throw new NullPointerException("cause");
     }
 
-    if (!state.compareAndSet(PENDING, FAILED)) {
+    if (!STATE.compareAndSet(this, PENDING, FAILED)) {
       return false;
     }
 
     this.result = cause;
-    postComplete();
+    final Object u = clearUpstream();
+    postComplete(u, forwarded);
+    releaseUpstream(u);
     return true;
   }
 
-  @Override
-  public boolean cancel() {
-    if (!state.compareAndSet(PENDING, CANCELLED)) {
+  boolean cancel(final boolean forwarded) {
+    if (!STATE.compareAndSet(this, PENDING, CANCELLED)) {
       return false;
     }
 
     this.result = CANCEL;
-    postComplete();
+
+    final Object u = upstream;
+    postComplete(u, forwarded);
+
+    if (u != null) {
+      upstream = null;
+
+      final ConcurrentCompletable<?> source;
+
+      if (u instanceof FusableRunnable) {
+        final FusableRunnable<?> runnable = (FusableRunnable<?>) u;
+        source = runnable.source();
+
+        /* stages fused onto this one are not callbacks of it, they only run after the runnable
+         * that completes this one. That happens once the source is done, which might be never if
+         * the source survives this cancellation, so they are run here instead. */
+        if (!source.isDone()) {
+          runnable.runFused();
+        }
+      } else {
+        source = (ConcurrentCompletable<?>) u;
+      }
+
+      caller.execute(source::release);
+    }
+
     return true;
   }
 
+  /**
+   * Register that a stage has been derived from this completable.
+   */
+  void retain() {
+    if (options.isRefCountedCancellation()) {
+      DEPENDENTS.incrementAndGet(this);
+    }
+  }
+
+  /**
+   * Release a derived stage that has been cancelled.
+   *
+   * <p>This cancels this completable, unless reference counted cancellation is enabled and there
+   * are other derived stages that have not been cancelled.
+   */
+  void release() {
+    if (options.isRefCountedCancellation() && DEPENDENTS.decrementAndGet(this) > 0) {
+      return;
+    }
+
+    cancel();
+  }
+
+  /**
+   * Release the stage that this completable was derived from, if it is not done yet.
+   *
+   * <p>Called when this completable completes or fails without waiting for its source, like a
+   * stage that times out through {@link #orTimeout(long, TimeUnit)}. With reference counted
+   * cancellation it then no longer counts as a dependent, so the source is still cancelled once
+   * all remaining derived stages have been. Without it nothing happens, since only cancellation
+   * propagates to the source.
+   *
+   * @param u the stage that this completable was derived from, see {@link #upstream}
+   */
+  void releaseUpstream(final Object u) {
+    if (u == null || !options.isRefCountedCancellation()) {
+      return;
+    }
+
+    final ConcurrentCompletable<?> source = u instanceof FusableRunnable
+      ? ((FusableRunnable<?>) u).source() : (ConcurrentCompletable<?>) u;
+
+    if (!source.isDone()) {
+      caller.execute(source::release);
+    }
+  }
+
+  /**
+   * Clear the stage that this completable was derived from.
+   *
+   * @return the stage that was cleared, or {@code null} if there was none
+   */
+  Object clearUpstream() {
+    final Object u = upstream;
+
+    if (u != null) {
+      upstream = null;
+    }
+
+    return u;
+  }
+
   @Override
   public Stage<T> handle(final Handle<? super T> handle) {
     return whenDone(new HandleRunnable(handle));
@@ -159,6 +449,39 @@ public class ConcurrentCompletable<T> extends AbstractImmediate<T>
     return this;
   }
 
+  @Override
+  public Stage<T> whenDone(final Collection<? extends Runnable> runnables) {
+    if (result != null) {
+      return super.whenDone(runnables);
+    }
+
+    if (runnables.isEmpty()) {
+      return this;
+    }
+
+    /* stored until this completable is done, so the runnables are copied */
+    final Bulk bulk = new Bulk(new ArrayList<>(runnables));
+
+    if (add(bulk)) {
+      return this;
+    }
+
+    runCallbacks(bulk);
+    return this;
+  }
+
+  @Override
+  public Subscription subscribe(final Runnable runnable) {
+    final Subscriber subscriber = new Subscriber(this, runnable);
+
+    if (add(subscriber)) {
+      return subscriber;
+    }
+
+    caller.execute(runnable);
+    return CALLED;
+  }
+
   @Override
   public Stage<T> whenComplete(final Consumer<? super T> consumer) {
     return whenDone(new CompletedRunnable(consumer));
@@ -181,12 +504,12 @@ public class ConcurrentCompletable<T> extends AbstractImmediate<T>
 
   @Override
   public boolean isCompleted() {
-    return result != null && state.get() == COMPLETED;
+    return result != null && state == COMPLETED;
   }
 
   @Override
   public boolean isFailed() {
-    return result != null && state.get() == FAILED;
+    return result != null && state == FAILED;
   }
 
   @Override
@@ -196,22 +519,16 @@ public class ConcurrentCompletable<T> extends AbstractImmediate<T>
 
   @Override
   public Throwable cause() {
-    if (state.get() != FAILED) {
+    if (state != FAILED) {
       throw new IllegalStateException("not in a failed state");
     }
 
     return throwable(result);
   }
 
-  @SuppressWarnings("unchecked")
   @Override
   public T join() throws InterruptedException, ExecutionException {
-    final Parker parker = new Parker(Thread.currentThread());
-
-    if (add(parker)) {
-      parker.park();
-    }
-
+    await();
     return doJoin();
   }
 
@@ -223,21 +540,33 @@ public class ConcurrentCompletable<T> extends AbstractImmediate<T>
   @Override
   public T join(long timeout, TimeUnit unit)
     throws InterruptedException, ExecutionException, TimeoutException {
-    final long timeoutNanos = unit.toNanos(timeout);
+    await(timeout, unit);
+    return doJoin();
+  }
 
-    if (timeoutNanos <= 0L) {
-      throw new TimeoutException();
+  /**
+   * Wait until this completable is done.
+   */
+  void await() throws InterruptedException {
+    if (result == null && !spinWait()) {
+      park();
     }
+  }
 
-    final Parker parker = new Parker(Thread.currentThread());
+  /**
+   * Wait until this completable is done, or the given timeout expires.
+   */
+  void await(final long timeout, final TimeUnit unit)
+    throws InterruptedException, TimeoutException {
+    final long timeoutNanos = unit.toNanos(timeout);
 
-    /* attempt to schedule an unpark for later,
-     * this will happen after result is available */
-    if (add(parker)) {
-      parker.parkNanos(timeoutNanos);
+    if (timeoutNanos <= 0L) {
+      throw timeoutException();
     }
 
-    return doJoin();
+    if (result == null && !spinWait()) {
+      parkNanos(timeoutNanos);
+    }
   }
 
   @Override
@@ -245,18 +574,58 @@ public class ConcurrentCompletable<T> extends AbstractImmediate<T>
     final Object r = result;
 
     if (r != null) {
-      switch (state.get()) {
+      switch (state) {
         case COMPLETED:
           return thenApplyCompleted(fn, result(r));
         case FAILED:
-          return new ImmediateFailed<>(caller, throwable(r));
+          return failedStage(throwable(r));
         default:
-          return new ImmediateCancelled<>(caller);
+          return cancelledStage();
       }
     }
 
-    final ConcurrentCompletable<U> target = nextStage();
-    whenDone(new ThenApplyRunnable<>(target, fn));
+    final ConcurrentCompletable<U> target = new ConcurrentCompletable<>(caller, options);
+    fuse(new ThenApplyRunnable<>(target, fn));
+    return target;
+  }
+
+  @Override
+  public LongStage thenApplyAsLong(final ToLongFunction<? super T> fn) {
+    final Object r = result;
+
+    if (r != null) {
+      switch (state) {
+        case COMPLETED:
+          return thenApplyAsLongCompleted(fn, result(r));
+        case FAILED:
+          return failedLong(throwable(r));
+        default:
+          return cancelledLong();
+      }
+    }
+
+    final ConcurrentLongCompletable target = new ConcurrentLongCompletable(caller, options);
+    fuse(new ThenApplyAsLongRunnable(target, fn));
+    return target;
+  }
+
+  @Override
+  public DoubleStage thenApplyAsDouble(final ToDoubleFunction<? super T> fn) {
+    final Object r = result;
+
+    if (r != null) {
+      switch (state) {
+        case COMPLETED:
+          return thenApplyAsDoubleCompleted(fn, result(r));
+        case FAILED:
+          return failedDouble(throwable(r));
+        default:
+          return cancelledDouble();
+      }
+    }
+
+    final ConcurrentDoubleCompletable target = new ConcurrentDoubleCompletable(caller, options);
+    fuse(new ThenApplyAsDoubleRunnable(target, fn));
     return target;
   }
 
@@ -265,13 +634,13 @@ public class ConcurrentCompletable<T> extends AbstractImmediate<T>
     final Object r = result;
 
     if (r != null) {
-      switch (state.get()) {
+      switch (state) {
         case COMPLETED:
           return thenComposeCompleted(fn, result(r));
         case FAILED:
-          return new ImmediateFailed<>(caller, throwable(r));
+          return failedStage(throwable(r));
         default:
-          return new ImmediateCancelled<>(caller);
+          return cancelledStage();
       }
     }
 
@@ -280,20 +649,64 @@ public class ConcurrentCompletable<T> extends AbstractImmediate<T>
     return target;
   }
 
+  @Override
+  public <U> Stage<U> thenApplyAsync(
+    final Function<? super T, ? extends U> fn, final Executor executor
+  ) {
+    final Object r = result;
+
+    if (r != null) {
+      switch (state) {
+        case COMPLETED:
+          return thenApplyAsyncCompleted(fn, executor, result(r));
+        case FAILED:
+          return failedStage(throwable(r));
+        default:
+          return cancelledStage();
+      }
+    }
+
+    final ConcurrentCompletable<U> target = nextStage();
+    whenDone(new ThenApplyAsyncRunnable<>(target, executor, fn));
+    return target;
+  }
+
+  @Override
+  public <U> Stage<U> thenComposeAsync(
+    final Function<? super T, ? extends Stage<U>> fn, final Executor executor
+  ) {
+    final Object r = result;
+
+    if (r != null) {
+      switch (state) {
+        case COMPLETED:
+          return thenComposeAsyncCompleted(fn, executor, result(r));
+        case FAILED:
+          return failedStage(throwable(r));
+        default:
+          return cancelledStage();
+      }
+    }
+
+    final ConcurrentCompletable<U> target = nextStage();
+    whenDone(new ThenComposeAsyncRunnable<>(target, executor, fn));
+    return target;
+  }
+
   @Override
   public Stage<T> thenApplyFailed(final Function<? super Throwable, ? extends T> fn) {
     final Object r = result;
 
     if (r != null) {
-      if (state.get() == FAILED) {
+      if (state == FAILED) {
         return thenApplyCaughtFailed(fn, throwable(r));
       }
 
       return this;
     }
 
-    final ConcurrentCompletable<T> target = nextStage();
-    whenDone(new ThenApplyFailedRunnable(target, fn));
+    final ConcurrentCompletable<T> target = new ConcurrentCompletable<>(caller, options);
+    fuse(new ThenApplyFailedRunnable(target, fn));
     return target;
   }
 
@@ -302,7 +715,7 @@ public class ConcurrentCompletable<T> extends AbstractImmediate<T>
     final Object r = result;
 
     if (r != null) {
-      if (state.get() == FAILED) {
+      if (state == FAILED) {
         return thenComposeFailedFailed(fn, throwable(r));
       }
 
@@ -321,7 +734,7 @@ public class ConcurrentCompletable<T> extends AbstractImmediate<T>
     final Object r = result;
 
     if (r != null) {
-      switch (state.get()) {
+      switch (state) {
         case COMPLETED:
           return withCloserCompleted(result(result), complete, notComplete);
         case FAILED:
@@ -341,13 +754,13 @@ public class ConcurrentCompletable<T> extends AbstractImmediate<T>
     final Object r = result;
 
     if (r != null) {
-      switch (state.get()) {
+      switch (state) {
         case COMPLETED:
           return withCompleteCompleted(result(result), supplier);
         case FAILED:
-          return new ImmediateFailed<>(caller, throwable(result));
+          return failedStage(throwable(result));
         default:
-          return new ImmediateCancelled<>(caller);
+          return cancelledStage();
       }
     }
 
@@ -363,9 +776,9 @@ public class ConcurrentCompletable<T> extends AbstractImmediate<T>
     final Object r = result;
 
     if (r != null) {
-      switch (state.get()) {
+      switch (state) {
         case COMPLETED:
-          return new ImmediateCompleted<>(caller, result(result));
+          return completedStage(result(result));
         case FAILED:
           return withNotCompleteFailed(throwable(result), supplier);
         default:
@@ -383,13 +796,13 @@ public class ConcurrentCompletable<T> extends AbstractImmediate<T>
     final Object r = result;
 
     if (r != null) {
-      switch (state.get()) {
+      switch (state) {
         case FAILED:
-          final ExecutionException c = new ExecutionException(cause);
+          final ExecutionException c = executionException(cause);
           c.addSuppressed(throwable(r));
-          return new ImmediateFailed<>(caller, c);
+          return failedStage(c);
         default:
-          return new ImmediateFailed<>(caller, cause);
+          return failedStage(cause);
       }
     }
 
@@ -408,7 +821,7 @@ public class ConcurrentCompletable<T> extends AbstractImmediate<T>
     final Object r = result;
 
     if (r != null) {
-      return new ImmediateCancelled<>(caller);
+      return cancelledStage();
     }
 
     final ConcurrentCompletable<U> target = nextStage();
@@ -416,60 +829,375 @@ public class ConcurrentCompletable<T> extends AbstractImmediate<T>
     return target;
   }
 
-  <U> ConcurrentCompletable<U> nextStage() {
-    return new ConcurrentCompletable<>(caller, this::cancel);
+  @Override
+  public Stage<T> orTimeout(final long timeout, final TimeUnit unit) {
+    return withTimeout(TIMEOUT, timeout, unit);
   }
 
-  void postComplete() {
-    RunnablePair entries = takeAndClear();
+  @Override
+  public Stage<T> completeOnTimeout(final T value, final long timeout, final TimeUnit unit) {
+    return withTimeout(value == null ? NULL : value, timeout, unit);
+  }
 
-    while (entries != null) {
-      caller.execute(entries.runnable);
-      entries = entries.next;
+  Stage<T> withTimeout(final Object value, final long timeout, final TimeUnit unit) {
+    if (result != null) {
+      return this;
     }
+
+    final ConcurrentCompletable<T> target = nextStage();
+    final TimeoutRunnable runnable = new TimeoutRunnable(target, value);
+    runnable.timeout = options.getTimer().newTimeout(runnable, timeout, unit);
+    whenDone(runnable);
+    return target;
+  }
+
+  <U> ConcurrentCompletable<U> nextStage() {
+    return new ConcurrentCompletable<>(caller, options, this);
   }
 
   /**
-   * Take and reset all callbacks in an atomic fashion.
+   * Add a fusable runnable which completes a target derived from this completable.
+   *
+   * <p>If this completable is itself completed by a fusable runnable that has not run yet, the
+   * new runnable is chained onto it. It will then be run directly after this completable has been
+   * completed, on the same thread and without registering a callback or going through the
+   * caller.
+   *
+   * @param runnable runnable to add
    */
-  RunnablePair takeAndClear() {
-    RunnablePair entries;
+  void fuse(final FusableRunnable<?> runnable) {
+    runnable.target.upstream = runnable;
+    retain();
 
-    while ((entries = callbacks.get()) != END) {
-      if (callbacks.compareAndSet(entries, END)) {
-        return entries;
-      }
+    final Object u = upstream;
+
+    if (u instanceof FusableRunnable && NEXT.compareAndSet((Fusable) u, null, runnable)) {
+      return;
     }
 
-    return null;
+    whenDone(runnable);
   }
 
   /**
-   * Attempt to add an event listener to the list of listeners.
+   * Execute all callbacks.
    *
-   * This implementation uses a spin-lock, where the loop copies the entire list of listeners.
+   * <p>If the current thread is executing the callbacks of the completable that this one was
+   * derived from, this completable is being completed by one of those callbacks. The same goes for
+   * a result which is forwarded to this completable through {@link Handle} from within a callback,
+   * like the result of the stage returned by the function given to {@link #thenCompose(Function)}.
+   * Its callbacks are then deferred and executed by the outermost call once its own callbacks are
+   * done. This keeps the stack depth constant for arbitrarily long chains of completables, without
+   * handing off to another thread.
    *
-   * @return {@code true} if a task has been queued up, {@code false} otherwise.
+   * <p>Any other completion from within a callback, like a callback explicitly completing some
+   * unrelated completable, executes its callbacks and those of the completables derived from it
+   * before returning. So when it returns, the stages derived from it are done, like they would be
+   * if it was completed outside of a callback.
+   *
+   * @param upstream the stage that this completable was derived from, see {@link #upstream}
+   * @param forwarded if the result was forwarded through {@link Handle}
    */
-  boolean add(Runnable runnable) {
-    int spins = 0;
+  void postComplete(final Object upstream, final boolean forwarded) {
+    final Object entries = takeAndClear();
 
-    RunnablePair entries;
+    if (entries == null) {
+      return;
+    }
 
-    while ((entries = callbacks.get()) != END) {
-      if (callbacks.compareAndSet(entries, new RunnablePair(runnable, entries))) {
-        return true;
+    final Trampoline trampoline = TRAMPOLINE.get();
+    final Object current = trampoline.current;
+
+    if (current == null) {
+      try {
+        runAllCallbacks(trampoline, entries);
+      } finally {
+        trampoline.current = null;
+        /* a callback threw, the deferred callbacks must not run as part of some unrelated
+         * completion later on */
+        trampoline.deferred.clear();
       }
 
-      if (spins++ > MAX_SPINS) {
-        Thread.yield();
-        spins = 0;
+      return;
+    }
+
+    if (forwarded || upstream == current || (upstream instanceof FusableRunnable
+      && ((FusableRunnable<?>) upstream).source() == current)) {
+      trampoline.deferred.add(this);
+      trampoline.deferred.add(entries);
+      return;
+    }
+
+    /* completed explicitly from within a callback, so run with a separate queue of deferred
+     * callbacks which is drained before returning */
+    final ArrayDeque<Object> deferred = trampoline.deferred;
+    trampoline.deferred = new ArrayDeque<>();
+
+    try {
+      runAllCallbacks(trampoline, entries);
+    } finally {
+      trampoline.current = current;
+      trampoline.deferred = deferred;
+    }
+  }
+
+  /**
+   * Execute the given callbacks of this completable, followed by all callbacks that they defer.
+   */
+  void runAllCallbacks(final Trampoline trampoline, final Object entries) {
+    trampoline.current = this;
+    runCallbacks(entries);
+
+    ConcurrentCompletable<?> next;
+
+    while ((next = (ConcurrentCompletable<?>) trampoline.deferred.poll()) != null) {
+      trampoline.current = next;
+      next.runCallbacks(trampoline.deferred.poll());
+    }
+  }
+
+  /**
+   * Execute the given callbacks through the caller.
+   *
+   * <p>More than one callback is handed to the caller in bulk, see
+   * {@link Caller#executeAll(List)}. A {@link DirectCaller} runs them in place anyway, so they are
+   * dispatched to it straight from the list of callbacks instead.
+   *
+   * @param entries a single runnable or a list of runnables
+   */
+  void runCallbacks(final Object entries) {
+    final boolean direct = caller instanceof DirectCaller;
+
+    if (entries instanceof Bulk) {
+      final List<Runnable> runnables = ((Bulk) entries).runnables;
+
+      if (direct) {
+        executeEach(runnables);
+      } else {
+        caller.executeAll(runnables);
       }
+
+      return;
+    }
+
+    if (entries instanceof Runnable) {
+      caller.execute((Runnable) entries);
+      return;
+    }
+
+    if (direct) {
+      for (RunnablePair pair = (RunnablePair) entries; pair != null; pair = pair.next) {
+        if (pair.runnable instanceof Bulk) {
+          executeEach(((Bulk) pair.runnable).runnables);
+        } else {
+          caller.execute(pair.runnable);
+        }
+      }
+
+      return;
+    }
+
+    final List<Runnable> runnables = new ArrayList<>();
+    RunnablePair pair = (RunnablePair) entries;
+
+    while (pair != null) {
+      if (pair.runnable instanceof Bulk) {
+        runnables.addAll(((Bulk) pair.runnable).runnables);
+      } else {
+        runnables.add(pair.runnable);
+      }
+
+      pair = pair.next;
+    }
+
+    caller.executeAll(runnables);
+  }
+
+  /**
+   * Take and reset all callbacks in an atomic fashion.
+   *
+   * @return a single runnable, a list of runnables, or {@code null} if there are none.
+   */
+  Object takeAndClear() {
+    Object entries;
+
+    while ((entries = callbacks) != END) {
+      if (CALLBACKS.compareAndSet(this, entries, END)) {
+        return entries;
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Attempt to add an event listener to the list of listeners.
+   *
+   * <p>The first listener is stored inline, a list is only built once a second listener is added.
+   *
+   * <p>Contended updates are retried with a randomized backoff, see {@link #backoff(int)}.
+   *
+   * @return {@code true} if a task has been queued up, {@code false} otherwise.
+   */
+  boolean add(Runnable runnable) {
+    int attempt = 0;
+
+    Object entries;
+
+    while ((entries = callbacks) != END) {
+      if (CALLBACKS.compareAndSet(this, entries, push(runnable, entries))) {
+        return true;
+      }
+
+      attempt = backoff(attempt);
     }
 
     return false;
   }
 
+  /**
+   * Back off after a failed attempt to update the callbacks.
+   *
+   * <p>Spins for a random number of iterations, up to a limit which doubles with every attempt.
+   * This spreads out threads that are adding callbacks to the same completable, instead of having
+   * all of them retry at once. Once the limit is at its max, yields instead.
+   *
+   * @param attempt number of attempts that have failed before this one
+   * @return number of attempts that have failed, including this one
+   */
+  static int backoff(final int attempt) {
+    if (attempt >= MAX_BACKOFF) {
+      Thread.yield();
+      return attempt;
+    }
+
+    for (int i = ThreadLocalRandom.current().nextInt(1 << attempt); i >= 0; i--) {
+      onSpinWait();
+    }
+
+    return attempt + 1;
+  }
+
+  /**
+   * Build the callbacks that result from adding the given runnable to the current callbacks.
+   */
+  static Object push(final Runnable runnable, final Object entries) {
+    if (entries == null) {
+      return runnable;
+    }
+
+    if (entries instanceof Runnable) {
+      return new RunnablePair(runnable, new RunnablePair((Runnable) entries, null));
+    }
+
+    return new RunnablePair(runnable, (RunnablePair) entries);
+  }
+
+  /**
+   * Register that one of the callbacks has been removed.
+   *
+   * <p>Removed callbacks are left in place, and do nothing when run. They are only unlinked once
+   * they make up at least half of the callbacks, so that on average the cost of removing a callback
+   * is constant, instead of copying all callbacks for every removal.
+   */
+  void removed() {
+    final int r = REMOVED.incrementAndGet(this);
+    final Object entries = callbacks;
+
+    if (entries != END && r * 2 >= size(entries)) {
+      compact();
+    }
+  }
+
+  /**
+   * Unlink all callbacks that have been removed.
+   *
+   * <p>Since the list of callbacks is immutable, this builds a copy without the removed callbacks
+   * and attempts to swap it in, retrying if the callbacks were modified concurrently.
+   */
+  void compact() {
+    Object entries;
+
+    while ((entries = callbacks) != END) {
+      final Object compacted = compact(entries);
+
+      if (compacted == entries) {
+        return;
+      }
+
+      if (CALLBACKS.compareAndSet(this, entries, compacted)) {
+        REMOVED.addAndGet(this, size(compacted) - size(entries));
+        return;
+      }
+    }
+  }
+
+  /**
+   * Number of callbacks in the given callbacks.
+   */
+  static int size(final Object entries) {
+    if (entries == null) {
+      return 0;
+    }
+
+    if (entries instanceof RunnablePair) {
+      return ((RunnablePair) entries).size;
+    }
+
+    return 1;
+  }
+
+  /**
+   * Build callbacks without any of the removed callbacks in the given callbacks.
+   *
+   * @return the given callbacks if none have been removed, a compacted copy otherwise
+   */
+  static Object compact(final Object entries) {
+    if (entries == null) {
+      return null;
+    }
+
+    if (entries instanceof Runnable) {
+      return isRemoved(entries) ? null : entries;
+    }
+
+    int size = 0;
+    int removed = 0;
+
+    for (RunnablePair p = (RunnablePair) entries; p != null; p = p.next) {
+      size++;
+
+      if (isRemoved(p.runnable)) {
+        removed++;
+      }
+    }
+
+    if (removed == 0) {
+      return entries;
+    }
+
+    final Runnable[] live = new Runnable[size - removed];
+    int count = 0;
+
+    /* callbacks can only go from live to removed, so this can't overflow */
+    for (RunnablePair p = (RunnablePair) entries; p != null; p = p.next) {
+      if (!isRemoved(p.runnable)) {
+        live[count++] = p.runnable;
+      }
+    }
+
+    Object compacted = null;
+
+    while (count > 0) {
+      compacted = push(live[--count], compacted);
+    }
+
+    return compacted;
+  }
+
+  static boolean isRemoved(final Object runnable) {
+    return runnable instanceof Removable && ((Removable) runnable).isRemoved();
+  }
+
   T doJoin() throws ExecutionException {
     final Object r = this.result;
 
@@ -477,16 +1205,41 @@ public class ConcurrentCompletable<T> extends AbstractImmediate<T>
       throw new IllegalStateException("result is not available");
     }
 
-    switch (state.get()) {
+    switch (state) {
       case COMPLETED:
         return result(r);
       case FAILED:
-        throw new ExecutionException(throwable(r));
+        throw executionException(throwable(r));
       default:
-        throw new CancellationException();
+        throw cancellationException();
     }
   }
 
+  @Override
+  ExecutionException executionException(final Throwable cause) {
+    if (options.isStacklessExceptions()) {
+      return new StacklessExecutionException(cause);
+    }
+
+    return super.executionException(cause);
+  }
+
+  CancellationException cancellationException() {
+    if (options.isStacklessExceptions()) {
+      return new StacklessCancellationException("stage was cancelled");
+    }
+
+    return new CancellationException();
+  }
+
+  TimeoutException timeoutException() {
+    if (options.isStacklessExceptions()) {
+      return new StacklessTimeoutException("join timed out");
+    }
+
+    return new TimeoutException();
+  }
+
   @Override
   public String toString() {
     final String name = getClass().getSimpleName();
@@ -495,7 +1248,7 @@ public class ConcurrentCompletable<T> extends AbstractImmediate<T>
       return MessageFormat.format("{0}({1})", name, Stage.PENDING);
     }
 
-    switch (state.get()) {
+    switch (state) {
       case COMPLETED:
         return MessageFormat.format("{0}({1}: result={2})", name, Stage.COMPLETED,
           result(this.result));
@@ -533,60 +1286,263 @@ public class ConcurrentCompletable<T> extends AbstractImmediate<T>
   /**
    * A single node in a list of runnables that should be executed when done.
    */
-  @AllArgsConstructor
   static class RunnablePair {
     final Runnable runnable;
     final RunnablePair next;
+    /**
+     * Number of runnables in the list starting at this node.
+     */
+    final int size;
+
+    RunnablePair(final Runnable runnable, final RunnablePair next) {
+      this.runnable = runnable;
+      this.next = next;
+      this.size = next == null ? 1 : next.size + 1;
+    }
   }
 
-  @AllArgsConstructor
-  class Parker implements Runnable {
+  /**
+   * Callbacks which have been added at once through {@link #whenDone(Collection)}.
+   *
+   * <p>These are stored as a single entry, so that adding them only takes a single update of the
+   * callbacks, and are expanded again when the callbacks are executed.
+   */
+  @RequiredArgsConstructor
+  static class Bulk implements Runnable {
+    final List<Runnable> runnables;
+
+    @Override
+    public void run() {
+      for (final Runnable runnable : runnables) {
+        runnable.run();
+      }
+    }
+  }
+
+  /**
+   * A callback which might have been removed, and which can be unlinked from the list of
+   * callbacks.
+   */
+  interface Removable {
+    boolean isRemoved();
+  }
+
+  /**
+   * A callback which can be removed through {@link Subscription#unsubscribe()}.
+   */
+  static class Subscriber implements Runnable, Subscription, Removable {
+    private final ConcurrentCompletable<?> completable;
     /**
-     * Thread to unpark.
-     *
-     * Is set to null to avoid unparking it when no longer needed.
+     * Runnable to run, is set to {@code null} when either run or removed.
      */
-    volatile Thread thread;
+    volatile Runnable runnable;
+
+    Subscriber(final ConcurrentCompletable<?> completable, final Runnable runnable) {
+      this.completable = completable;
+      this.runnable = runnable;
+    }
 
     @Override
     public void run() {
-      final Thread t = thread;
+      final Runnable r = SUBSCRIBER.getAndSet(this, null);
 
-      if (t != null) {
-        thread = null;
-        LockSupport.unpark(t);
+      if (r != null) {
+        r.run();
       }
     }
 
-    void parkNanos(final long nanos) throws InterruptedException, TimeoutException {
-      final long deadline = System.nanoTime() + nanos;
+    @Override
+    public boolean unsubscribe() {
+      if (SUBSCRIBER.getAndSet(this, null) == null) {
+        return false;
+      }
 
-      while (result == null) {
-        if (Thread.interrupted()) {
-          thread = null;
-          throw new InterruptedException();
-        }
+      completable.removed();
+      return true;
+    }
 
-        final long parkNanos = deadline - System.nanoTime();
+    @Override
+    public boolean isRemoved() {
+      return runnable == null;
+    }
+  }
 
-        if (parkNanos <= 0) {
-          thread = null;
-          throw new TimeoutException();
-        }
+  /**
+   * Per-thread state for executing callbacks iteratively.
+   */
+  static class Trampoline {
+    /**
+     * The completable whose callbacks the current thread is executing, or {@code null} if it is not
+     * executing any callbacks.
+     */
+    Object current = null;
+    /**
+     * Pairs of completables and their callbacks, which have been deferred.
+     */
+    ArrayDeque<Object> deferred = new ArrayDeque<>();
+  }
+
+  /**
+   * Spin, then yield waiting for a result according to the configured options.
+   *
+   * @return {@code true} if a result is available
+   */
+  boolean spinWait() {
+    for (int i = options.getJoinSpins(); i > 0; i--) {
+      if (result != null) {
+        return true;
+      }
+
+      onSpinWait();
+    }
 
-        LockSupport.parkNanos(this, parkNanos);
+    for (int i = options.getJoinYields(); i > 0; i--) {
+      if (result != null) {
+        return true;
       }
+
+      Thread.yield();
     }
 
-    void park() throws InterruptedException {
-      while (result == null) {
-        if (Thread.interrupted()) {
-          thread = null;
-          throw new InterruptedException();
-        }
+    return result != null;
+  }
+
+  void park() throws InterruptedException {
+    final Waiter waiter = Waiter.acquire();
 
-        LockSupport.park(this);
+    if (!add(waiter)) {
+      waiter.release();
+      return;
+    }
+
+    while (result == null) {
+      if (Thread.interrupted()) {
+        waiter.thread = null;
+        removed();
+        throw new InterruptedException();
       }
+
+      LockSupport.park(this);
+    }
+  }
+
+  void parkNanos(final long nanos) throws InterruptedException, TimeoutException {
+    final long deadline = System.nanoTime() + nanos;
+
+    final Waiter waiter = Waiter.acquire();
+
+    /* attempt to schedule an unpark for later,
+     * this will happen after result is available */
+    if (!add(waiter)) {
+      waiter.release();
+      return;
+    }
+
+    while (result == null) {
+      if (Thread.interrupted()) {
+        waiter.thread = null;
+        removed();
+        throw new InterruptedException();
+      }
+
+      final long parkNanos = deadline - System.nanoTime();
+
+      if (parkNanos <= 0) {
+        waiter.thread = null;
+        removed();
+        throw timeoutException();
+      }
+
+      LockSupport.parkNanos(this, parkNanos);
+    }
+  }
+
+  static MethodHandle lookupOnSpinWait() {
+    try {
+      return MethodHandles
+        .lookup()
+        .findStatic(Thread.class, "onSpinWait", MethodType.methodType(void.class));
+    } catch (final ReflectiveOperationException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Hint that we are spinning, if supported by the platform.
+   */
+  static void onSpinWait() {
+    if (ON_SPIN_WAIT == null) {
+      return;
+    }
+
+    try {
+      ON_SPIN_WAIT.invokeExact();
+    } catch (final Throwable e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * A callback that unparks a waiting thread.
+   *
+   * <p>A thread reuses its waiter across joins, as long as the previous one has been released. A
+   * waiter is released once it has been run, or if it could not be added as a callback. Waiters
+   * left behind by a timed out or interrupted join stay referenced by that completable until it is
+   * done, so they are never reused.
+   */
+  static class Waiter implements Runnable, Removable {
+    /**
+     * Thread to unpark.
+     *
+     * Is set to null to avoid unparking it when no longer needed.
+     */
+    volatile Thread thread;
+    /**
+     * If this waiter is no longer referenced by any completable, and can be reused.
+     */
+    volatile boolean released = true;
+
+    /**
+     * Acquire a waiter for the current thread.
+     */
+    static Waiter acquire() {
+      Waiter waiter = WAITER.get();
+
+      if (waiter == null || !waiter.released) {
+        waiter = new Waiter();
+        WAITER.set(waiter);
+      }
+
+      waiter.released = false;
+      waiter.thread = Thread.currentThread();
+      return waiter;
+    }
+
+    void release() {
+      thread = null;
+      released = true;
+    }
+
+    /**
+     * A waiter which is still registered as a callback, but has no thread to unpark, has been
+     * abandoned by a timed out or interrupted join.
+     */
+    @Override
+    public boolean isRemoved() {
+      return thread == null;
+    }
+
+    @Override
+    public void run() {
+      final Thread t = thread;
+
+      if (t != null) {
+        thread = null;
+        LockSupport.unpark(t);
+      }
+
+      /* must be the last operation, since the waiter might be reused immediately after */
+      released = true;
     }
   }
 
@@ -612,7 +1568,7 @@ public class ConcurrentCompletable<T> extends AbstractImmediate<T>
 
     @Override
     public void run() {
-      switch (state.get()) {
+      switch (state) {
         case COMPLETED:
           handle.completed(result(result));
           break;
@@ -632,7 +1588,7 @@ public class ConcurrentCompletable<T> extends AbstractImmediate<T>
 
     @Override
     public void run() {
-      if (state.get() == CANCELLED) {
+      if (state == CANCELLED) {
         runnable.run();
       }
     }
@@ -644,7 +1600,7 @@ public class ConcurrentCompletable<T> extends AbstractImmediate<T>
 
     @Override
     public void run() {
-      if (state.get() == COMPLETED) {
+      if (state == COMPLETED) {
         consumer.accept(result(result));
       }
     }
@@ -656,20 +1612,90 @@ public class ConcurrentCompletable<T> extends AbstractImmediate<T>
 
     @Override
     public void run() {
-      if (state.get() == FAILED) {
+      if (state == FAILED) {
         consumer.accept(throwable(result));
       }
     }
   }
 
-  @RequiredArgsConstructor
-  class ThenApplyRunnable<U> implements Runnable {
-    private final ConcurrentCompletable<U> target;
-    private final Function<? super T, ? extends U> fn;
+  /**
+   * A runnable which can have other fusable runnables chained onto it.
+   *
+   * <p>Chained runnables are run in order, in a loop, once this runnable has run.
+   */
+  abstract static class Fusable implements Runnable {
+    /**
+     * The next fusable runnable to run, {@code null} if none has been chained yet, or
+     * {@link #SEALED} if this runnable has run.
+     */
+    volatile Object next;
+
+    /**
+     * Complete the target based on the state of the source.
+     */
+    abstract void apply();
 
     @Override
     public void run() {
-      switch (state.get()) {
+      apply();
+      runFused();
+    }
+
+    /**
+     * Seal this runnable, and run the runnables that have been chained onto it.
+     *
+     * <p>Only the first call runs them, so this is safe to call both once this runnable has run,
+     * and when the target of this runnable is cancelled.
+     */
+    void runFused() {
+      Fusable current = this;
+
+      while (true) {
+        final Object n = NEXT.getAndSet(current, SEALED);
+
+        if (n == null || n == SEALED) {
+          return;
+        }
+
+        current = (Fusable) n;
+        current.apply();
+      }
+    }
+  }
+
+  /**
+   * A fusable runnable that completes a target completable derived from this completable.
+   *
+   * @param <U> type of the target completable
+   */
+  abstract class FusableRunnable<U> extends Fusable {
+    final ConcurrentCompletable<U> target;
+
+    FusableRunnable(final ConcurrentCompletable<U> target) {
+      this.target = target;
+    }
+
+    /**
+     * The completable that this runnable derives its result from.
+     */
+    ConcurrentCompletable<T> source() {
+      return ConcurrentCompletable.this;
+    }
+  }
+
+  class ThenApplyRunnable<U> extends FusableRunnable<U> {
+    private final Function<? super T, ? extends U> fn;
+
+    ThenApplyRunnable(
+      final ConcurrentCompletable<U> target, final Function<? super T, ? extends U> fn
+    ) {
+      super(target);
+      this.fn = fn;
+    }
+
+    @Override
+    void apply() {
+      switch (state) {
         case COMPLETED:
           final U r;
 
@@ -692,6 +1718,76 @@ public class ConcurrentCompletable<T> extends AbstractImmediate<T>
     }
   }
 
+  class ThenApplyAsLongRunnable extends FusableRunnable<Long> {
+    private final ToLongFunction<? super T> fn;
+
+    ThenApplyAsLongRunnable(
+      final ConcurrentLongCompletable target, final ToLongFunction<? super T> fn
+    ) {
+      super(target);
+      this.fn = fn;
+    }
+
+    @Override
+    void apply() {
+      switch (state) {
+        case COMPLETED:
+          final long r;
+
+          try {
+            r = fn.applyAsLong(result(result));
+          } catch (final Exception e) {
+            target.fail(e);
+            return;
+          }
+
+          ((ConcurrentLongCompletable) target).complete(r);
+          break;
+        case FAILED:
+          target.fail(throwable(result));
+          break;
+        default:
+          target.cancel();
+          break;
+      }
+    }
+  }
+
+  class ThenApplyAsDoubleRunnable extends FusableRunnable<Double> {
+    private final ToDoubleFunction<? super T> fn;
+
+    ThenApplyAsDoubleRunnable(
+      final ConcurrentDoubleCompletable target, final ToDoubleFunction<? super T> fn
+    ) {
+      super(target);
+      this.fn = fn;
+    }
+
+    @Override
+    void apply() {
+      switch (state) {
+        case COMPLETED:
+          final double r;
+
+          try {
+            r = fn.applyAsDouble(result(result));
+          } catch (final Exception e) {
+            target.fail(e);
+            return;
+          }
+
+          ((ConcurrentDoubleCompletable) target).complete(r);
+          break;
+        case FAILED:
+          target.fail(throwable(result));
+          break;
+        default:
+          target.cancel();
+          break;
+      }
+    }
+  }
+
   @RequiredArgsConstructor
   class ThenComposeRunnable<U> implements Runnable {
     private final ConcurrentCompletable<U> target;
@@ -699,7 +1795,7 @@ public class ConcurrentCompletable<T> extends AbstractImmediate<T>
 
     @Override
     public void run() {
-      switch (state.get()) {
+      switch (state) {
         case COMPLETED:
           handleStage(() -> fn.apply(result(result)), target);
           break;
@@ -713,14 +1809,19 @@ public class ConcurrentCompletable<T> extends AbstractImmediate<T>
     }
   }
 
-  @RequiredArgsConstructor
-  class ThenApplyFailedRunnable implements Runnable {
-    private final ConcurrentCompletable<T> target;
+  class ThenApplyFailedRunnable extends FusableRunnable<T> {
     private final Function<? super Throwable, ? extends T> fn;
 
+    ThenApplyFailedRunnable(
+      final ConcurrentCompletable<T> target, final Function<? super Throwable, ? extends T> fn
+    ) {
+      super(target);
+      this.fn = fn;
+    }
+
     @Override
-    public void run() {
-      switch (state.get()) {
+    void apply() {
+      switch (state) {
         case COMPLETED:
           target.complete(result(result));
           break;
@@ -743,6 +1844,105 @@ public class ConcurrentCompletable<T> extends AbstractImmediate<T>
     }
   }
 
+  /**
+   * A runnable which runs on the given executor once this completable is completed.
+   *
+   * <p>The same instance is first added as a callback, and is then submitted to the executor
+   * itself. This way only a single task is submitted, and nothing else is allocated for the hop.
+   *
+   * @param <U> type of the target completable
+   */
+  @RequiredArgsConstructor
+  abstract class ExecutorRunnable<U> implements Runnable {
+    final ConcurrentCompletable<U> target;
+    final Executor executor;
+
+    /**
+     * If this runnable has been submitted to the executor. Is published to the executing thread
+     * through the executor.
+     */
+    boolean submitted = false;
+
+    /**
+     * Complete the target using the result of this completable, on the executor.
+     */
+    abstract void apply();
+
+    @Override
+    public void run() {
+      if (submitted) {
+        /* no need to do the work if the target has been cancelled in the meantime */
+        if (!target.isDone()) {
+          apply();
+        }
+
+        return;
+      }
+
+      switch (state) {
+        case COMPLETED:
+          submitted = true;
+
+          try {
+            executor.execute(this);
+          } catch (final Exception e) {
+            target.fail(e);
+          }
+
+          break;
+        case FAILED:
+          target.fail(throwable(result));
+          break;
+        default:
+          target.cancel();
+          break;
+      }
+    }
+  }
+
+  class ThenApplyAsyncRunnable<U> extends ExecutorRunnable<U> {
+    private final Function<? super T, ? extends U> fn;
+
+    ThenApplyAsyncRunnable(
+      final ConcurrentCompletable<U> target, final Executor executor,
+      final Function<? super T, ? extends U> fn
+    ) {
+      super(target, executor);
+      this.fn = fn;
+    }
+
+    @Override
+    void apply() {
+      final U r;
+
+      try {
+        r = fn.apply(result(result));
+      } catch (final Exception e) {
+        target.fail(e);
+        return;
+      }
+
+      target.complete(r);
+    }
+  }
+
+  class ThenComposeAsyncRunnable<U> extends ExecutorRunnable<U> {
+    private final Function<? super T, ? extends Stage<U>> fn;
+
+    ThenComposeAsyncRunnable(
+      final ConcurrentCompletable<U> target, final Executor executor,
+      final Function<? super T, ? extends Stage<U>> fn
+    ) {
+      super(target, executor);
+      this.fn = fn;
+    }
+
+    @Override
+    void apply() {
+      handleStage(() -> fn.apply(result(result)), target);
+    }
+  }
+
   @RequiredArgsConstructor
   class ThenComposeFailedRunnable implements Runnable {
     private final ConcurrentCompletable<T> target;
@@ -750,7 +1950,7 @@ public class ConcurrentCompletable<T> extends AbstractImmediate<T>
 
     @Override
     public void run() {
-      switch (state.get()) {
+      switch (state) {
         case COMPLETED:
           target.complete(result(result));
           break;
@@ -774,7 +1974,7 @@ public class ConcurrentCompletable<T> extends AbstractImmediate<T>
     public void run() {
       final Stage<Void> next;
 
-      switch (state.get()) {
+      switch (state) {
         case COMPLETED:
           try {
             next = complete.get();
@@ -790,7 +1990,7 @@ public class ConcurrentCompletable<T> extends AbstractImmediate<T>
           try {
             next = notComplete.get();
           } catch (final Exception e) {
-            final ExecutionException ee = new ExecutionException(e);
+            final ExecutionException ee = executionException(e);
             ee.addSuppressed(throwable(result));
             target.fail(ee);
             return;
@@ -823,7 +2023,7 @@ public class ConcurrentCompletable<T> extends AbstractImmediate<T>
     public void run() {
       final Stage<Void> next;
 
-      switch (state.get()) {
+      switch (state) {
         case COMPLETED:
           try {
             next = complete.get();
@@ -854,7 +2054,7 @@ public class ConcurrentCompletable<T> extends AbstractImmediate<T>
     public void run() {
       final Stage<Void> next;
 
-      switch (state.get()) {
+      switch (state) {
         case COMPLETED:
           target.complete(result(result));
           break;
@@ -862,7 +2062,7 @@ public class ConcurrentCompletable<T> extends AbstractImmediate<T>
           try {
             next = notComplete.get();
           } catch (final Exception e) {
-            final ExecutionException ee = new ExecutionException(e);
+            final ExecutionException ee = executionException(e);
             ee.addSuppressed(throwable(result));
             target.fail(ee);
             return;
@@ -886,6 +2086,68 @@ public class ConcurrentCompletable<T> extends AbstractImmediate<T>
     }
   }
 
+  /**
+   * Forwards the result of this completable to a target, unless a timeout expires first.
+   *
+   * <p>Is both added as a callback to this completable, and scheduled on the timer. Whichever runs
+   * first decides the state of the target, and the timeout is cancelled when this completable is
+   * done so that it does not linger in the timer.
+   */
+  class TimeoutRunnable implements Runnable, HashedWheelTimer.TimerTask {
+    private final ConcurrentCompletable<T> target;
+    /**
+     * Value to complete the target with when the timeout expires, or {@link #TIMEOUT} to fail it.
+     */
+    private final Object value;
+
+    volatile HashedWheelTimer.Timeout timeout;
+
+    TimeoutRunnable(final ConcurrentCompletable<T> target, final Object value) {
+      this.target = target;
+      this.value = value;
+    }
+
+    @Override
+    public void run() {
+      final HashedWheelTimer.Timeout t = timeout;
+
+      /* if unset, the timer has not been scheduled yet, which happens if this completable is
+       * already done when added */
+      if (t != null) {
+        t.cancel();
+      }
+
+      switch (state) {
+        case COMPLETED:
+          target.complete(result(result));
+          break;
+        case FAILED:
+          target.fail(throwable(result));
+          break;
+        default:
+          target.cancel();
+          break;
+      }
+    }
+
+    /**
+     * Hand the expiry off to the timer executor, so that the callbacks of the target do not run on
+     * the thread of the timer.
+     */
+    @Override
+    public void run(final HashedWheelTimer.Timeout timeout) {
+      options.getTimerExecutor().execute(this::expire);
+    }
+
+    void expire() {
+      if (value == TIMEOUT) {
+        target.fail(new StacklessTimeoutException("stage timed out"));
+      } else {
+        target.complete(result(value));
+      }
+    }
+  }
+
   @RequiredArgsConstructor
   class ThenFailRunnable<U> implements Runnable {
     private final ConcurrentCompletable<U> target;
@@ -893,9 +2155,9 @@ public class ConcurrentCompletable<T> extends AbstractImmediate<T>
 
     @Override
     public void run() {
-      switch (state.get()) {
+      switch (state) {
         case FAILED:
-          final ExecutionException c = new ExecutionException(cause);
+          final ExecutionException c = executionException(cause);
           c.addSuppressed(throwable(result));
           target.fail(cause);
           break;
@@ -0,0 +1,138 @@
+package eu.toolchain.concurrent;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleUnaryOperator;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A concurrent implementation of {@link DoubleCompletable}.
+ *
+ * <p>The value is stored in a primitive field, and is only boxed when it is accessed through the
+ * methods inherited from {@link Stage}.
+ */
+public class ConcurrentDoubleCompletable extends ConcurrentPrimitiveCompletable<Double>
+  implements DoubleCompletable {
+  /**
+   * Value of the completable.
+   *
+   * <p>Is published by the volatile write of {@link #VALUE} to {@link #result}.
+   */
+  double value;
+
+  /**
+   * Setup a concurrent double completable that uses a custom caller implementation.
+   *
+   * @param caller The caller implementation to use.
+   * @see ConcurrentCompletable#ConcurrentCompletable(Caller)
+   */
+  public ConcurrentDoubleCompletable(final Caller caller) {
+    super(caller);
+  }
+
+  /**
+   * Setup a concurrent double completable that uses a custom caller implementation and custom
+   * options.
+   *
+   * @param caller The caller implementation to use.
+   * @param options The options to use.
+   * @see ConcurrentCompletable#ConcurrentCompletable(Caller, CompletableOptions)
+   */
+  public ConcurrentDoubleCompletable(final Caller caller, final CompletableOptions options) {
+    super(caller, options);
+  }
+
+  @Override
+  public boolean complete(final double result) {
+    if (!beginComplete()) {
+      return false;
+    }
+
+    this.value = result;
+    publishValue(false);
+    return true;
+  }
+
+  @Override
+  public double joinAsDouble() throws InterruptedException, ExecutionException {
+    await();
+    return doJoinAsDouble();
+  }
+
+  @Override
+  public double joinAsDouble(final long timeout, final TimeUnit unit)
+    throws InterruptedException, ExecutionException, TimeoutException {
+    await(timeout, unit);
+    return doJoinAsDouble();
+  }
+
+  @Override
+  public double joinNowAsDouble() throws ExecutionException {
+    return doJoinAsDouble();
+  }
+
+  @Override
+  public DoubleStage whenCompleteAsDouble(final DoubleConsumer consumer) {
+    whenDone(new CompletedAsDoubleRunnable(consumer));
+    return this;
+  }
+
+  @Override
+  public DoubleStage thenApplyDouble(final DoubleUnaryOperator fn) {
+    final ConcurrentDoubleCompletable target = new ConcurrentDoubleCompletable(caller, options);
+    fuse(new ThenApplyDoubleRunnable(target, fn));
+    return target;
+  }
+
+  double doJoinAsDouble() throws ExecutionException {
+    checkValue();
+    return value;
+  }
+
+  @Override
+  void storeBoxed(final Double result) {
+    this.value = result;
+  }
+
+  @Override
+  Double boxValue() {
+    return value;
+  }
+
+  @RequiredArgsConstructor
+  class CompletedAsDoubleRunnable implements Runnable {
+    private final DoubleConsumer consumer;
+
+    @Override
+    public void run() {
+      if (state == ConcurrentCompletable.COMPLETED) {
+        consumer.accept(value);
+      }
+    }
+  }
+
+  class ThenApplyDoubleRunnable extends ValueRunnable<Double> {
+    private final DoubleUnaryOperator fn;
+
+    ThenApplyDoubleRunnable(final ConcurrentDoubleCompletable target, final DoubleUnaryOperator fn) {
+      super(target);
+      this.fn = fn;
+    }
+
+    @Override
+    void applyValue() {
+      final double r;
+
+      try {
+        r = fn.applyAsDouble(value);
+      } catch (final Exception e) {
+        target.fail(e);
+        return;
+      }
+
+      ((ConcurrentDoubleCompletable) target).complete(r);
+    }
+  }
+}
@@ -0,0 +1,138 @@
+package eu.toolchain.concurrent;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongConsumer;
+import java.util.function.LongUnaryOperator;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A concurrent implementation of {@link LongCompletable}.
+ *
+ * <p>The value is stored in a primitive field, and is only boxed when it is accessed through the
+ * methods inherited from {@link Stage}.
+ */
+public class ConcurrentLongCompletable extends ConcurrentPrimitiveCompletable<Long>
+  implements LongCompletable {
+  /**
+   * Value of the completable.
+   *
+   * <p>Is published by the volatile write of {@link #VALUE} to {@link #result}.
+   */
+  long value;
+
+  /**
+   * Setup a concurrent long completable that uses a custom caller implementation.
+   *
+   * @param caller The caller implementation to use.
+   * @see ConcurrentCompletable#ConcurrentCompletable(Caller)
+   */
+  public ConcurrentLongCompletable(final Caller caller) {
+    super(caller);
+  }
+
+  /**
+   * Setup a concurrent long completable that uses a custom caller implementation and custom
+   * options.
+   *
+   * @param caller The caller implementation to use.
+   * @param options The options to use.
+   * @see ConcurrentCompletable#ConcurrentCompletable(Caller, CompletableOptions)
+   */
+  public ConcurrentLongCompletable(final Caller caller, final CompletableOptions options) {
+    super(caller, options);
+  }
+
+  @Override
+  public boolean complete(final long result) {
+    if (!beginComplete()) {
+      return false;
+    }
+
+    this.value = result;
+    publishValue(false);
+    return true;
+  }
+
+  @Override
+  public long joinAsLong() throws InterruptedException, ExecutionException {
+    await();
+    return doJoinAsLong();
+  }
+
+  @Override
+  public long joinAsLong(final long timeout, final TimeUnit unit)
+    throws InterruptedException, ExecutionException, TimeoutException {
+    await(timeout, unit);
+    return doJoinAsLong();
+  }
+
+  @Override
+  public long joinNowAsLong() throws ExecutionException {
+    return doJoinAsLong();
+  }
+
+  @Override
+  public LongStage whenCompleteAsLong(final LongConsumer consumer) {
+    whenDone(new CompletedAsLongRunnable(consumer));
+    return this;
+  }
+
+  @Override
+  public LongStage thenApplyLong(final LongUnaryOperator fn) {
+    final ConcurrentLongCompletable target = new ConcurrentLongCompletable(caller, options);
+    fuse(new ThenApplyLongRunnable(target, fn));
+    return target;
+  }
+
+  long doJoinAsLong() throws ExecutionException {
+    checkValue();
+    return value;
+  }
+
+  @Override
+  void storeBoxed(final Long result) {
+    this.value = result;
+  }
+
+  @Override
+  Long boxValue() {
+    return value;
+  }
+
+  @RequiredArgsConstructor
+  class CompletedAsLongRunnable implements Runnable {
+    private final LongConsumer consumer;
+
+    @Override
+    public void run() {
+      if (state == ConcurrentCompletable.COMPLETED) {
+        consumer.accept(value);
+      }
+    }
+  }
+
+  class ThenApplyLongRunnable extends ValueRunnable<Long> {
+    private final LongUnaryOperator fn;
+
+    ThenApplyLongRunnable(final ConcurrentLongCompletable target, final LongUnaryOperator fn) {
+      super(target);
+      this.fn = fn;
+    }
+
+    @Override
+    void applyValue() {
+      final long r;
+
+      try {
+        r = fn.applyAsLong(value);
+      } catch (final Exception e) {
+        target.fail(e);
+        return;
+      }
+
+      ((ConcurrentLongCompletable) target).complete(r);
+    }
+  }
+}
@@ -0,0 +1,130 @@
+package eu.toolchain.concurrent;
+
+import java.util.concurrent.ExecutionException;
+
+/**
+ * State machine shared by the concurrent primitive completables.
+ *
+ * <p>Subclasses store the value in a primitive field, which is published by the volatile write of
+ * {@link #VALUE} to {@link #result}. The value is only boxed when it is accessed through the
+ * methods inherited from {@link Stage}.
+ *
+ * @param <T> The boxed type of the primitive value.
+ */
+abstract class ConcurrentPrimitiveCompletable<T> extends ConcurrentCompletable<T> {
+  ConcurrentPrimitiveCompletable(final Caller caller) {
+    super(caller);
+  }
+
+  ConcurrentPrimitiveCompletable(final Caller caller, final CompletableOptions options) {
+    super(caller, options);
+  }
+
+  /**
+   * Complete with a boxed value.
+   *
+   * <p>A primitive completable can not hold {@code null}, so completing with it fails the
+   * completable with a {@link NullPointerException} instead.
+   */
+  @Override
+  boolean complete(final T result, final boolean forwarded) {
+    if (result == null) {
+      return fail(new NullPointerException("result"), forwarded);
+    }
+
+    if (!beginComplete()) {
+      return false;
+    }
+
+    storeBoxed(result);
+    publishValue(forwarded);
+    return true;
+  }
+
+  /**
+   * Store a non-null boxed value.
+   */
+  abstract void storeBoxed(T result);
+
+  /**
+   * Box the stored value.
+   */
+  abstract T boxValue();
+
+  /**
+   * Start completing this completable.
+   *
+   * <p>If this returns {@code true}, the caller must store the value and then call {@link
+   * #publishValue(boolean)}.
+   *
+   * @return {@code true} if this completable was pending.
+   */
+  boolean beginComplete() {
+    /* states are qualified, since the constants of Stage are also in scope through the
+     * primitive stage interfaces */
+    return STATE.compareAndSet(
+      this, ConcurrentCompletable.PENDING, ConcurrentCompletable.COMPLETED);
+  }
+
+  /**
+   * Publish the stored value and run the callbacks.
+   *
+   * @param forwarded if the value was forwarded through {@link Handle}
+   */
+  void publishValue(final boolean forwarded) {
+    this.result = VALUE;
+    final Object u = clearUpstream();
+    postComplete(u, forwarded);
+    releaseUpstream(u);
+  }
+
+  /**
+   * Check that the stored value is available.
+   *
+   * @throws ExecutionException if the completable is failed.
+   */
+  void checkValue() throws ExecutionException {
+    if (result != VALUE) {
+      /* not completed, so this throws the appropriate exception */
+      doJoin();
+    }
+  }
+
+  @Override
+  T result(final Object r) {
+    if (r == VALUE) {
+      return boxValue();
+    }
+
+    return super.result(r);
+  }
+
+  /**
+   * A fusable runnable which only needs to handle the completed state of this completable.
+   */
+  abstract class ValueRunnable<U> extends FusableRunnable<U> {
+    ValueRunnable(final ConcurrentCompletable<U> target) {
+      super(target);
+    }
+
+    /**
+     * Apply the stored value to the target.
+     */
+    abstract void applyValue();
+
+    @Override
+    void apply() {
+      switch (state) {
+        case ConcurrentCompletable.COMPLETED:
+          applyValue();
+          break;
+        case ConcurrentCompletable.FAILED:
+          target.fail(throwable(result));
+          break;
+        default:
+          target.cancel();
+          break;
+      }
+    }
+  }
+}
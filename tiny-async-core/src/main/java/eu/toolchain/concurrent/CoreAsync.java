@@ -5,18 +5,22 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.StringJoiner;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.LongBinaryOperator;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 
 /**
  * Entry point to the tiny async framework.
@@ -27,8 +31,12 @@ import lombok.RequiredArgsConstructor;
  *   final Async async = CoreAsync.builder().build();
  * }</pre>
  */
-@RequiredArgsConstructor
 public class CoreAsync implements Async {
+  /**
+   * Max number of errors suppressed by the error of a collected stage.
+   */
+  static final int MAX_SUPPRESSED = 32;
+
   private static final Collection<Object> EMPTY_RESULTS = Collections.emptyList();
 
   /**
@@ -45,6 +53,51 @@ public class CoreAsync implements Async {
   private final ClockSource clockSource;
   @NonNull
   private final ManagedOptions managedOptions;
+  @NonNull
+  private final CompletableOptions completableOptions;
+
+  /**
+   * Stages for common results, which are immutable and therefore shared instead of allocated for
+   * every call to {@link #completed(Object)}.
+   */
+  private final Stage<Object> completedNull;
+  private final Stage<Boolean> completedTrue;
+  private final Stage<Boolean> completedFalse;
+  private final Stage<List<Object>> completedEmptyList;
+  private final Stage<Set<Object>> completedEmptySet;
+  private final Stage<Map<Object, Object>> completedEmptyMap;
+  private final Stage<Object> cancelled;
+
+  public CoreAsync(
+      final ExecutorService executor, final ScheduledExecutorService scheduler,
+      @NonNull final Caller caller, @NonNull final ClockSource clockSource,
+      @NonNull final ManagedOptions managedOptions
+  ) {
+    this(executor, scheduler, caller, clockSource, managedOptions,
+        CompletableOptions.newDefault());
+  }
+
+  public CoreAsync(
+      final ExecutorService executor, final ScheduledExecutorService scheduler,
+      @NonNull final Caller caller, @NonNull final ClockSource clockSource,
+      @NonNull final ManagedOptions managedOptions,
+      @NonNull final CompletableOptions completableOptions
+  ) {
+    this.executor = executor;
+    this.scheduler = scheduler;
+    this.caller = caller;
+    this.clockSource = clockSource;
+    this.managedOptions = managedOptions;
+    this.completableOptions = completableOptions;
+
+    this.completedNull = newCompleted(null);
+    this.completedTrue = newCompleted(Boolean.TRUE);
+    this.completedFalse = newCompleted(Boolean.FALSE);
+    this.completedEmptyList = newCompleted(Collections.emptyList());
+    this.completedEmptySet = newCompleted(Collections.emptySet());
+    this.completedEmptyMap = newCompleted(Collections.emptyMap());
+    this.cancelled = newCancelled();
+  }
 
   /**
    * Fetch the configured primary executor (if any).
@@ -66,16 +119,41 @@ public class CoreAsync implements Async {
 
   @Override
   public <C> Stage<C> call(final Callable<? extends C> callable) {
-    return doCall(callable, executor(), this.completable());
+    return doCall(callable, executor());
   }
 
   @Override
   public <C> Stage<C> call(
       final Callable<? extends C> callable, final ExecutorService executor
   ) {
-    return doCall(callable, executor, this.completable());
+    return doCall(callable, executor);
   }
 
+  <C> Stage<C> doCall(final Callable<? extends C> callable, final Executor executor) {
+    final CallTask<C> task = new CallTask<>(caller, completableOptions, callable);
+
+    try {
+      executor.execute(task);
+    } catch (final Exception e) {
+      task.fail(e);
+    }
+
+    return task;
+  }
+
+  /**
+   * Call the given callable on the executor, and complete the given completable with its result.
+   *
+   * <p>This wraps the callable and submits it as a {@link Future}, which is cancelled when the
+   * completable is. {@link #call(Callable, ExecutorService)} avoids these allocations, and should
+   * be preferred unless a specific completable is needed.
+   *
+   * @param callable callable to call
+   * @param executor executor to call it on
+   * @param stage completable to complete
+   * @param <C> type of the result
+   * @return the given completable
+   */
   public <C> Stage<C> doCall(
       final Callable<? extends C> callable, final ExecutorService executor,
       final Completable<C> stage
@@ -117,7 +195,27 @@ public class CoreAsync implements Async {
 
   @Override
   public <T> Completable<T> completable() {
-    return new ConcurrentCompletable<>(caller);
+    return new ConcurrentCompletable<>(caller, completableOptions);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Use {@link LocalCompletable#share()} to hand the result over to other threads.
+   */
+  @Override
+  public <T> LocalCompletable<T> localCompletable() {
+    return new LocalCompletable<>(caller, completableOptions);
+  }
+
+  @Override
+  public LongCompletable longCompletable() {
+    return new ConcurrentLongCompletable(caller, completableOptions);
+  }
+
+  @Override
+  public DoubleCompletable doubleCompletable() {
+    return new ConcurrentDoubleCompletable(caller, completableOptions);
   }
 
   @Override
@@ -126,18 +224,83 @@ public class CoreAsync implements Async {
   }
 
   @Override
+  @SuppressWarnings("unchecked")
   public <T> Stage<T> completed(T value) {
-    return new ImmediateCompleted<>(caller, value);
+    final Stage<?> cached = cachedCompleted(value);
+
+    if (cached != null) {
+      return (Stage<T>) cached;
+    }
+
+    return newCompleted(value);
   }
 
   @Override
   public <T> Stage<T> failed(Throwable e) {
+    if (completableOptions.isMonomorphic()) {
+      return ConcurrentCompletable.newFailed(caller, completableOptions, e);
+    }
+
     return new ImmediateFailed<>(caller, e);
   }
 
   @Override
+  @SuppressWarnings("unchecked")
   public <T> Stage<T> cancelled() {
-    return new ImmediateCancelled<T>(caller);
+    return (Stage<T>) cancelled;
+  }
+
+  /**
+   * Get a shared stage for the given value, if it is a common one.
+   *
+   * <p>Only immutable values are shared, like the empty collections from {@link Collections},
+   * which are compared by identity.
+   *
+   * @param value value to get a stage for
+   * @return a shared stage, or {@code null} if the value is not a common one
+   */
+  Stage<?> cachedCompleted(final Object value) {
+    if (value == null) {
+      return completedNull;
+    }
+
+    if (value == Boolean.TRUE) {
+      return completedTrue;
+    }
+
+    if (value == Boolean.FALSE) {
+      return completedFalse;
+    }
+
+    if (value == Collections.emptyList()) {
+      return completedEmptyList;
+    }
+
+    if (value == Collections.emptySet()) {
+      return completedEmptySet;
+    }
+
+    if (value == Collections.emptyMap()) {
+      return completedEmptyMap;
+    }
+
+    return null;
+  }
+
+  <T> Stage<T> newCompleted(final T value) {
+    if (completableOptions.isMonomorphic()) {
+      return ConcurrentCompletable.newCompleted(caller, completableOptions, value);
+    }
+
+    return new ImmediateCompleted<>(caller, value);
+  }
+
+  <T> Stage<T> newCancelled() {
+    if (completableOptions.isMonomorphic()) {
+      return ConcurrentCompletable.newCancelled(caller, completableOptions);
+    }
+
+    return new ImmediateCancelled<>(caller);
   }
 
   @SuppressWarnings("unchecked")
@@ -171,13 +334,17 @@ public class CoreAsync implements Async {
     final Completable<T> target = completable();
 
     final CollectHelper<? super C, ? extends T> done =
-        new CollectHelper<>(stages.size(), collector, stages, target);
+        new CollectHelper<>(stages.size(), collector, stages, target,
+            completableOptions.isFailFastCollect());
+
+    int index = 0;
 
     for (final Stage<? extends C> q : stages) {
-      q.handle(done);
+      q.handle(done.slot(index++));
     }
 
-    bindSignals(target, stages);
+    // the helper only retains sources which have not checked in.
+    target.whenCancelled(done::checkFailed);
     return target;
   }
 
@@ -197,6 +364,51 @@ public class CoreAsync implements Async {
     }
   }
 
+  @Override
+  public Stage<long[]> collectLongs(final Collection<? extends LongStage> stages) {
+    if (stages.isEmpty()) {
+      return completed(new long[0]);
+    }
+
+    return doCollectLongs(stages);
+  }
+
+  /**
+   * Perform a collection of primitive stages.
+   *
+   * @param stages stages to collect
+   * @return a completable
+   */
+  Stage<long[]> doCollectLongs(final Collection<? extends LongStage> stages) {
+    final Completable<long[]> target = completable();
+
+    final CollectLongsHelper done =
+        new CollectLongsHelper(stages.toArray(new LongStage[stages.size()]), target);
+
+    for (final LongStage q : stages) {
+      q.whenDone(done);
+    }
+
+    bindSignals(target, stages);
+    return target;
+  }
+
+  @Override
+  public LongStage reduceLongs(
+      final Collection<? extends LongStage> stages, final long identity,
+      final LongBinaryOperator reducer
+  ) {
+    return collectLongs(stages).thenApplyAsLong(values -> {
+      long result = identity;
+
+      for (final long value : values) {
+        result = reducer.applyAsLong(result, value);
+      }
+
+      return result;
+    });
+  }
+
   @Override
   public <T, U> Stage<U> streamCollect(
       final Collection<? extends Stage<? extends T>> stages, final Consumer<? super T> consumer,
@@ -243,7 +455,8 @@ public class CoreAsync implements Async {
     final Completable<U> target = completable();
 
     final StreamCollectHelper<? super T, ? extends U> done =
-        new StreamCollectHelper<>(caller, stages.size(), consumer, supplier, target);
+        new StreamCollectHelper<>(caller, stages.size(), consumer, supplier, target,
+            completableOptions.isSerializedStreamCollect());
 
     for (final Stage<? extends T> q : stages) {
       q.handle(done);
@@ -350,7 +563,9 @@ public class CoreAsync implements Async {
   ) {
     final Completable<Void> target = completable();
 
-    final CollectAndDiscardHelper done = new CollectAndDiscardHelper(stages.size(), target);
+    final CollectAndDiscardHelper done =
+        new CollectAndDiscardHelper(stages.size(), target,
+            completableOptions.isFailFastCollect());
 
     for (final Stage<?> q : stages) {
       q.handle(done);
@@ -360,6 +575,41 @@ public class CoreAsync implements Async {
     return target;
   }
 
+  @Override
+  public Stage<Void> delay(final long delay, final TimeUnit unit) {
+    final Completable<Void> target = completable();
+    final Executor executor = completableOptions.getTimerExecutor();
+    final HashedWheelTimer.Timeout timeout =
+        timer().newTimeout(t -> executor.execute(() -> target.complete(null)), delay, unit);
+    target.whenCancelled(timeout::cancel);
+    return target;
+  }
+
+  @Override
+  public <T> Stage<T> schedule(
+      final Callable<? extends T> callable, final long delay, final TimeUnit unit
+  ) {
+    return delay(delay, unit).thenCompose(v -> call(callable));
+  }
+
+  @Override
+  public Stage<Void> repeatEvery(
+      final Supplier<? extends Stage<?>> action, final long period, final TimeUnit unit
+  ) {
+    final Completable<Void> target = completable();
+    new RepeatHelper(timer(), completableOptions.getTimerExecutor(), action, unit.toNanos(period), target).start();
+    return target;
+  }
+
+  /**
+   * Timer used for delays and timeouts.
+   *
+   * @return the timer of this instance
+   */
+  HashedWheelTimer timer() {
+    return completableOptions.getTimer();
+  }
+
   @Override
   public <C> Managed<C> managed(
       Supplier<? extends Stage<C>> setup, Function<? super C, ? extends Stage<Void>> teardown
@@ -404,10 +654,6 @@ public class CoreAsync implements Async {
       final Callable<? extends Stage<T>> callable, final RetryPolicy policy,
       final ClockSource clockSource
   ) {
-    if (scheduler == null) {
-      throw new IllegalStateException("no scheduler configured");
-    }
-
     final Completable<T> stage = completable();
 
     final Supplier<RetryDecision> policyInstance = policy.newInstance(clockSource);
@@ -415,7 +661,8 @@ public class CoreAsync implements Async {
     final long start = clockSource.now();
 
     final RetryCallHelper<T> helper =
-        new RetryCallHelper<>(start, scheduler, callable, policyInstance, stage, clockSource);
+        new RetryCallHelper<>(start, this::retryDelay, callable, policyInstance, stage,
+            clockSource);
 
     stage.whenDone(helper::finished);
 
@@ -423,18 +670,55 @@ public class CoreAsync implements Async {
     return stage.thenApply(result -> new RetryResult<>(result, helper.getErrors()));
   }
 
+  /**
+   * Build a stage which completes after the backoff of a retry.
+   *
+   * <p>Uses the scheduler if one has been configured, otherwise the timer.
+   *
+   * @param backoff backoff in milliseconds
+   * @return a stage which completes after the backoff
+   */
+  Stage<Void> retryDelay(final long backoff) {
+    if (scheduler == null) {
+      return delay(backoff, TimeUnit.MILLISECONDS);
+    }
+
+    return RetryCallHelper.scheduledDelay(scheduler, completable(), backoff);
+  }
+
   static String formatStack(final Stream<StackTraceElement> stack, final String prefix) {
     final StringJoiner joiner = new StringJoiner("\n" + prefix, prefix, "");
     stack.map(Object::toString).forEach(joiner::add);
     return joiner.toString();
   }
 
+  /**
+   * Build the error for a collection of failed stages.
+   *
+   * <p>The first error suppresses at most {@link #MAX_SUPPRESSED} of the others, since each
+   * suppressed error is retained and printed with it. The ones that are dropped are counted by a
+   * suppressed {@link DroppedErrorsException}.
+   */
   static Throwable buildCollectedException(Collection<Throwable> errors) {
     final Iterator<Throwable> it = errors.iterator();
     final Throwable first = it.next();
 
-    while (it.hasNext()) {
+    int suppressed = 0;
+
+    while (it.hasNext() && suppressed < MAX_SUPPRESSED) {
       first.addSuppressed(it.next());
+      suppressed++;
+    }
+
+    int dropped = 0;
+
+    while (it.hasNext()) {
+      it.next();
+      dropped++;
+    }
+
+    if (dropped > 0) {
+      first.addSuppressed(new DroppedErrorsException(dropped));
     }
 
     return first;
@@ -459,9 +743,13 @@ public class CoreAsync implements Async {
     private long maxRecursionDepth = 100;
     private ExecutorService executor;
     private ExecutorService callerExecutor;
+    private int callerBatchSize;
     private ScheduledExecutorService scheduler;
+    private boolean virtualThreads;
+    private boolean virtualThreadCaller;
     private ClockSource clockSource = ClockSource.system();
     private ManagedOptions managedOptions = ManagedOptions.builder().build();
+    private CompletableOptions completableOptions = CompletableOptions.builder().build();
 
     Builder() {
     }
@@ -489,6 +777,9 @@ public class CoreAsync implements Async {
      *
      * <p>This will make even the non-threaded caller use a thread in the case of deep recursion.
      *
+     * <p>Note that chains of completables do not need this to avoid blowing up the stack, since
+     * completables already execute callbacks that complete other completables iteratively.
+     *
      * @param recursionSafe {@code true} if all caller invocations should be done with a recursion
      * safe mechanism.
      * @return this builder
@@ -560,9 +851,74 @@ public class CoreAsync implements Async {
       return this;
     }
 
+    /**
+     * Configure that caller invocations should be batched into fewer executor tasks.
+     *
+     * <p>Instead of submitting one task per invocation, invocations are queued and run by a single
+     * task which runs at most {@code callerBatchSize} of them before submitting a new one. See
+     * {@link BatchingExecutorCaller}.
+     *
+     * <p>Implies use of threaded caller.
+     *
+     * @param callerBatchSize max number of invocations to run per executor task
+     * @return this builder
+     */
+    public Builder callerBatchSize(final int callerBatchSize) {
+      if (callerBatchSize <= 0) {
+        throw new IllegalArgumentException("callerBatchSize: must be positive");
+      }
+
+      this.callerBatchSize = callerBatchSize;
+      return this;
+    }
+
+    /**
+     * Configure that asynchronous tasks submitted through {@link Async#call(Callable)} should each
+     * run on their own virtual thread, unless an {@link #executor(ExecutorService)} is configured.
+     *
+     * <p>This is intended for tasks that block, like calls to JDBC, where the number of concurrent
+     * calls would otherwise be limited by the size of a thread pool. Joining a completable does not
+     * hold any monitors, so a virtual thread that joins does not pin its carrier thread.
+     *
+     * <p>Virtual threads require Java 21 or later. Building will throw an
+     * {@link IllegalStateException} on earlier runtimes.
+     *
+     * @param virtualThreads {@code true} if tasks should run on virtual threads
+     * @return this builder
+     */
+    public Builder virtualThreads(final boolean virtualThreads) {
+      this.virtualThreads = virtualThreads;
+      return this;
+    }
+
+    /**
+     * Configure that caller invocations should run on virtual threads, unless a
+     * {@link #callerExecutor(ExecutorService)} is configured.
+     *
+     * <p>Implies use of threaded caller.
+     *
+     * <p>Completables never hold a monitor while they run callbacks or while they park a joining
+     * thread, so they do not pin the carrier thread. A callback which blocks while it holds a
+     * monitor of its own does pin it.
+     *
+     * <p>Virtual threads require Java 21 or later. Building will throw an
+     * {@link IllegalStateException} on earlier runtimes.
+     *
+     * @param virtualThreadCaller {@code true} if caller invocations should run on virtual threads
+     * @return this builder
+     */
+    public Builder virtualThreadCaller(final boolean virtualThreadCaller) {
+      this.virtualThreadCaller = virtualThreadCaller;
+      return this;
+    }
+
     /**
      * Specify a scheduler to use with the built CoreAsync instance.
      *
+     * <p>If configured, the scheduler is used for the backoff of
+     * {@link Async#retryUntilCompleted(Callable, RetryPolicy)}. Otherwise the timer configured
+     * through {@link CompletableOptions} is used.
+     *
      * @param scheduler The scheduler to use
      * @return this builder
      */
@@ -595,12 +951,44 @@ public class CoreAsync implements Async {
       return this;
     }
 
+    /**
+     * Configure options for completables created by the built instance.
+     *
+     * @param completableOptions completable options to configure
+     * @return this builder
+     * @see CompletableOptions
+     */
+    public Builder completableOptions(final CompletableOptions completableOptions) {
+      Objects.requireNonNull(completableOptions, "completableOptions");
+
+      this.completableOptions = completableOptions;
+      return this;
+    }
+
     public CoreAsync build() {
-      final ExecutorService defaultExecutor = this.executor;
+      final ExecutorService defaultExecutor = setupDefaultExecutor();
       final ExecutorService callerExecutor = setupCallerExecutor(defaultExecutor);
       final Caller caller = setupCaller(callerExecutor);
 
-      return new CoreAsync(defaultExecutor, scheduler, caller, clockSource, managedOptions);
+      return new CoreAsync(defaultExecutor, scheduler, caller, clockSource, managedOptions,
+          completableOptions);
+    }
+
+    /**
+     * Setup the default executor according to the provided implementation.
+     *
+     * @return default executor
+     */
+    private ExecutorService setupDefaultExecutor() {
+      if (executor != null) {
+        return executor;
+      }
+
+      if (virtualThreads) {
+        return VirtualThreads.newExecutor();
+      }
+
+      return null;
     }
 
     /**
@@ -614,6 +1002,10 @@ public class CoreAsync implements Async {
         return callerExecutor;
       }
 
+      if (virtualThreadCaller) {
+        return VirtualThreads.newExecutor();
+      }
+
       if (defaultExecutor != null) {
         return defaultExecutor;
       }
@@ -636,12 +1028,18 @@ public class CoreAsync implements Async {
         caller = new PrintStreamCaller(System.err);
       }
 
-      if (threaded) {
+      /* options which imply a threaded caller are resolved here, so that they can be toggled
+       * independently */
+      if (threaded || callerBatchSize > 0 || virtualThreadCaller) {
         if (callerExecutor == null) {
           throw new IllegalStateException("#threaded enabled, but no caller executor configured");
         }
 
-        caller = new ExecutorCaller(callerExecutor, caller);
+        if (callerBatchSize > 0) {
+          caller = new BatchingExecutorCaller(callerExecutor, caller, callerBatchSize);
+        } else {
+          caller = new ExecutorCaller(callerExecutor, caller);
+        }
       }
 
       if (recursionSafe) {
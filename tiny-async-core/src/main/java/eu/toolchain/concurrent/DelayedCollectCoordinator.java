@@ -1,7 +1,6 @@
 package eu.toolchain.concurrent;
 
 import java.util.Collection;
-import java.util.Iterator;
 import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
@@ -10,25 +9,38 @@ import java.util.function.Supplier;
 /**
  * Coordinator thread for handling delayed callables executing with a given parallelism.
  *
+ * <p>This is lock-free. Callables are claimed by position with a CAS, and a single countdown of
+ * callables which have not finished, including those which have not been claimed, determines
+ * when the collect is done.
+ *
  * @param <S> The source type being collected.
  * @param <T> The target type the source type is being collected into.
  */
 public class DelayedCollectCoordinator<S, T> implements Handle<S>, Runnable {
-  private final AtomicInteger pending = new AtomicInteger();
-
-  /* lock that must be acquired before using {@link callables} */
-  private final Object lock = new Object();
-
   private final Caller caller;
-  private final Iterator<? extends Callable<? extends Stage<? extends S>>> callables;
   private final Consumer<? super S> consumer;
   private final Supplier<? extends T> supplier;
   private final Completable<? super T> future;
   private final int parallelism;
   private final int total;
 
+  /**
+   * Callables to call, entries are cleared once they have been claimed.
+   */
+  private final Object[] callables;
+
+  /**
+   * Position of the next callable to claim.
+   */
+  private final AtomicInteger next = new AtomicInteger();
+
+  /**
+   * Number of callables which have not finished, or have not been claimed. The thread that counts
+   * this down to zero completes the collect.
+   */
+  private final AtomicInteger remaining;
+
   volatile boolean cancel = false;
-  volatile boolean done = false;
 
   public DelayedCollectCoordinator(
       final Caller caller,
@@ -37,46 +49,47 @@ public class DelayedCollectCoordinator<S, T> implements Handle<S>, Runnable {
       int parallelism
   ) {
     this.caller = caller;
-    this.callables = callables.iterator();
+    this.callables = callables.toArray();
     this.consumer = consumer;
     this.supplier = supplier;
     this.future = future;
     this.parallelism = parallelism;
-    this.total = callables.size();
+    this.total = this.callables.length;
+    this.remaining = new AtomicInteger(total);
   }
 
   @Override
   public void failed(Throwable cause) {
-    pending.decrementAndGet();
     cancel = true;
+    retire(1);
     checkNext();
   }
 
   @Override
   public void completed(S result) {
     caller.execute(() -> consumer.accept(result));
-    pending.decrementAndGet();
+    retire(1);
     checkNext();
   }
 
   @Override
   public void cancelled() {
-    pending.decrementAndGet();
     cancel = true;
+    retire(1);
     checkNext();
   }
 
   // coordinate thread.
   @Override
   public void run() {
-    synchronized (lock) {
-      if (!callables.hasNext()) {
-        checkEnd();
-        return;
-      }
+    if (total == 0) {
+      end();
+      return;
+    }
 
-      for (int i = 0; i < parallelism && callables.hasNext(); i++) {
-        setupNext(callables.next());
+    for (int i = 0; i < parallelism; i++) {
+      if (!checkNext()) {
+        break;
       }
     }
 
@@ -86,31 +99,68 @@ public class DelayedCollectCoordinator<S, T> implements Handle<S>, Runnable {
     });
   }
 
-  private void checkNext() {
-    final Callable<? extends Stage<? extends S>> next;
+  /**
+   * Claim and set up the next callable, if there is one.
+   *
+   * <p>When cancelled, all callables which have not been claimed are retired instead.
+   *
+   * @return {@code true} if a callable was set up
+   */
+  private boolean checkNext() {
+    if (cancel) {
+      retireUnclaimed();
+      return false;
+    }
 
-    synchronized (lock) {
-      if (cancel) {
-        checkEnd();
-        return;
+    final int index = claim();
+
+    if (index < 0) {
+      return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    final Callable<? extends Stage<? extends S>> callable =
+        (Callable<? extends Stage<? extends S>>) callables[index];
+
+    // help garbage collection.
+    callables[index] = null;
+
+    setupNext(callable);
+    return true;
+  }
+
+  private int claim() {
+    while (true) {
+      final int n = next.get();
+
+      if (n >= total) {
+        return -1;
       }
 
-      if (!callables.hasNext()) {
-        checkEnd();
+      if (next.compareAndSet(n, n + 1)) {
+        return n;
+      }
+    }
+  }
+
+  private void retireUnclaimed() {
+    while (true) {
+      final int n = next.get();
+
+      if (n >= total) {
         return;
       }
 
-      next = callables.next();
+      if (next.compareAndSet(n, total)) {
+        retire(total - n);
+        return;
+      }
     }
-
-    setupNext(next);
   }
 
   private void setupNext(final Callable<? extends Stage<? extends S>> next) {
     final Stage<? extends S> f;
 
-    pending.incrementAndGet();
-
     try {
       f = next.call();
     } catch (final Exception e) {
@@ -121,17 +171,13 @@ public class DelayedCollectCoordinator<S, T> implements Handle<S>, Runnable {
     f.handle(this);
   }
 
-  private void checkEnd() {
-    if (pending.get() > 0) {
-      return;
-    }
-
-    if (done) {
-      return;
+  private void retire(final int count) {
+    if (remaining.addAndGet(-count) == 0) {
+      end();
     }
+  }
 
-    done = true;
-
+  private void end() {
     final T value;
 
     try {
@@ -0,0 +1,30 @@
+package eu.toolchain.concurrent;
+
+/**
+ * Suppressed by a collected error to indicate that some errors were dropped.
+ *
+ * <p>When many collected stages fail, only the first {@value CoreAsync#MAX_SUPPRESSED} errors are
+ * suppressed by the error that the collected stage is failed with, the rest are counted by this.
+ */
+public class DroppedErrorsException extends RuntimeException {
+  private final int dropped;
+
+  DroppedErrorsException(final int dropped) {
+    super(dropped + " error(s) were dropped");
+    this.dropped = dropped;
+  }
+
+  /**
+   * Get the number of errors that were dropped.
+   *
+   * @return number of dropped errors
+   */
+  public int getDropped() {
+    return dropped;
+  }
+
+  @Override
+  public synchronized Throwable fillInStackTrace() {
+    return this;
+  }
+}
@@ -1,24 +1,76 @@
 package eu.toolchain.concurrent;
 
+import java.util.List;
 import java.util.concurrent.ExecutorService;
-import lombok.RequiredArgsConstructor;
 
 /**
  * A {@link Caller} implementation that defers all execution to a
  * {@link java.util.concurrent.ExecutorService}.
+ *
+ * <p>When many runnables are executed at once through {@link #executeAll(List)}, they are split
+ * into chunks of at most {@code chunkSize} runnables, and each chunk is submitted as a single task.
+ * A small number of runnables therefore only costs a single task, while a large number is spread
+ * out over the threads of the executor. Either way the calling thread only submits the tasks.
  */
-@RequiredArgsConstructor
 public final class ExecutorCaller implements Caller {
+  static final int DEFAULT_CHUNK_SIZE = 64;
+
   private final ExecutorService executor;
   private final Caller caller;
+  private final int chunkSize;
+
+  public ExecutorCaller(final ExecutorService executor, final Caller caller) {
+    this(executor, caller, DEFAULT_CHUNK_SIZE);
+  }
+
+  public ExecutorCaller(final ExecutorService executor, final Caller caller, final int chunkSize) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("chunkSize: must be positive");
+    }
+
+    this.executor = executor;
+    this.caller = caller;
+    this.chunkSize = chunkSize;
+  }
 
   @Override
   public void execute(final Runnable runnable) {
     executor.execute(runnable);
   }
 
+  @Override
+  public void executeAll(final List<? extends Runnable> runnables) {
+    final int size = runnables.size();
+
+    for (int start = 0; start < size; start += chunkSize) {
+      final List<? extends Runnable> chunk =
+          runnables.subList(start, Math.min(start + chunkSize, size));
+
+      if (chunk.size() == 1) {
+        executor.execute(chunk.get(0));
+      } else {
+        executor.execute(() -> runChunk(chunk));
+      }
+    }
+  }
+
   @Override
   public void referenceLeaked(final Object reference, final StackTraceElement[] stack) {
     executor.execute(() -> caller.referenceLeaked(reference, stack));
   }
+
+  /**
+   * Run all runnables in a chunk, making sure that one that throws does not prevent the others
+   * from running.
+   */
+  static void runChunk(final List<? extends Runnable> chunk) {
+    for (final Runnable runnable : chunk) {
+      try {
+        runnable.run();
+      } catch (final Exception e) {
+        final Thread t = Thread.currentThread();
+        t.getUncaughtExceptionHandler().uncaughtException(t, e);
+      }
+    }
+  }
 }
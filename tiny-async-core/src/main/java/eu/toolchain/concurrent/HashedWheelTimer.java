@@ -0,0 +1,343 @@
+package eu.toolchain.concurrent;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A timer which buckets timeouts into the slots of a hashed timing wheel.
+ *
+ * <p>Timeouts are approximate, and expire on the first tick after their deadline. In exchange,
+ * both scheduling and cancelling a timeout are constant time operations that do not contend on a
+ * shared heap. This makes it suitable for putting a deadline on a large number of stages, most of
+ * which will be done long before they time out.
+ *
+ * <p>Tasks are run on a single worker thread, which is started when the first timeout is
+ * scheduled. They are expected to be short, since they delay the expiration of other timeouts.
+ */
+public class HashedWheelTimer {
+  static final long DEFAULT_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+  static final int DEFAULT_WHEEL_SIZE = 512;
+  /**
+   * Longest supported delay, about 146 years.
+   *
+   * <p>Deadlines are compared by subtracting {@link System#nanoTime()} values, which only works
+   * while the difference between them fits in a long. Longer delays are saturated to this.
+   */
+  static final long MAX_DELAY_NANOS = Long.MAX_VALUE / 2;
+
+  static final int INIT = 0;
+  static final int STARTED = 1;
+  static final int STOPPED = 2;
+
+  static final AtomicIntegerFieldUpdater<Timeout> TIMEOUT_STATE =
+    AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+  private final ThreadFactory threadFactory;
+  private final long tickNanos;
+  private final Bucket[] wheel;
+  private final int mask;
+
+  /**
+   * Timeouts which have been scheduled, but not yet been added to the wheel by the worker.
+   */
+  private final ConcurrentLinkedQueue<Timeout> pending = new ConcurrentLinkedQueue<>();
+  /**
+   * Timeouts which have been cancelled, and should be removed from the wheel by the worker.
+   */
+  private final ConcurrentLinkedQueue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+
+  private final AtomicInteger state = new AtomicInteger(INIT);
+
+  private volatile Thread worker;
+
+  /**
+   * Setup a timer with a tick duration of 10 milliseconds, that runs on a daemon thread.
+   */
+  public HashedWheelTimer() {
+    this(runnable -> {
+      final Thread thread = new Thread(runnable, "tiny-async-timer");
+      thread.setDaemon(true);
+      return thread;
+    }, DEFAULT_TICK_NANOS, TimeUnit.NANOSECONDS, DEFAULT_WHEEL_SIZE);
+  }
+
+  /**
+   * Setup a timer.
+   *
+   * @param threadFactory factory for the worker thread
+   * @param tickDuration the duration of a single tick, which is the accuracy of the timer
+   * @param unit unit of the tick duration
+   * @param wheelSize number of slots in the wheel, is rounded up to the next power of two
+   */
+  public HashedWheelTimer(
+    final ThreadFactory threadFactory, final long tickDuration, final TimeUnit unit,
+    final int wheelSize
+  ) {
+    if (tickDuration <= 0) {
+      throw new IllegalArgumentException("tickDuration: must be positive");
+    }
+
+    if (wheelSize <= 0 || wheelSize > 1 << 30) {
+      throw new IllegalArgumentException("wheelSize: must be positive, and at most 2^30");
+    }
+
+    this.threadFactory = threadFactory;
+    this.tickNanos = unit.toNanos(tickDuration);
+    this.wheel = new Bucket[roundToPowerOfTwo(wheelSize)];
+    this.mask = wheel.length - 1;
+
+    for (int i = 0; i < wheel.length; i++) {
+      wheel[i] = new Bucket();
+    }
+  }
+
+  /**
+   * Schedule a task to be run after the given delay.
+   *
+   * @param task task to run
+   * @param delay delay after which the task should run, delays longer than about 146 years are
+   * treated as 146 years
+   * @param unit unit of the delay
+   * @return a timeout which can be used to cancel the task
+   * @throws IllegalStateException if the timer has been stopped
+   */
+  public Timeout newTimeout(final TimerTask task, final long delay, final TimeUnit unit) {
+    final long delayNanos = Math.min(unit.toNanos(delay), MAX_DELAY_NANOS);
+    final Timeout timeout = new Timeout(this, task, System.nanoTime() + delayNanos);
+    start();
+    pending.add(timeout);
+    return timeout;
+  }
+
+  /**
+   * Stop the timer.
+   *
+   * <p>Any timeouts which have not expired yet will never expire.
+   */
+  public void stop() {
+    if (state.getAndSet(STOPPED) != STARTED) {
+      return;
+    }
+
+    final Thread w = worker;
+
+    if (w != null) {
+      LockSupport.unpark(w);
+    }
+  }
+
+  void start() {
+    switch (state.get()) {
+      case INIT:
+        if (state.compareAndSet(INIT, STARTED)) {
+          final Thread w = threadFactory.newThread(this::work);
+          worker = w;
+          w.start();
+        }
+
+        break;
+      case STOPPED:
+        throw new IllegalStateException("timer is stopped");
+      default:
+        break;
+    }
+  }
+
+  void work() {
+    final long startTime = System.nanoTime();
+    long tick = 0;
+
+    while (state.get() == STARTED) {
+      final long sleep = startTime + tickNanos * (tick + 1) - System.nanoTime();
+
+      if (sleep > 0) {
+        LockSupport.parkNanos(this, sleep);
+        continue;
+      }
+
+      removeCancelled();
+      transferPending(startTime, tick);
+      wheel[(int) (tick & mask)].expire();
+      tick++;
+    }
+  }
+
+  void removeCancelled() {
+    Timeout timeout;
+
+    while ((timeout = cancelled.poll()) != null) {
+      if (timeout.bucket != null) {
+        timeout.bucket.remove(timeout);
+      }
+    }
+  }
+
+  void transferPending(final long startTime, final long tick) {
+    Timeout timeout;
+
+    while ((timeout = pending.poll()) != null) {
+      if (timeout.state != Timeout.WAITING) {
+        continue;
+      }
+
+      /* the tick during which the timeout expires, or the current one if it already has */
+      final long expires = Math.max((timeout.deadline - startTime) / tickNanos, tick);
+      timeout.remainingRounds = (expires - tick) / wheel.length;
+      wheel[(int) (expires & mask)].add(timeout);
+    }
+  }
+
+  static int roundToPowerOfTwo(final int value) {
+    int n = 1;
+
+    while (n < value) {
+      n <<= 1;
+    }
+
+    return n;
+  }
+
+  /**
+   * A task which is run when a timeout expires.
+   */
+  public interface TimerTask {
+    /**
+     * Run the task.
+     *
+     * @param timeout the timeout that expired
+     */
+    void run(Timeout timeout);
+  }
+
+  /**
+   * A scheduled task.
+   */
+  public static class Timeout {
+    static final int WAITING = 0;
+    static final int CANCELLED = 1;
+    static final int EXPIRED = 2;
+
+    private final HashedWheelTimer timer;
+    private final TimerTask task;
+    final long deadline;
+
+    volatile int state = WAITING;
+
+    /* only accessed by the worker thread */
+    long remainingRounds;
+    Bucket bucket;
+    Timeout next;
+    Timeout prev;
+
+    Timeout(final HashedWheelTimer timer, final TimerTask task, final long deadline) {
+      this.timer = timer;
+      this.task = task;
+      this.deadline = deadline;
+    }
+
+    /**
+     * Cancel the timeout, which prevents the task from running.
+     *
+     * @return {@code true} if the timeout was cancelled by this call
+     */
+    public boolean cancel() {
+      if (!TIMEOUT_STATE.compareAndSet(this, WAITING, CANCELLED)) {
+        return false;
+      }
+
+      timer.cancelled.add(this);
+      return true;
+    }
+
+    public boolean isCancelled() {
+      return state == CANCELLED;
+    }
+
+    public boolean isExpired() {
+      return state == EXPIRED;
+    }
+
+    void expire() {
+      if (!TIMEOUT_STATE.compareAndSet(this, WAITING, EXPIRED)) {
+        return;
+      }
+
+      try {
+        task.run(this);
+      } catch (final Throwable e) {
+        final Thread t = Thread.currentThread();
+        t.getUncaughtExceptionHandler().uncaughtException(t, e);
+      }
+    }
+  }
+
+  /**
+   * A slot in the wheel, which is a doubly linked list of timeouts that is only accessed by the
+   * worker thread.
+   */
+  static class Bucket {
+    private Timeout head;
+    private Timeout tail;
+
+    void add(final Timeout timeout) {
+      timeout.bucket = this;
+
+      if (head == null) {
+        head = tail = timeout;
+        return;
+      }
+
+      tail.next = timeout;
+      timeout.prev = tail;
+      tail = timeout;
+    }
+
+    void remove(final Timeout timeout) {
+      final Timeout next = timeout.next;
+
+      if (timeout.prev != null) {
+        timeout.prev.next = next;
+      }
+
+      if (timeout.next != null) {
+        timeout.next.prev = timeout.prev;
+      }
+
+      if (timeout == head) {
+        head = next;
+      }
+
+      if (timeout == tail) {
+        tail = timeout.prev;
+      }
+
+      timeout.prev = null;
+      timeout.next = null;
+      timeout.bucket = null;
+    }
+
+    /**
+     * Expire all timeouts in this bucket that are due in the current round.
+     */
+    void expire() {
+      Timeout timeout = head;
+
+      while (timeout != null) {
+        final Timeout next = timeout.next;
+
+        if (timeout.remainingRounds <= 0) {
+          remove(timeout);
+          timeout.expire();
+        } else {
+          timeout.remainingRounds--;
+        }
+
+        timeout = next;
+      }
+    }
+  }
+}
@@ -2,10 +2,13 @@ package eu.toolchain.concurrent;
 
 import java.text.MessageFormat;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 
@@ -37,6 +40,12 @@ public class ImmediateCancelled<T> extends AbstractImmediate<T> implements Stage
     return this;
   }
 
+  @Override
+  public Subscription subscribe(final Runnable runnable) {
+    caller.execute(runnable);
+    return CALLED;
+  }
+
   @Override
   public Stage<T> whenCancelled(Runnable runnable) {
     caller.execute(runnable);
@@ -98,6 +107,16 @@ public class ImmediateCancelled<T> extends AbstractImmediate<T> implements Stage
     return new ImmediateCancelled<>(caller);
   }
 
+  @Override
+  public LongStage thenApplyAsLong(final ToLongFunction<? super T> fn) {
+    return cancelledLong();
+  }
+
+  @Override
+  public DoubleStage thenApplyAsDouble(final ToDoubleFunction<? super T> fn) {
+    return cancelledDouble();
+  }
+
   @Override
   public <U> Stage<U> thenCompose(
       Function<? super T, ? extends Stage<U>> fn
@@ -105,6 +124,30 @@ public class ImmediateCancelled<T> extends AbstractImmediate<T> implements Stage
     return new ImmediateCancelled<>(caller);
   }
 
+  @Override
+  public <U> Stage<U> thenApplyAsync(
+      final Function<? super T, ? extends U> fn, final Executor executor
+  ) {
+    return new ImmediateCancelled<>(caller);
+  }
+
+  @Override
+  public <U> Stage<U> thenComposeAsync(
+      final Function<? super T, ? extends Stage<U>> fn, final Executor executor
+  ) {
+    return new ImmediateCancelled<>(caller);
+  }
+
+  @Override
+  public Stage<T> orTimeout(final long timeout, final TimeUnit unit) {
+    return this;
+  }
+
+  @Override
+  public Stage<T> completeOnTimeout(final T value, final long timeout, final TimeUnit unit) {
+    return this;
+  }
+
   @Override
   public Stage<T> thenApplyFailed(Function<? super Throwable, ? extends T> fn) {
     return this;
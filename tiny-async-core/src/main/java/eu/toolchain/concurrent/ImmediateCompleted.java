@@ -1,10 +1,13 @@
 package eu.toolchain.concurrent;
 
 import java.text.MessageFormat;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 
@@ -24,6 +27,20 @@ public class ImmediateCompleted<T> extends AbstractImmediate<T> implements Stage
     this.result = result;
   }
 
+  /**
+   * Reuse this stage if a step results in the same value, which is common for chains that
+   * propagate {@code null} or pass values through.
+   */
+  @SuppressWarnings("unchecked")
+  @Override
+  <U> Stage<U> completedStage(final U value) {
+    if (value == result) {
+      return (Stage<U>) this;
+    }
+
+    return super.completedStage(value);
+  }
+
   @Override
   public boolean cancel() {
     return false;
@@ -41,6 +58,12 @@ public class ImmediateCompleted<T> extends AbstractImmediate<T> implements Stage
     return this;
   }
 
+  @Override
+  public Subscription subscribe(final Runnable runnable) {
+    caller.execute(runnable);
+    return CALLED;
+  }
+
   @Override
   public Stage<T> whenCancelled(Runnable runnable) {
     return this;
@@ -102,6 +125,16 @@ public class ImmediateCompleted<T> extends AbstractImmediate<T> implements Stage
     return thenApplyCompleted(fn, result);
   }
 
+  @Override
+  public LongStage thenApplyAsLong(final ToLongFunction<? super T> fn) {
+    return thenApplyAsLongCompleted(fn, result);
+  }
+
+  @Override
+  public DoubleStage thenApplyAsDouble(final ToDoubleFunction<? super T> fn) {
+    return thenApplyAsDoubleCompleted(fn, result);
+  }
+
   @Override
   public <R> Stage<R> thenCompose(
       Function<? super T, ? extends Stage<R>> fn
@@ -109,6 +142,30 @@ public class ImmediateCompleted<T> extends AbstractImmediate<T> implements Stage
     return thenComposeCompleted(fn, result);
   }
 
+  @Override
+  public <U> Stage<U> thenApplyAsync(
+      final Function<? super T, ? extends U> fn, final Executor executor
+  ) {
+    return thenApplyAsyncCompleted(fn, executor, result);
+  }
+
+  @Override
+  public <U> Stage<U> thenComposeAsync(
+      final Function<? super T, ? extends Stage<U>> fn, final Executor executor
+  ) {
+    return thenComposeAsyncCompleted(fn, executor, result);
+  }
+
+  @Override
+  public Stage<T> orTimeout(final long timeout, final TimeUnit unit) {
+    return this;
+  }
+
+  @Override
+  public Stage<T> completeOnTimeout(final T value, final long timeout, final TimeUnit unit) {
+    return this;
+  }
+
   @Override
   public Stage<T> thenApplyFailed(Function<? super Throwable, ? extends T> fn) {
     return this;
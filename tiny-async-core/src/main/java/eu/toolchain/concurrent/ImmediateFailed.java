@@ -2,10 +2,13 @@ package eu.toolchain.concurrent;
 
 import java.text.MessageFormat;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 
@@ -42,6 +45,12 @@ public class ImmediateFailed<T> extends AbstractImmediate<T> implements Stage<T>
     return this;
   }
 
+  @Override
+  public Subscription subscribe(final Runnable runnable) {
+    caller.execute(runnable);
+    return CALLED;
+  }
+
   @Override
   public Stage<T> whenCancelled(Runnable runnable) {
     return this;
@@ -104,6 +113,16 @@ public class ImmediateFailed<T> extends AbstractImmediate<T> implements Stage<T>
     return new ImmediateFailed<>(caller, cause);
   }
 
+  @Override
+  public LongStage thenApplyAsLong(final ToLongFunction<? super T> fn) {
+    return failedLong(cause);
+  }
+
+  @Override
+  public DoubleStage thenApplyAsDouble(final ToDoubleFunction<? super T> fn) {
+    return failedDouble(cause);
+  }
+
   @SuppressWarnings("unchecked")
   @Override
   public <U> Stage<U> thenCompose(
@@ -112,6 +131,30 @@ public class ImmediateFailed<T> extends AbstractImmediate<T> implements Stage<T>
     return new ImmediateFailed<>(caller, cause);
   }
 
+  @Override
+  public <U> Stage<U> thenApplyAsync(
+      final Function<? super T, ? extends U> fn, final Executor executor
+  ) {
+    return new ImmediateFailed<>(caller, cause);
+  }
+
+  @Override
+  public <U> Stage<U> thenComposeAsync(
+      final Function<? super T, ? extends Stage<U>> fn, final Executor executor
+  ) {
+    return new ImmediateFailed<>(caller, cause);
+  }
+
+  @Override
+  public Stage<T> orTimeout(final long timeout, final TimeUnit unit) {
+    return this;
+  }
+
+  @Override
+  public Stage<T> completeOnTimeout(final T value, final long timeout, final TimeUnit unit) {
+    return this;
+  }
+
   @Override
   public Stage<T> thenApplyFailed(Function<? super Throwable, ? extends T> fn) {
     return thenApplyCaughtFailed(fn, cause);
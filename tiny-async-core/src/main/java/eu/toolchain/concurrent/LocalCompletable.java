@@ -0,0 +1,845 @@
+package eu.toolchain.concurrent;
+
+import java.text.MessageFormat;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * A completable which is confined to a single thread.
+ *
+ * <p>All interaction with a local completable, and the stages derived from it, must happen on the
+ * thread that created it, like the thread of an event loop. In exchange, it keeps its state in
+ * plain fields and its listeners in a plain array, avoiding the atomic updates that
+ * {@link ConcurrentCompletable} needs.
+ *
+ * <p>This extends to stages that are composed into it, like those returned by the function given
+ * to {@link #thenCompose(Function)}, which must also be completed on the same thread. Use
+ * {@link #share()} to get a stage that can be used by other threads.
+ *
+ * <p>Since no other thread can complete a local completable, joining one which is not done fails
+ * with an {@link IllegalStateException} instead of blocking forever.
+ *
+ * <p>For the same reason, listeners always run on the thread that completes the completable. They
+ * are only handed to the caller if it is a {@link DirectCaller}, which runs them in place.
+ *
+ * <p>Confinement is only verified if {@link CompletableOptions#isCheckLocalThread()} is enabled.
+ *
+ * @param <T> type of the completable
+ */
+public class LocalCompletable<T> extends AbstractImmediate<T>
+    implements Handle<T>, Completable<T> {
+  static final int PENDING = 0;
+  static final int COMPLETED = 1;
+  static final int FAILED = 2;
+  static final int CANCELLED = 3;
+
+  static final int INITIAL_LISTENERS = 4;
+
+  /**
+   * Listeners which have been deferred by local completables completed on the current thread, see
+   * {@link #postComplete(LocalCompletable, boolean)}.
+   */
+  static final ThreadLocal<ConcurrentCompletable.Trampoline> TRAMPOLINE =
+      ThreadLocal.withInitial(ConcurrentCompletable.Trampoline::new);
+
+  /**
+   * Options for this completable, which are inherited by all derived completables.
+   */
+  final CompletableOptions options;
+  /**
+   * The thread this completable is confined to.
+   */
+  final Thread owner;
+
+  int state = PENDING;
+  /**
+   * The result when completed, or the cause when failed.
+   */
+  Object result;
+  /**
+   * Listeners to run when done, of which the first {@link #size} slots are used. Listeners which
+   * have been unsubscribed are set to {@code null} until the array is compacted, see
+   * {@link #removed()}.
+   */
+  Runnable[] listeners;
+  int size;
+  /**
+   * Number of listeners which have been unsubscribed since the array was last compacted.
+   */
+  int removed;
+  /**
+   * The stage that this completable was derived from, which should be cancelled if this
+   * completable is cancelled.
+   */
+  LocalCompletable<?> upstream;
+  /**
+   * Number of stages derived from this completable, see
+   * {@link CompletableOptions#isRefCountedCancellation()}.
+   */
+  int dependents;
+
+  public LocalCompletable(final Caller caller, final CompletableOptions options) {
+    this(caller, options, null);
+  }
+
+  LocalCompletable(
+      final Caller caller, final CompletableOptions options, final LocalCompletable<?> upstream
+  ) {
+    super(caller);
+    this.options = options;
+    this.owner = Thread.currentThread();
+    this.upstream = upstream;
+
+    if (upstream != null) {
+      upstream.retain();
+    }
+  }
+
+  /**
+   * Build a stage which can be safely used by other threads, and which is completed with the
+   * result of this completable.
+   *
+   * <p>The returned stage is completed on the thread of this completable, and cancelling it does
+   * not cancel this completable.
+   *
+   * @return a stage which can be shared with other threads
+   */
+  public Stage<T> share() {
+    checkThread();
+
+    if (state != PENDING) {
+      return immediate();
+    }
+
+    final ConcurrentCompletable<T> shared = new ConcurrentCompletable<>(caller, options);
+    add(() -> forward(shared));
+    return shared;
+  }
+
+  @Override
+  CompletableOptions options() {
+    return options;
+  }
+
+  @Override
+  public void completed(final T result) {
+    complete(result, true);
+  }
+
+  @Override
+  public void failed(final Throwable cause) {
+    fail(cause, true);
+  }
+
+  @Override
+  public void cancelled() {
+    cancel(true);
+  }
+
+  @Override
+  public boolean complete(final T result) {
+    return complete(result, false);
+  }
+
+  @Override
+  public boolean fail(final Throwable cause) {
+    return fail(cause, false);
+  }
+
+  @Override
+  public boolean cancel() {
+    return cancel(false);
+  }
+
+  boolean complete(final T result, final boolean forwarded) {
+    checkThread();
+
+    if (state != PENDING) {
+      return false;
+    }
+
+    this.state = COMPLETED;
+    this.result = result;
+    final LocalCompletable<?> u = clearUpstream();
+    postComplete(u, forwarded);
+    releaseUpstream(u);
+    return true;
+  }
+
+  boolean fail(final Throwable cause, final boolean forwarded) {
+    if (cause == null) {
+      throw new NullPointerException("cause");
+    }
+
+    checkThread();
+
+    if (state != PENDING) {
+      return false;
+    }
+
+    this.state = FAILED;
+    this.result = cause;
+    final LocalCompletable<?> u = clearUpstream();
+    postComplete(u, forwarded);
+    releaseUpstream(u);
+    return true;
+  }
+
+  boolean cancel(final boolean forwarded) {
+    checkThread();
+
+    if (state != PENDING) {
+      return false;
+    }
+
+    this.state = CANCELLED;
+
+    final LocalCompletable<?> u = clearUpstream();
+    postComplete(u, forwarded);
+
+    if (u != null) {
+      u.release();
+    }
+
+    return true;
+  }
+
+  LocalCompletable<?> clearUpstream() {
+    final LocalCompletable<?> u = upstream;
+    upstream = null;
+    return u;
+  }
+
+  /**
+   * Register that a stage has been derived from this completable.
+   */
+  void retain() {
+    if (options.isRefCountedCancellation()) {
+      dependents++;
+    }
+  }
+
+  /**
+   * Release the stage that this completable was derived from, if it is not done yet.
+   *
+   * <p>See {@link ConcurrentCompletable#releaseUpstream(Object)}.
+   *
+   * @param u the stage that this completable was derived from
+   */
+  void releaseUpstream(final LocalCompletable<?> u) {
+    if (u != null && options.isRefCountedCancellation() && u.state == PENDING) {
+      u.release();
+    }
+  }
+
+  /**
+   * Release a derived stage that has been cancelled.
+   *
+   * <p>Like {@link ConcurrentCompletable#release()}, this cancels this completable unless
+   * reference counted cancellation is enabled and there are other derived stages that have not
+   * been cancelled.
+   */
+  void release() {
+    if (options.isRefCountedCancellation() && --dependents > 0) {
+      return;
+    }
+
+    cancel();
+  }
+
+  @Override
+  public T join() throws ExecutionException {
+    return joinNow();
+  }
+
+  @Override
+  public T join(final long timeout, final TimeUnit unit) throws ExecutionException {
+    return joinNow();
+  }
+
+  @Override
+  public T joinNow() throws ExecutionException {
+    checkThread();
+
+    switch (state) {
+      case COMPLETED:
+        return result();
+      case FAILED:
+        throw executionException((Throwable) result);
+      case CANCELLED:
+        if (options.isStacklessExceptions()) {
+          throw new StacklessCancellationException("stage was cancelled");
+        }
+
+        throw new CancellationException();
+      default:
+        throw new IllegalStateException("result is not available");
+    }
+  }
+
+  @Override
+  ExecutionException executionException(final Throwable cause) {
+    if (options.isStacklessExceptions()) {
+      return new StacklessExecutionException(cause);
+    }
+
+    return super.executionException(cause);
+  }
+
+  @Override
+  public boolean isDone() {
+    checkThread();
+    return state != PENDING;
+  }
+
+  @Override
+  public boolean isCompleted() {
+    checkThread();
+    return state == COMPLETED;
+  }
+
+  @Override
+  public boolean isFailed() {
+    checkThread();
+    return state == FAILED;
+  }
+
+  @Override
+  public boolean isCancelled() {
+    checkThread();
+    return state == CANCELLED;
+  }
+
+  @Override
+  public Throwable cause() {
+    checkThread();
+
+    if (state != FAILED) {
+      throw new IllegalStateException("not in a failed state");
+    }
+
+    return (Throwable) result;
+  }
+
+  @Override
+  public Stage<T> handle(final Handle<? super T> handle) {
+    return whenDone(() -> forward(handle));
+  }
+
+  @Override
+  public Stage<T> whenDone(final Runnable runnable) {
+    checkThread();
+
+    if (state != PENDING) {
+      run(runnable);
+      return this;
+    }
+
+    add(runnable);
+    return this;
+  }
+
+  @Override
+  public Stage<T> whenDone(final Collection<? extends Runnable> runnables) {
+    for (final Runnable runnable : runnables) {
+      whenDone(runnable);
+    }
+
+    return this;
+  }
+
+  @Override
+  public Subscription subscribe(final Runnable runnable) {
+    checkThread();
+
+    if (state != PENDING) {
+      run(runnable);
+      return CALLED;
+    }
+
+    final Subscriber subscriber = new Subscriber(this, runnable);
+    subscriber.index = add(subscriber);
+    return subscriber;
+  }
+
+  @Override
+  public Stage<T> whenComplete(final Consumer<? super T> consumer) {
+    return whenDone(() -> {
+      if (state == COMPLETED) {
+        consumer.accept(result());
+      }
+    });
+  }
+
+  @Override
+  public Stage<T> whenFailed(final Consumer<? super Throwable> consumer) {
+    return whenDone(() -> {
+      if (state == FAILED) {
+        consumer.accept((Throwable) result);
+      }
+    });
+  }
+
+  @Override
+  public Stage<T> whenCancelled(final Runnable runnable) {
+    return whenDone(() -> {
+      if (state == CANCELLED) {
+        runnable.run();
+      }
+    });
+  }
+
+  @Override
+  public <U> Stage<U> thenApply(final Function<? super T, ? extends U> fn) {
+    checkThread();
+
+    if (state != PENDING) {
+      return immediate().thenApply(fn);
+    }
+
+    final LocalCompletable<U> target = new LocalCompletable<>(caller, options, this);
+
+    add(() -> {
+      switch (state) {
+        case COMPLETED:
+          final U value;
+
+          try {
+            value = fn.apply(result());
+          } catch (final Exception e) {
+            target.fail(e);
+            return;
+          }
+
+          target.complete(value);
+          break;
+        case FAILED:
+          target.fail((Throwable) result);
+          break;
+        default:
+          target.cancel();
+          break;
+      }
+    });
+
+    return target;
+  }
+
+  @Override
+  public <U> Stage<U> thenCompose(final Function<? super T, ? extends Stage<U>> fn) {
+    checkThread();
+
+    if (state != PENDING) {
+      return immediate().thenCompose(fn);
+    }
+
+    final LocalCompletable<U> target = new LocalCompletable<>(caller, options, this);
+
+    add(() -> {
+      switch (state) {
+        case COMPLETED:
+          final Stage<U> next;
+
+          try {
+            next = fn.apply(result());
+          } catch (final Exception e) {
+            target.fail(e);
+            return;
+          }
+
+          next.handle(target);
+          target.whenCancelled(next::cancel);
+          break;
+        case FAILED:
+          target.fail((Throwable) result);
+          break;
+        default:
+          target.cancel();
+          break;
+      }
+    });
+
+    return target;
+  }
+
+  @Override
+  public Stage<T> thenApplyFailed(final Function<? super Throwable, ? extends T> fn) {
+    return derive(s -> s.thenApplyFailed(fn));
+  }
+
+  @Override
+  public Stage<T> thenComposeCaught(final Function<? super Throwable, ? extends Stage<T>> fn) {
+    return derive(s -> s.thenComposeCaught(fn));
+  }
+
+  @Override
+  public <U> Stage<U> thenFail(final Throwable cause) {
+    return derive(s -> s.thenFail(cause));
+  }
+
+  @Override
+  public <U> Stage<U> thenCancel() {
+    return derive(Stage::thenCancel);
+  }
+
+  @Override
+  public <U> Stage<U> thenComplete(final U result) {
+    return derive(s -> s.thenComplete(result));
+  }
+
+  @Override
+  public Stage<T> withCloser(
+      final Supplier<? extends Stage<Void>> complete,
+      final Supplier<? extends Stage<Void>> notComplete
+  ) {
+    return derive(s -> s.withCloser(complete, notComplete));
+  }
+
+  @Override
+  public Stage<T> withComplete(final Supplier<? extends Stage<Void>> supplier) {
+    return derive(s -> s.withComplete(supplier));
+  }
+
+  @Override
+  public Stage<T> withNotComplete(final Supplier<? extends Stage<Void>> supplier) {
+    return derive(s -> s.withNotComplete(supplier));
+  }
+
+  /* the following are completed by other threads, so they derive from a shared stage */
+
+  @Override
+  public LongStage thenApplyAsLong(final ToLongFunction<? super T> fn) {
+    return share().thenApplyAsLong(fn);
+  }
+
+  @Override
+  public DoubleStage thenApplyAsDouble(final ToDoubleFunction<? super T> fn) {
+    return share().thenApplyAsDouble(fn);
+  }
+
+  @Override
+  public <U> Stage<U> thenApplyAsync(
+      final Function<? super T, ? extends U> fn, final Executor executor
+  ) {
+    return share().thenApplyAsync(fn, executor);
+  }
+
+  @Override
+  public <U> Stage<U> thenComposeAsync(
+      final Function<? super T, ? extends Stage<U>> fn, final Executor executor
+  ) {
+    return share().thenComposeAsync(fn, executor);
+  }
+
+  @Override
+  public Stage<T> orTimeout(final long timeout, final TimeUnit unit) {
+    return share().orTimeout(timeout, unit);
+  }
+
+  @Override
+  public Stage<T> completeOnTimeout(final T value, final long timeout, final TimeUnit unit) {
+    return share().completeOnTimeout(value, timeout, unit);
+  }
+
+  /**
+   * Derive a stage by applying the given operation to an immediate stage with the result of this
+   * completable, once it is done.
+   *
+   * @param operation operation to apply
+   * @param <U> type of the derived stage
+   * @return the derived stage
+   */
+  <U> Stage<U> derive(final Function<Stage<T>, Stage<U>> operation) {
+    checkThread();
+
+    if (state != PENDING) {
+      return operation.apply(immediate());
+    }
+
+    final LocalCompletable<U> target = new LocalCompletable<>(caller, options, this);
+
+    add(() -> {
+      final Stage<U> next = operation.apply(immediate());
+      next.handle(target);
+      target.whenCancelled(next::cancel);
+    });
+
+    return target;
+  }
+
+  /**
+   * Build an immediate stage with the result of this completable, which must be done.
+   */
+  Stage<T> immediate() {
+    switch (state) {
+      case COMPLETED:
+        return new ImmediateCompleted<>(caller, result());
+      case FAILED:
+        return new ImmediateFailed<>(caller, (Throwable) result);
+      default:
+        return new ImmediateCancelled<>(caller);
+    }
+  }
+
+  /**
+   * Forward the result of this completable, which must be done, to the given handle.
+   */
+  void forward(final Handle<? super T> handle) {
+    switch (state) {
+      case COMPLETED:
+        handle.completed(result());
+        break;
+      case FAILED:
+        handle.failed((Throwable) result);
+        break;
+      default:
+        handle.cancelled();
+        break;
+    }
+  }
+
+  /**
+   * Add a listener to run when this completable is done.
+   *
+   * @return the index of the listener, used to unsubscribe it
+   */
+  int add(final Runnable runnable) {
+    if (listeners == null) {
+      listeners = new Runnable[INITIAL_LISTENERS];
+    } else if (size == listeners.length) {
+      listeners = Arrays.copyOf(listeners, size * 2);
+    }
+
+    listeners[size] = runnable;
+    return size++;
+  }
+
+  /**
+   * Mark a listener as unsubscribed, and compact the listeners once at least half of them have
+   * been unsubscribed.
+   */
+  void removed() {
+    if (listeners == null || ++removed * 2 < size) {
+      return;
+    }
+
+    int j = 0;
+
+    for (int i = 0; i < size; i++) {
+      final Runnable runnable = listeners[i];
+
+      if (runnable == null) {
+        continue;
+      }
+
+      if (runnable instanceof Subscriber) {
+        ((Subscriber) runnable).index = j;
+      }
+
+      listeners[j++] = runnable;
+    }
+
+    Arrays.fill(listeners, j, size, null);
+    size = j;
+    removed = 0;
+  }
+
+  /**
+   * Run all listeners on the current thread, in the order they were added.
+   *
+   * <p>Like {@link ConcurrentCompletable#postComplete(Object, boolean)}, listeners of completables
+   * that are derived from the completable whose listeners are running, or that are completed
+   * through {@link Handle}, are deferred to the outermost call. This keeps the stack depth
+   * constant for long chains. Any other completion from within a listener runs its listeners
+   * before returning.
+   *
+   * @param upstream the stage that this completable was derived from
+   * @param forwarded if the result was forwarded through {@link Handle}
+   */
+  void postComplete(final LocalCompletable<?> upstream, final boolean forwarded) {
+    final Runnable[] listeners = this.listeners;
+
+    if (listeners == null) {
+      return;
+    }
+
+    this.listeners = null;
+    this.size = 0;
+    this.removed = 0;
+
+    final ConcurrentCompletable.Trampoline trampoline = TRAMPOLINE.get();
+    final Object current = trampoline.current;
+
+    if (current == null) {
+      try {
+        runAllListeners(trampoline, listeners);
+      } finally {
+        trampoline.current = null;
+        trampoline.deferred.clear();
+      }
+
+      return;
+    }
+
+    if (forwarded || upstream == current) {
+      trampoline.deferred.add(this);
+      trampoline.deferred.add(listeners);
+      return;
+    }
+
+    /* completed explicitly from within a listener, so run with a separate queue of deferred
+     * listeners which is drained before returning */
+    final ArrayDeque<Object> deferred = trampoline.deferred;
+    trampoline.deferred = new ArrayDeque<>();
+
+    try {
+      runAllListeners(trampoline, listeners);
+    } finally {
+      trampoline.current = current;
+      trampoline.deferred = deferred;
+    }
+  }
+
+  /**
+   * Run the given listeners of this completable, followed by all listeners that they defer.
+   */
+  void runAllListeners(
+      final ConcurrentCompletable.Trampoline trampoline, final Runnable[] listeners
+  ) {
+    trampoline.current = this;
+    runListeners(listeners);
+
+    LocalCompletable<?> next;
+
+    while ((next = (LocalCompletable<?>) trampoline.deferred.poll()) != null) {
+      trampoline.current = next;
+      next.runListeners((Runnable[]) trampoline.deferred.poll());
+    }
+  }
+
+  void runListeners(final Runnable[] listeners) {
+    /* slots after the used ones are null */
+    for (final Runnable listener : listeners) {
+      if (listener != null) {
+        run(listener);
+      }
+    }
+  }
+
+  /**
+   * Run a listener on the current thread.
+   *
+   * <p>Handing it to a caller that runs it on another thread would break confinement, so only a
+   * {@link DirectCaller} is used. Otherwise errors are reported to the uncaught exception handler
+   * of the current thread.
+   */
+  void run(final Runnable runnable) {
+    if (caller instanceof DirectCaller) {
+      caller.execute(runnable);
+      return;
+    }
+
+    try {
+      runnable.run();
+    } catch (final Exception e) {
+      final Thread t = Thread.currentThread();
+      t.getUncaughtExceptionHandler().uncaughtException(t, e);
+    }
+  }
+
+  /**
+   * Verify that the current thread is the thread this completable is confined to, if enabled.
+   */
+  void checkThread() {
+    if (!options.isCheckLocalThread()) {
+      return;
+    }
+
+    final Thread current = Thread.currentThread();
+
+    if (current != owner) {
+      throw new IllegalStateException(
+          "completable is confined to thread " + owner.getName() + ", but was accessed from "
+              + current.getName() + ", use share() to access it from other threads");
+    }
+  }
+
+  /**
+   * A listener which can be removed through {@link Subscription#unsubscribe()}.
+   */
+  static class Subscriber implements Runnable, Subscription {
+    private final LocalCompletable<?> completable;
+    /**
+     * Runnable to run, is set to {@code null} when either run or removed.
+     */
+    private Runnable runnable;
+    /**
+     * Index of this listener, which is updated when the listeners are compacted.
+     */
+    int index;
+
+    Subscriber(final LocalCompletable<?> completable, final Runnable runnable) {
+      this.completable = completable;
+      this.runnable = runnable;
+    }
+
+    @Override
+    public void run() {
+      final Runnable r = runnable;
+
+      if (r != null) {
+        runnable = null;
+        r.run();
+      }
+    }
+
+    @Override
+    public boolean unsubscribe() {
+      completable.checkThread();
+
+      if (runnable == null) {
+        return false;
+      }
+
+      runnable = null;
+
+      if (completable.listeners != null) {
+        completable.listeners[index] = null;
+        completable.removed();
+      }
+
+      return true;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  T result() {
+    return (T) result;
+  }
+
+  @Override
+  public String toString() {
+    final String name = getClass().getSimpleName();
+
+    switch (state) {
+      case COMPLETED:
+        return MessageFormat.format("{0}({1}: result={2})", name, Stage.COMPLETED, result);
+      case FAILED:
+        return MessageFormat.format("{0}({1}: cause={2})", name, Stage.FAILED, result);
+      case CANCELLED:
+        return MessageFormat.format("{0}({1})", name, Stage.CANCELLED);
+      default:
+        return MessageFormat.format("{0}({1})", name, Stage.PENDING);
+    }
+  }
+}
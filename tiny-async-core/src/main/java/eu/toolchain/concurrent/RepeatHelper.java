@@ -0,0 +1,111 @@
+package eu.toolchain.concurrent;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Helper for {@link CoreAsync#repeatEvery(Supplier, long, TimeUnit)}.
+ *
+ * <p>The next run is only scheduled once the stage of the previous run is done, which guarantees
+ * that runs never overlap.
+ */
+class RepeatHelper implements HashedWheelTimer.TimerTask {
+  private final HashedWheelTimer timer;
+  private final Executor executor;
+  private final Supplier<? extends Stage<?>> action;
+  private final long periodNanos;
+  private final Completable<Void> target;
+
+  /**
+   * The timeout of the next run, if one is scheduled.
+   */
+  private volatile HashedWheelTimer.Timeout timeout;
+  /**
+   * The stage of the current run, if one is running.
+   */
+  private volatile Stage<?> running;
+
+  RepeatHelper(
+    final HashedWheelTimer timer, final Executor executor, final Supplier<? extends Stage<?>> action,
+    final long periodNanos, final Completable<Void> target
+  ) {
+    this.timer = timer;
+    this.executor = executor;
+    this.action = action;
+    this.periodNanos = periodNanos;
+    this.target = target;
+  }
+
+  void start() {
+    target.whenCancelled(this::stop);
+    schedule(periodNanos);
+  }
+
+  /**
+   * Stop the repetition, by cancelling any scheduled or running run.
+   */
+  void stop() {
+    final HashedWheelTimer.Timeout t = timeout;
+
+    if (t != null) {
+      t.cancel();
+    }
+
+    final Stage<?> r = running;
+
+    if (r != null) {
+      r.cancel();
+    }
+  }
+
+  void schedule(final long delayNanos) {
+    if (target.isDone()) {
+      return;
+    }
+
+    timeout = timer.newTimeout(this, delayNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Hand the run off to the executor, so that the action does not run on the thread of the timer.
+   */
+  @Override
+  public void run(final HashedWheelTimer.Timeout timeout) {
+    executor.execute(this::runAction);
+  }
+
+  void runAction() {
+    if (target.isDone()) {
+      return;
+    }
+
+    final long start = System.nanoTime();
+    final Stage<?> stage;
+
+    try {
+      stage = action.get();
+    } catch (final Exception e) {
+      target.fail(e);
+      return;
+    }
+
+    running = stage;
+
+    stage.whenDone(() -> {
+      running = null;
+
+      if (stage.isFailed()) {
+        target.fail(stage.cause());
+        return;
+      }
+
+      if (stage.isCancelled()) {
+        target.cancel();
+        return;
+      }
+
+      schedule(Math.max(start + periodNanos - System.nanoTime(), 0L));
+    });
+  }
+}
@@ -7,6 +7,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongFunction;
 import java.util.function.Supplier;
 
 /**
@@ -19,7 +20,10 @@ import java.util.function.Supplier;
  */
 public class RetryCallHelper<T> implements Handle<T> {
   private final long start;
-  private final ScheduledExecutorService scheduler;
+  /**
+   * Builds a stage which completes after the given number of milliseconds.
+   */
+  private final LongFunction<? extends Stage<?>> delay;
   private final Callable<? extends Stage<? extends T>> action;
   private final Supplier<RetryDecision> policyInstance;
   private final Completable<T> future;
@@ -30,16 +34,33 @@ public class RetryCallHelper<T> implements Handle<T> {
    * one thread at a time accesses it
    */
   private final ArrayList<RetryException> errors = new ArrayList<>();
-  private final AtomicReference<ScheduledFuture<?>> nextCall = new AtomicReference<>();
+  private final AtomicReference<Stage<?>> nextCall = new AtomicReference<>();
 
+  /**
+   * Setup a helper which waits out the backoff on the given scheduler.
+   *
+   * <p>The retry continues on the scheduler thread once the backoff has elapsed.
+   */
   public RetryCallHelper(
       final long start, final ScheduledExecutorService scheduler,
       final Callable<? extends Stage<? extends T>> callable,
       final Supplier<RetryDecision> policyInstance, final Completable<T> future,
       final ClockSource clockSource
+  ) {
+    this(start,
+        backoff -> scheduledDelay(scheduler,
+            new ConcurrentCompletable<>(new PrintStreamCaller(System.err)), backoff),
+        callable, policyInstance, future, clockSource);
+  }
+
+  public RetryCallHelper(
+      final long start, final LongFunction<? extends Stage<?>> delay,
+      final Callable<? extends Stage<? extends T>> callable,
+      final Supplier<RetryDecision> policyInstance, final Completable<T> future,
+      final ClockSource clockSource
   ) {
     this.start = start;
-    this.scheduler = scheduler;
+    this.delay = delay;
     this.action = callable;
     this.policyInstance = policyInstance;
     this.future = future;
@@ -68,10 +89,13 @@ public class RetryCallHelper<T> implements Handle<T> {
     if (decision.backoff() <= 0) {
       next();
     } else {
-      nextCall.set(scheduler.schedule(() -> {
+      final Stage<?> backoff = delay.apply(decision.backoff());
+      nextCall.set(backoff);
+
+      backoff.whenComplete(v -> {
         nextCall.set(null);
         next();
-      }, decision.backoff(), TimeUnit.MILLISECONDS));
+      });
     }
   }
 
@@ -114,15 +138,33 @@ public class RetryCallHelper<T> implements Handle<T> {
     result.handle(this);
   }
 
+  /**
+   * Complete the given target after a backoff on a scheduler.
+   *
+   * @param scheduler scheduler to wait on
+   * @param target target to complete
+   * @param backoff backoff in milliseconds
+   * @return the target
+   */
+  static Stage<Void> scheduledDelay(
+      final ScheduledExecutorService scheduler, final Completable<Void> target,
+      final long backoff
+  ) {
+    final ScheduledFuture<?> scheduled =
+        scheduler.schedule(() -> target.complete(null), backoff, TimeUnit.MILLISECONDS);
+    target.whenCancelled(() -> scheduled.cancel(true));
+    return target;
+  }
+
   /**
    * Must be called when the target completable finishes to clean up any potential scheduled _future_
    * events.
    */
   public void finished() {
-    final ScheduledFuture<?> scheduled = nextCall.getAndSet(null);
+    final Stage<?> scheduled = nextCall.getAndSet(null);
 
     if (scheduled != null) {
-      scheduled.cancel(true);
+      scheduled.cancel();
     }
   }
 }
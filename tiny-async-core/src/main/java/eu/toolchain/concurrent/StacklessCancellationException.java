@@ -0,0 +1,20 @@
+package eu.toolchain.concurrent;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * A cancellation which does not capture a stack trace.
+ *
+ * <p>Cancellation is an expected outcome, so the stack trace is not worth its cost when stackless
+ * exceptions are enabled, see {@link CompletableOptions.Builder#stacklessExceptions(boolean)}.
+ */
+class StacklessCancellationException extends CancellationException {
+  StacklessCancellationException(final String message) {
+    super(message);
+  }
+
+  @Override
+  public synchronized Throwable fillInStackTrace() {
+    return this;
+  }
+}
@@ -0,0 +1,19 @@
+package eu.toolchain.concurrent;
+
+import java.util.concurrent.ExecutionException;
+
+/**
+ * An execution exception which does not capture a stack trace.
+ *
+ * <p>This only wraps the cause, which carries the stack trace that is of interest.
+ */
+class StacklessExecutionException extends ExecutionException {
+  StacklessExecutionException(final Throwable cause) {
+    super(cause);
+  }
+
+  @Override
+  public synchronized Throwable fillInStackTrace() {
+    return this;
+  }
+}
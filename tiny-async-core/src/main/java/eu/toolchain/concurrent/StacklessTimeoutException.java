@@ -0,0 +1,20 @@
+package eu.toolchain.concurrent;
+
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A timeout which does not capture a stack trace.
+ *
+ * <p>Timeouts are raised on behalf of the timer, so the stack trace would not say anything about
+ * where the stage that timed out came from. Not capturing it makes timing out cheap.
+ */
+class StacklessTimeoutException extends TimeoutException {
+  StacklessTimeoutException(final String message) {
+    super(message);
+  }
+
+  @Override
+  public synchronized Throwable fillInStackTrace() {
+    return this;
+  }
+}
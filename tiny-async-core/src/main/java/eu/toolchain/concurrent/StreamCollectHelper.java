@@ -1,36 +1,66 @@
 package eu.toolchain.concurrent;
 
-import java.util.Iterator;
+import static eu.toolchain.concurrent.CoreAsync.buildCollectedException;
+
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 /**
  * Stream collect helper.
  *
+ * <p>In serialized mode, results are queued and handed to the consumer by one thread at a time.
+ * Whichever thread queues a result while no other thread is draining the queue becomes the drainer,
+ * and keeps draining until the queue is empty. This gives the consumer single-threaded semantics
+ * without locking.
+ *
  * @param <S> the source type being collected
  * @param <T> The type the source type is being collected and transformed into
  * @author udoprog
  */
 class StreamCollectHelper<S, T> implements Handle<S> {
+  static final AtomicIntegerFieldUpdater<StreamCollectHelper> WIP =
+      AtomicIntegerFieldUpdater.newUpdater(StreamCollectHelper.class, "wip");
+
+  /**
+   * Stands in for {@code null} results in the queue.
+   */
+  static final Object NULL = new Object();
+
   private final Caller caller;
   private final Consumer<S> consumer;
   private final Supplier<T> supplier;
   private final Completable<? super T> target;
 
-  private final AtomicInteger countdown;
-  private final AtomicInteger successful;
-  private final AtomicInteger failed;
-  private final AtomicInteger cancelled;
+  private final StripedCountdown countdown;
 
   private volatile boolean cancel;
 
   private final ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
 
+  /**
+   * Queue of results which have not been consumed, only used in serialized mode.
+   */
+  private final ConcurrentLinkedQueue<Object> results;
+  private final Runnable drain;
+
+  /**
+   * Number of results queued since the drainer last checked the queue. The thread that increments
+   * this from zero is responsible for draining.
+   */
+  volatile int wip;
+
   StreamCollectHelper(
       final Caller caller, final int size, final Consumer<S> consumer, final Supplier<T> supplier,
       final Completable<? super T> target
+  ) {
+    this(caller, size, consumer, supplier, target, false);
+  }
+
+  StreamCollectHelper(
+      final Caller caller, final int size, final Consumer<S> consumer, final Supplier<T> supplier,
+      final Completable<? super T> target, final boolean serialized
   ) {
     if (size <= 0) {
       throw new IllegalArgumentException("size");
@@ -41,49 +71,98 @@ class StreamCollectHelper<S, T> implements Handle<S> {
     this.supplier = supplier;
     this.target = target;
 
-    this.countdown = new AtomicInteger(size);
-    this.successful = new AtomicInteger();
-    this.failed = new AtomicInteger();
-    this.cancelled = new AtomicInteger();
+    this.countdown = new StripedCountdown(size);
+
+    this.results = serialized ? new ConcurrentLinkedQueue<>() : null;
+    this.drain = serialized ? this::drain : null;
   }
 
   @Override
   public void failed(Throwable e) {
-    failed.incrementAndGet();
     errors.add(e);
     check();
   }
 
   @Override
   public void completed(S result) {
-    successful.incrementAndGet();
+    if (results != null) {
+      results.add(result == null ? NULL : result);
+
+      if (WIP.getAndIncrement(this) == 0) {
+        caller.execute(drain);
+      }
+
+      return;
+    }
+
     caller.execute(() -> consumer.accept(result));
     check();
   }
 
   @Override
   public void cancelled() {
-    cancelled.incrementAndGet();
     cancel = true;
     check();
   }
 
+  /**
+   * Drain queued results into the consumer.
+   *
+   * <p>Results are counted as checked in once they have been consumed, so the supplier is not
+   * called until the consumer has seen all of them.
+   *
+   * <p>If an error escapes the consumer, this drainer gives up its claim on the queue before the
+   * error propagates, and hands any remaining results to a new drainer. Otherwise no other thread
+   * would ever drain the queue again.
+   */
+  @SuppressWarnings("unchecked")
+  void drain() {
+    int missed = 1;
+
+    try {
+      while (true) {
+        Object result;
+
+        while ((result = results.poll()) != null) {
+          try {
+            consumer.accept(result == NULL ? null : (S) result);
+          } catch (final RuntimeException e) {
+            // report through the caller, like a consumer which is not serialized.
+            caller.execute(() -> {
+              throw e;
+            });
+          } finally {
+            check();
+          }
+        }
+
+        missed = WIP.addAndGet(this, -missed);
+
+        if (missed == 0) {
+          return;
+        }
+      }
+    } finally {
+      if (missed != 0) {
+        WIP.set(this, 0);
+
+        /* results queued before the reset found a drainer active, and are picked up here */
+        if (!results.isEmpty() && WIP.getAndIncrement(this) == 0) {
+          caller.execute(drain);
+        }
+      }
+    }
+  }
+
   private void check() {
-    if (countdown.decrementAndGet() == 0) {
+    if (countdown.countDown()) {
       if (cancel) {
         target.cancel();
         return;
       }
 
       if (errors.size() > 0) {
-        final Iterator<Throwable> it = errors.iterator();
-        final Throwable first = it.next();
-
-        while (it.hasNext()) {
-          first.addSuppressed(it.next());
-        }
-
-        target.fail(first);
+        target.fail(buildCollectedException(errors));
         return;
       }
 
@@ -0,0 +1,96 @@
+package eu.toolchain.concurrent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A countdown which spreads contention over multiple counters.
+ *
+ * <p>The count is divided up over a number of stripes, each on a cache line of its own. A thread
+ * counts down by taking a unit from the stripe picked by its identity, or any other stripe if that
+ * one is exhausted. The stripes are counted down in turn, so that only the thread that takes the
+ * very last unit sees the countdown reach zero.
+ *
+ * <p>Large collects which are completed by many threads would otherwise have every completion
+ * contend on a single counter.
+ */
+class StripedCountdown {
+  private static final int NCPU = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * Max number of stripes. Striping is pointless on a single processor.
+   */
+  static final int MAX_STRIPES = NCPU > 1 ? Math.min(Integer.highestOneBit(NCPU - 1) << 1, 64) : 1;
+
+  /**
+   * Number of units a stripe should at least have before another stripe is added.
+   */
+  static final int MIN_STRIPE_SIZE = 256;
+
+  /**
+   * Number of ints that fit in a cache line, to keep stripes from sharing one.
+   */
+  static final int PAD = 16;
+
+  private final AtomicIntegerArray counts;
+  private final AtomicInteger remaining;
+  private final int stripes;
+  private final int stride;
+
+  StripedCountdown(final int count) {
+    this(count, MAX_STRIPES);
+  }
+
+  StripedCountdown(final int count, final int maxStripes) {
+    if (count <= 0) {
+      throw new IllegalArgumentException("count: must be positive");
+    }
+
+    final int wanted = Math.max(1, Integer.highestOneBit(count / MIN_STRIPE_SIZE));
+
+    this.stripes = Math.max(1, Math.min(wanted, maxStripes));
+    this.stride = stripes > 1 ? PAD : 1;
+    this.counts = new AtomicIntegerArray(stripes * stride);
+    this.remaining = new AtomicInteger(stripes);
+
+    final int share = count / stripes;
+    final int rest = count % stripes;
+
+    for (int i = 0; i < stripes; i++) {
+      counts.set(i * stride, share + (i < rest ? 1 : 0));
+    }
+  }
+
+  int stripes() {
+    return stripes;
+  }
+
+  /**
+   * Count down by one.
+   *
+   * @return {@code true} if this counted down to zero
+   * @throws IllegalStateException if the countdown has already reached zero
+   */
+  boolean countDown() {
+    final int start = stripes > 1 ? probe() : 0;
+
+    for (int i = 0; i < stripes; i++) {
+      final int index = ((start + i) & (stripes - 1)) * stride;
+
+      int c;
+
+      while ((c = counts.get(index)) > 0) {
+        if (counts.compareAndSet(index, c, c - 1)) {
+          return c == 1 && remaining.decrementAndGet() == 0;
+        }
+      }
+    }
+
+    throw new IllegalStateException("already finished (countdown)");
+  }
+
+  private static int probe() {
+    final long id = Thread.currentThread().getId();
+    return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32);
+  }
+}
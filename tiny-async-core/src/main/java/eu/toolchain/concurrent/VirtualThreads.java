@@ -0,0 +1,53 @@
+package eu.toolchain.concurrent;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Access to virtual threads, which are only available on Java 21 and later.
+ *
+ * <p>The project targets Java 8, so the executor is looked up reflectively instead of being linked
+ * against directly.
+ */
+final class VirtualThreads {
+  private static final Optional<Method> NEW_EXECUTOR = lookup();
+
+  private VirtualThreads() {
+  }
+
+  /**
+   * Check if virtual threads are available on the current runtime.
+   *
+   * @return {@code true} if virtual threads are available
+   */
+  static boolean isAvailable() {
+    return NEW_EXECUTOR.isPresent();
+  }
+
+  /**
+   * Build an executor which starts a new virtual thread for each task.
+   *
+   * @return a new executor
+   * @throws IllegalStateException if virtual threads are not available on the current runtime
+   */
+  static ExecutorService newExecutor() {
+    final Method method = NEW_EXECUTOR.orElseThrow(
+        () -> new IllegalStateException("virtual threads require Java 21 or later"));
+
+    try {
+      return (ExecutorService) method.invoke(null);
+    } catch (final ReflectiveOperationException e) {
+      throw new IllegalStateException("failed to create virtual thread executor", e);
+    }
+  }
+
+  private static Optional<Method> lookup() {
+    try {
+      return Optional.of(Executors.class.getMethod("newVirtualThreadPerTaskExecutor"));
+    } catch (final NoSuchMethodException e) {
+      return Optional.empty();
+    }
+  }
+}
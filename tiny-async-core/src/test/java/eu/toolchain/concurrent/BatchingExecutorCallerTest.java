@@ -0,0 +1,173 @@
+package eu.toolchain.concurrent;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BatchingExecutorCallerTest {
+  @Rule
+  public ExpectedException except = ExpectedException.none();
+
+  private final Object result = new Object();
+  private final StackTraceElement[] stack = new StackTraceElement[0];
+
+  @Mock
+  private ExecutorService executor;
+  @Mock
+  private Caller caller;
+  @Mock
+  private Runnable a;
+  @Mock
+  private Runnable b;
+  @Mock
+  private Runnable c;
+
+  private BatchingExecutorCaller underTest;
+
+  @Before
+  public void setup() {
+    underTest = new BatchingExecutorCaller(executor, caller, 2);
+  }
+
+  @Test
+  public void testInvalidMaxBatch() {
+    except.expect(IllegalArgumentException.class);
+    except.expectMessage("maxBatch");
+    new BatchingExecutorCaller(executor, caller, 0);
+  }
+
+  @Test
+  public void testExecuteSchedulesOnce() {
+    underTest.execute(a);
+    underTest.execute(b);
+
+    verify(executor, times(1)).execute(any(Runnable.class));
+    verify(a, never()).run();
+    verify(b, never()).run();
+  }
+
+  @Test
+  public void testDrain() {
+    final ArgumentCaptor<Runnable> drain = ArgumentCaptor.forClass(Runnable.class);
+
+    underTest.execute(a);
+    underTest.execute(b);
+
+    verify(executor).execute(drain.capture());
+    drain.getValue().run();
+
+    final InOrder order = inOrder(a, b);
+    order.verify(a).run();
+    order.verify(b).run();
+
+    /* queue is empty, so no new drain is scheduled until the next runnable */
+    verify(executor, times(1)).execute(any(Runnable.class));
+    underTest.execute(c);
+    verify(executor, times(2)).execute(any(Runnable.class));
+  }
+
+  @Test
+  public void testExecuteAll() {
+    final ArgumentCaptor<Runnable> drain = ArgumentCaptor.forClass(Runnable.class);
+
+    underTest.executeAll(Arrays.asList(a, b));
+
+    verify(executor).execute(drain.capture());
+    drain.getValue().run();
+
+    final InOrder order = inOrder(a, b);
+    order.verify(a).run();
+    order.verify(b).run();
+  }
+
+  @Test
+  public void testDrainBatchLimit() {
+    final ArgumentCaptor<Runnable> drain = ArgumentCaptor.forClass(Runnable.class);
+
+    underTest.execute(a);
+    underTest.execute(b);
+    underTest.execute(c);
+
+    verify(executor).execute(drain.capture());
+    drain.getValue().run();
+
+    verify(a).run();
+    verify(b).run();
+    verify(c, never()).run();
+
+    verify(executor, times(2)).execute(drain.capture());
+    drain.getValue().run();
+    verify(c).run();
+  }
+
+  @Test
+  public void testDrainThrowingRunnable() {
+    final ArgumentCaptor<Runnable> drain = ArgumentCaptor.forClass(Runnable.class);
+    final Thread.UncaughtExceptionHandler handler = mock(Thread.UncaughtExceptionHandler.class);
+    final RuntimeException e = new RuntimeException();
+    final Thread t = Thread.currentThread();
+    final Thread.UncaughtExceptionHandler original = t.getUncaughtExceptionHandler();
+
+    doThrow(e).when(a).run();
+
+    underTest.execute(a);
+    underTest.execute(b);
+
+    verify(executor).execute(drain.capture());
+
+    t.setUncaughtExceptionHandler(handler);
+
+    try {
+      drain.getValue().run();
+    } finally {
+      t.setUncaughtExceptionHandler(original);
+    }
+
+    verify(handler).uncaughtException(t, e);
+    verify(b).run();
+  }
+
+  @Test
+  public void testRejected() {
+    final RejectedExecutionException e = new RejectedExecutionException();
+    doThrow(e).doNothing().when(executor).execute(any(Runnable.class));
+
+    try {
+      underTest.execute(a);
+    } catch (final RejectedExecutionException ignored) {
+    }
+
+    /* a later runnable schedules a new drain */
+    underTest.execute(b);
+    verify(executor, times(2)).execute(any(Runnable.class));
+  }
+
+  @Test
+  public void testLeakedManagedReference() {
+    final ArgumentCaptor<Runnable> drain = ArgumentCaptor.forClass(Runnable.class);
+
+    underTest.referenceLeaked(result, stack);
+
+    verify(executor).execute(drain.capture());
+    drain.getValue().run();
+    verify(caller).referenceLeaked(result, stack);
+  }
+}
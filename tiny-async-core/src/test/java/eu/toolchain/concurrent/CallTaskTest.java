@@ -0,0 +1,170 @@
+package eu.toolchain.concurrent;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CallTaskTest {
+  private static final Object result = new Object();
+  private static final Exception cause = new Exception();
+
+  @Mock
+  private Caller caller;
+  @Mock
+  private Callable<Object> callable;
+
+  @Test
+  public void testRun() throws Exception {
+    final CallTask<Object> task = new CallTask<>(caller, CompletableOptions.newDefault(), callable);
+
+    when(callable.call()).thenReturn(result);
+
+    task.run();
+    assertSame(result, task.joinNow());
+  }
+
+  @Test
+  public void testRunThrows() throws Exception {
+    final CallTask<Object> task = new CallTask<>(caller, CompletableOptions.newDefault(), callable);
+
+    when(callable.call()).thenThrow(cause);
+
+    task.run();
+    assertSame(cause, task.cause());
+  }
+
+  @Test
+  public void testRunCancelled() throws Exception {
+    final CallTask<Object> task = new CallTask<>(caller, CompletableOptions.newDefault(), callable);
+
+    assertTrue(task.cancel());
+    task.run();
+
+    verify(callable, never()).call();
+    assertTrue(task.isCancelled());
+  }
+
+  @Test
+  public void testCancelDoesNotInterrupt() throws Exception {
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch cancelled = new CountDownLatch(1);
+    final AtomicBoolean interrupted = new AtomicBoolean(true);
+
+    final CallTask<Object> task = new CallTask<>(caller, CompletableOptions.newDefault(), () -> {
+      started.countDown();
+      cancelled.await();
+      interrupted.set(Thread.currentThread().isInterrupted());
+      return result;
+    });
+
+    final Thread thread = new Thread(task);
+    thread.start();
+    started.await();
+
+    assertTrue(task.cancel());
+    cancelled.countDown();
+    thread.join();
+
+    assertFalse(interrupted.get());
+    assertNull(task.runner);
+    assertTrue(task.isCancelled());
+  }
+
+  @Test
+  public void testInterruptOnCancel() throws Exception {
+    final CompletableOptions options = CompletableOptions.builder().interruptOnCancel(true).build();
+
+    final CountDownLatch started = new CountDownLatch(1);
+    final AtomicBoolean interrupted = new AtomicBoolean();
+    final AtomicBoolean interruptedAfter = new AtomicBoolean(true);
+
+    final CallTask<Object> task = new CallTask<>(caller, options, () -> {
+      started.countDown();
+
+      try {
+        Thread.sleep(10000);
+      } catch (final InterruptedException e) {
+        interrupted.set(true);
+      }
+
+      return result;
+    });
+
+    final Thread thread = new Thread(() -> {
+      task.run();
+      interruptedAfter.set(Thread.currentThread().isInterrupted());
+    });
+
+    thread.start();
+    started.await();
+
+    assertTrue(task.cancel());
+    thread.join();
+
+    assertTrue(interrupted.get());
+    assertFalse(interruptedAfter.get());
+    assertTrue(task.isCancelled());
+    assertNull(task.runner);
+  }
+
+  @Test(timeout = 10000)
+  public void testClearCancelInterruptParks() throws Exception {
+    final CompletableOptions options = CompletableOptions.builder().interruptOnCancel(true).build();
+
+    final AtomicReference<CallTask<Object>> ref = new AtomicReference<>();
+    final AtomicBoolean interruptedAfter = new AtomicBoolean(true);
+
+    /* claim the runner like a cancel would, without interrupting it yet */
+    final CallTask<Object> task = new CallTask<>(caller, options, () -> {
+      CallTask.RUNNER.getAndSet(ref.get(), null);
+      return result;
+    });
+
+    ref.set(task);
+
+    final Thread thread = new Thread(() -> {
+      task.run();
+      interruptedAfter.set(Thread.currentThread().isInterrupted());
+    });
+
+    thread.start();
+
+    /* the runner parks instead of spinning until the cancel gets around to interrupting it */
+    while (thread.getState() != Thread.State.WAITING) {
+      Thread.sleep(1);
+    }
+
+    task.interruptRunner(thread);
+    thread.join();
+
+    assertFalse(interruptedAfter.get());
+  }
+
+  @Test
+  public void testInterruptOnCancelCompleted() throws Exception {
+    final CompletableOptions options = CompletableOptions.builder().interruptOnCancel(true).build();
+    final CallTask<Object> task = new CallTask<>(caller, options, callable);
+
+    when(callable.call()).thenReturn(result);
+
+    task.run();
+    assertSame(result, task.joinNow());
+    assertFalse(task.cancel());
+    assertNull(task.runner);
+    assertFalse(Thread.currentThread().isInterrupted());
+  }
+}
@@ -54,4 +54,26 @@ public class CollectAndDiscardHelperTest {
 
     verifyTarget(0, 0, 1);
   }
+
+  @Test
+  public void testFailFast() throws Exception {
+    helper = new CollectAndDiscardHelper(size, target, true);
+
+    helper.failed(cause);
+    verifyTarget(0, 1, 0);
+
+    helper.failed(cause);
+    verifyTarget(0, 1, 0);
+  }
+
+  @Test
+  public void testFailFastCancelled() throws Exception {
+    helper = new CollectAndDiscardHelper(size, target, true);
+
+    helper.cancelled();
+    verifyTarget(0, 0, 1);
+
+    helper.completed(result);
+    verifyTarget(0, 0, 1);
+  }
 }
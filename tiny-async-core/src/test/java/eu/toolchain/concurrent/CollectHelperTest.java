@@ -4,22 +4,21 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.mockito.Matchers.any;
-import static org.mockito.Matchers.anyObject;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
-import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import com.google.common.collect.ImmutableList;
 import java.util.Collection;
-import java.util.Iterator;
 import java.util.List;
 import java.util.function.Function;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
@@ -27,13 +26,16 @@ import org.mockito.runners.MockitoJUnitRunner;
 public class CollectHelperTest {
   @Mock
   private Function<Collection<From>, To> collector;
-  @Mock
-  private List<Stage<From>> sources;
+  private final List<Stage<From>> sources = ImmutableList.of();
   @Mock
   private Completable<To> target;
   @Mock
   private From result;
   @Mock
+  private From result2;
+  @Mock
+  private To to;
+  @Mock
   private Throwable e;
   @Mock
   private Stage<From> f1;
@@ -52,40 +54,47 @@ public class CollectHelperTest {
     new CollectHelper<>(0, collector, sources, target);
   }
 
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testSlotOutOfBounds() {
+    helper.slot(1);
+  }
+
   @Test
   public void testResolved() throws Exception {
-    doNothing().when(helper).add(any(Byte.class), anyObject());
-    helper.completed(result);
-    verify(helper).add(CollectHelper.COMPLETED, result);
+    doNothing().when(helper).check();
+    helper.slot(0).completed(result);
+    verify(helper).completed(0, result);
+    verify(helper).check();
   }
 
   @Test
   public void testFailed() throws Exception {
-    doNothing().when(helper).add(any(Byte.class), anyObject());
+    doNothing().when(helper).check();
     doNothing().when(helper).checkFailed();
 
-    helper.failed(e);
+    helper.slot(0).failed(e);
 
-    verify(helper).add(CollectHelper.FAILED, e);
+    verify(helper).failed(e);
     verify(helper).checkFailed();
+    verify(helper).check();
   }
 
   @Test
   public void testCancelled() throws Exception {
-    doNothing().when(helper).add(any(Byte.class), anyObject());
+    doNothing().when(helper).check();
     doNothing().when(helper).checkFailed();
 
-    helper.cancelled();
+    helper.slot(0).cancelled();
 
-    verify(helper).add(CollectHelper.CANCELLED, null);
+    verify(helper).cancelled();
     verify(helper).checkFailed();
+    verify(helper).check();
   }
 
   @Test
   public void testCheckFailed() {
-    final Iterator<Stage<?>> futures = ImmutableList.<Stage<?>>of(f1, f2).iterator();
-
-    doReturn(futures).when(sources).iterator();
+    final CollectHelper<From, To> helper =
+        new CollectHelper<>(2, collector, ImmutableList.of(f1, f2), target);
 
     assertEquals(false, helper.failed.get());
     assertEquals(false, helper.done.get());
@@ -111,33 +120,130 @@ public class CollectHelperTest {
     verify(f2, times(1)).cancel();
   }
 
+  @Test
+  public void testReleaseSource() {
+    final CollectHelper<From, To> helper =
+        new CollectHelper<>(3, collector, ImmutableList.of(f1, f2, f2), target);
+
+    helper.slot(0).completed(result);
+    assertNull(helper.sources[0]);
+
+    helper.slot(2).failed(e);
+    assertNull(helper.sources);
+
+    /* released sources are not cancelled */
+    verify(f1, never()).cancel();
+    verify(f2).cancel();
+  }
+
   @Test(expected = IllegalStateException.class)
-  public void testAddWhenFinished() {
+  public void testCheckWhenFinished() {
     helper.done.set(true);
-    helper.add(CollectHelper.COMPLETED, null);
+    helper.check();
   }
 
   @Test
-  public void testAdd() {
-    final CollectHelper<From, To>.Results r = mock(CollectHelper.Results.class);
-
-    doReturn(r).when(helper).collect();
-    doNothing().when(helper).writeAt(any(Integer.class), any(Byte.class), any());
-    doNothing().when(helper).done(r);
+  public void testCheck() {
+    doNothing().when(helper).done();
 
     assertEquals(false, helper.done.get());
-    helper.add(CollectHelper.COMPLETED, null);
+    helper.check();
     assertEquals(true, helper.done.get());
 
-    verify(helper).collect();
-    verify(helper).writeAt(0, CollectHelper.COMPLETED, null);
-    verify(helper).done(r);
+    verify(helper).done();
   }
 
   @Test(expected = IllegalStateException.class)
-  public void testAddAlreadyFinished() {
-    testAdd();
-    helper.add(CollectHelper.COMPLETED, null);
+  public void testCheckAlreadyFinished() {
+    testCheck();
+    helper.check();
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  @Test
+  public void testCollectInOrder() {
+    final CollectHelper<From, To> helper = new CollectHelper<>(2, collector, sources, target);
+    final ArgumentCaptor<Collection> results = ArgumentCaptor.forClass(Collection.class);
+
+    doReturn(to).when(collector).apply(any(Collection.class));
+
+    helper.slot(1).completed(result2);
+    helper.slot(0).completed(result);
+
+    verify(collector).apply(results.capture());
+    verify(target).complete(to);
+
+    assertEquals(ImmutableList.of(result, result2), ImmutableList.copyOf(results.getValue()));
+    assertNull(helper.values);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test(expected = UnsupportedOperationException.class)
+  public void testResultsReadOnly() {
+    CollectHelper.<From>results(new Object[]{result}).set(0, result2);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testCollectFailed() {
+    final CollectHelper<From, To> helper =
+        new CollectHelper<>(2, collector, ImmutableList.of(f1, f2), target);
+
+    helper.slot(0).failed(e);
+    helper.slot(1).completed(result);
+
+    verify(target).fail(e);
+    verify(collector, never()).apply(any(Collection.class));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testCollectCancelled() {
+    final CollectHelper<From, To> helper =
+        new CollectHelper<>(2, collector, ImmutableList.of(f1, f2), target);
+
+    helper.slot(0).completed(result);
+    helper.slot(1).cancelled();
+
+    verify(target).cancel();
+    verify(collector, never()).apply(any(Collection.class));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testFailFast() {
+    final CollectHelper<From, To> helper =
+        new CollectHelper<>(3, collector, ImmutableList.of(f1, f2, f2), target, true);
+
+    helper.slot(0).completed(result);
+    helper.slot(1).failed(e);
+
+    verify(target).fail(e);
+    verify(f1, never()).cancel();
+    verify(f2).cancel();
+    assertNull(helper.values);
+
+    /* late arrivals are ignored */
+    helper.slot(2).completed(result2);
+    helper.slot(2).failed(e);
+
+    verify(target).fail(e);
+    verify(collector, never()).apply(any(Collection.class));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testFailFastCancelled() {
+    final CollectHelper<From, To> helper =
+        new CollectHelper<>(2, collector, ImmutableList.of(f1, f2), target, true);
+
+    helper.slot(0).cancelled();
+    verify(target).cancel();
+    assertNull(helper.values);
+
+    helper.slot(1).completed(result);
+    verify(target).cancel();
+    verify(collector, never()).apply(any(Collection.class));
   }
 
   interface From {
@@ -0,0 +1,72 @@
+package eu.toolchain.concurrent;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class CollectLongsHelperTest {
+  private static final Throwable cause = new Exception();
+
+  private final Caller caller = new DirectCaller() {
+    @Override
+    protected void internalError(final String what, final Throwable e) {
+      throw new AssertionError(what, e);
+    }
+  };
+
+  private ConcurrentLongCompletable a;
+  private ConcurrentLongCompletable b;
+  private Completable<long[]> target;
+
+  private CollectLongsHelper helper;
+
+  @SuppressWarnings("unchecked")
+  @Before
+  public void setup() {
+    a = new ConcurrentLongCompletable(caller);
+    b = new ConcurrentLongCompletable(caller);
+    target = mock(Completable.class);
+    helper = new CollectLongsHelper(new LongStage[]{a, b}, target);
+
+    a.whenDone(helper);
+    b.whenDone(helper);
+  }
+
+  @Test
+  public void testCompleted() throws Exception {
+    final ArgumentCaptor<long[]> values = ArgumentCaptor.forClass(long[].class);
+
+    /* completed out of order, values are still in the order of the sources */
+    b.complete(2L);
+    verify(target, never()).complete(any(long[].class));
+
+    a.complete(1L);
+    verify(target).complete(values.capture());
+    assertArrayEquals(new long[]{1L, 2L}, values.getValue());
+  }
+
+  @Test
+  public void testFailed() throws Exception {
+    a.fail(cause);
+    b.complete(2L);
+
+    verify(target).fail(any(Throwable.class));
+    verify(target, never()).complete(any(long[].class));
+    verify(target, never()).cancel();
+  }
+
+  @Test
+  public void testCancelled() throws Exception {
+    a.complete(1L);
+    b.cancel();
+
+    verify(target).cancel();
+    verify(target, never()).complete(any(long[].class));
+  }
+}
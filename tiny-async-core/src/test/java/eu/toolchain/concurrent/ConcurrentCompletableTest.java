@@ -2,17 +2,36 @@ package eu.toolchain.concurrent;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
-
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -51,41 +70,43 @@ public class ConcurrentCompletableTest {
   }
 
   /**
-   * verify alias of #{link {@link eu.toolchain.concurrent.ConcurrentCompletable#complete(Object)}}
+   * verify forwarding variant of #{link
+   * {@link eu.toolchain.concurrent.ConcurrentCompletable#complete(Object)}}
    */
   @Test
   public void testCompleted() {
-    doReturn(true).when(c.completable).complete(result);
+    doReturn(true).when(c.completable).complete(result, true);
     c.completable.completed(result);
-    verify(c.completable).complete(result);
+    verify(c.completable).complete(result, true);
   }
 
   /**
-   * verify alias of #{link
+   * verify forwarding variant of #{link
    * {@link eu.toolchain.concurrent.ConcurrentCompletable#fail(java.lang.Throwable)}}
    */
   @Test
   public void testFailed() {
-    doReturn(true).when(c.completable).fail(cause);
+    doReturn(true).when(c.completable).fail(cause, true);
     c.completable.failed(cause);
-    verify(c.completable).fail(cause);
+    verify(c.completable).fail(cause, true);
   }
 
   /**
-   * verify alias of #{link {@link eu.toolchain.concurrent.ConcurrentCompletable#cancel()}}
+   * verify forwarding variant of #{link
+   * {@link eu.toolchain.concurrent.ConcurrentCompletable#cancel()}}
    */
   @Test
   public void testCancelled() {
-    doReturn(true).when(c.completable).cancel();
+    doReturn(true).when(c.completable).cancel(true);
     c.completable.cancelled();
-    verify(c.completable).cancel();
+    verify(c.completable).cancel(true);
   }
 
   @Test
   public void testComplete() {
-    assertEquals(ConcurrentCompletable.PENDING, c.completable.state.get());
+    assertEquals(ConcurrentCompletable.PENDING, c.completable.state);
     assertTrue(c.completable.complete(result));
-    assertEquals(ConcurrentCompletable.COMPLETED, c.completable.state.get());
+    assertEquals(ConcurrentCompletable.COMPLETED, c.completable.state);
     assertEquals(result, c.completable.result);
 
     verifyFinalized();
@@ -93,9 +114,9 @@ public class ConcurrentCompletableTest {
 
   @Test
   public void testCompleteNull() {
-    assertEquals(ConcurrentCompletable.PENDING, c.completable.state.get());
+    assertEquals(ConcurrentCompletable.PENDING, c.completable.state);
     assertTrue(c.completable.complete(null));
-    assertEquals(ConcurrentCompletable.COMPLETED, c.completable.state.get());
+    assertEquals(ConcurrentCompletable.COMPLETED, c.completable.state);
     assertEquals(ConcurrentCompletable.NULL, c.completable.result);
 
     verifyFinalized();
@@ -103,9 +124,9 @@ public class ConcurrentCompletableTest {
 
   @Test
   public void testFail() {
-    assertEquals(ConcurrentCompletable.PENDING, c.completable.state.get());
+    assertEquals(ConcurrentCompletable.PENDING, c.completable.state);
     assertTrue(c.completable.fail(cause));
-    assertEquals(ConcurrentCompletable.FAILED, c.completable.state.get());
+    assertEquals(ConcurrentCompletable.FAILED, c.completable.state);
     assertEquals(cause, c.completable.result);
 
     verifyFinalized();
@@ -116,20 +137,802 @@ public class ConcurrentCompletableTest {
     expected.expect(NullPointerException.class);
     expected.expectMessage("cause");
 
-    assertEquals(ConcurrentCompletable.PENDING, c.completable.state.get());
+    assertEquals(ConcurrentCompletable.PENDING, c.completable.state);
     assertTrue(c.completable.fail(null));
   }
 
   @Test
   public void testCancel() {
-    assertEquals(ConcurrentCompletable.PENDING, c.completable.state.get());
+    assertEquals(ConcurrentCompletable.PENDING, c.completable.state);
     assertTrue(c.completable.cancel());
-    assertEquals(ConcurrentCompletable.CANCELLED, c.completable.state.get());
+    assertEquals(ConcurrentCompletable.CANCELLED, c.completable.state);
     assertEquals(ConcurrentCompletable.CANCEL, c.completable.result);
 
     verifyFinalized();
   }
 
+  @Test
+  public void testWhenDoneCollection() {
+    final ConcurrentCompletable<From> completable = new ConcurrentCompletable<>(caller);
+    final Runnable a = mock(Runnable.class);
+    final Runnable b = mock(Runnable.class);
+    final Runnable c = mock(Runnable.class);
+
+    assertSame(completable, completable.whenDone(a));
+    assertSame(completable, completable.whenDone(Arrays.asList(b, c)));
+    assertTrue(completable.callbacks instanceof ConcurrentCompletable.RunnablePair);
+
+    assertTrue(completable.complete(result));
+
+    /* bulk callbacks are expanded in order, after the callbacks added after them */
+    verify(caller).executeAll(Arrays.asList(b, c, a));
+    verifyNoMoreInteractions(caller);
+  }
+
+  @Test
+  public void testWhenDoneCollectionInline() {
+    final ConcurrentCompletable<From> completable = new ConcurrentCompletable<>(caller);
+    final Runnable a = mock(Runnable.class);
+    final Runnable b = mock(Runnable.class);
+
+    completable.whenDone(Arrays.asList(a, b));
+    assertTrue(completable.callbacks instanceof ConcurrentCompletable.Bulk);
+
+    assertTrue(completable.complete(result));
+    verify(caller).executeAll(Arrays.asList(a, b));
+    verifyNoMoreInteractions(caller);
+  }
+
+  @Test
+  public void testWhenDoneCollectionDone() {
+    final ConcurrentCompletable<From> completable = new ConcurrentCompletable<>(caller);
+    final Runnable a = mock(Runnable.class);
+    final Runnable b = mock(Runnable.class);
+
+    assertTrue(completable.complete(result));
+    completable.whenDone(Arrays.asList(a, b));
+    verify(caller).executeAll(Arrays.asList(a, b));
+  }
+
+  @Test
+  public void testWhenDoneCollectionDirectCaller() {
+    final Caller direct = new DirectCaller() {
+      @Override
+      public void executeAll(final List<? extends Runnable> runnables) {
+        throw new AssertionError("direct callers are not handed lists");
+      }
+
+      @Override
+      protected void internalError(final String what, final Throwable e) {
+        throw new AssertionError(what, e);
+      }
+    };
+
+    final ConcurrentCompletable<From> completable = new ConcurrentCompletable<>(direct);
+    final Runnable a = mock(Runnable.class);
+    final Runnable b = mock(Runnable.class);
+    final Runnable c = mock(Runnable.class);
+    final Runnable d = mock(Runnable.class);
+
+    completable.whenDone(a);
+    completable.whenDone(Arrays.asList(b, c));
+    assertTrue(completable.complete(result));
+    completable.whenDone(Arrays.asList(d));
+
+    final InOrder order = inOrder(a, b, c, d);
+    order.verify(b).run();
+    order.verify(c).run();
+    order.verify(a).run();
+    order.verify(d).run();
+  }
+
+  @Test
+  public void testWhenDoneCollectionEmpty() {
+    final ConcurrentCompletable<From> completable = new ConcurrentCompletable<>(caller);
+
+    completable.whenDone(Collections.emptyList());
+    assertNull(completable.callbacks);
+  }
+
+  @Test
+  public void testBackoff() {
+    final int max = ConcurrentCompletable.MAX_BACKOFF;
+
+    assertEquals(max, ConcurrentCompletable.backoff(max));
+
+    if (max > 0) {
+      assertEquals(1, ConcurrentCompletable.backoff(0));
+    }
+  }
+
+  @Test
+  public void testMonomorphic() throws Exception {
+    final CompletableOptions options = CompletableOptions.builder().monomorphic(true).build();
+
+    final ConcurrentCompletable<From> completed = new ConcurrentCompletable<>(caller, options);
+    final ConcurrentCompletable<From> failed = new ConcurrentCompletable<>(caller, options);
+    final ConcurrentCompletable<From> cancelled = new ConcurrentCompletable<>(caller, options);
+
+    completed.complete(result);
+    failed.fail(cause);
+    cancelled.cancel();
+
+    final Stage<To> a = completed.thenApply(v -> to);
+    final Stage<To> b = failed.thenApply(v -> to);
+    final Stage<To> c = cancelled.thenApply(v -> to);
+
+    assertTrue(a instanceof ConcurrentCompletable);
+    assertTrue(b instanceof ConcurrentCompletable);
+    assertTrue(c instanceof ConcurrentCompletable);
+
+    assertSame(to, a.joinNow());
+    assertSame(cause, b.cause());
+    assertTrue(c.isCancelled());
+
+    /* done stages run new callbacks immediately */
+    final Runnable runnable = mock(Runnable.class);
+    a.whenDone(runnable);
+    verify(caller).execute(runnable);
+  }
+
+  @Test
+  public void testStacklessExceptions() throws Exception {
+    final CompletableOptions options =
+        CompletableOptions.builder().stacklessExceptions(true).build();
+
+    final ConcurrentCompletable<From> failed = new ConcurrentCompletable<>(caller, options);
+    final ConcurrentCompletable<From> cancelled = new ConcurrentCompletable<>(caller, options);
+    final ConcurrentCompletable<From> pending = new ConcurrentCompletable<>(caller, options);
+
+    failed.fail(cause);
+    cancelled.cancel();
+
+    try {
+      failed.joinNow();
+      fail("expected ExecutionException");
+    } catch (final ExecutionException e) {
+      assertSame(cause, e.getCause());
+      assertEquals(0, e.getStackTrace().length);
+    }
+
+    try {
+      cancelled.joinNow();
+      fail("expected CancellationException");
+    } catch (final CancellationException e) {
+      assertTrue(e instanceof StacklessCancellationException);
+      assertEquals(0, e.getStackTrace().length);
+    }
+
+    try {
+      pending.join(0, TimeUnit.SECONDS);
+      fail("expected TimeoutException");
+    } catch (final TimeoutException e) {
+      assertTrue(e instanceof StacklessTimeoutException);
+    }
+  }
+
+  @Test
+  public void testStacklessExceptionsNotShared() throws Exception {
+    final ConcurrentCompletable<From> cancelled = new ConcurrentCompletable<>(caller,
+        CompletableOptions.builder().stacklessExceptions(true).build());
+
+    cancelled.cancel();
+
+    final CancellationException first = cancelled.cancellationException();
+    first.addSuppressed(cause);
+
+    final CancellationException second = cancelled.cancellationException();
+    assertNotSame(first, second);
+    assertEquals(0, second.getSuppressed().length);
+    assertNotSame(cancelled.timeoutException(), cancelled.timeoutException());
+  }
+
+  @Test
+  public void testExceptionsWithStack() throws Exception {
+    final ConcurrentCompletable<From> cancelled =
+        new ConcurrentCompletable<>(caller, CompletableOptions.newDefault());
+
+    cancelled.cancel();
+
+    try {
+      cancelled.joinNow();
+      fail("expected CancellationException");
+    } catch (final CancellationException e) {
+      assertFalse(e instanceof StacklessCancellationException);
+      assertTrue(e.getStackTrace().length > 0);
+    }
+  }
+
+  @Test
+  public void testNotMonomorphic() {
+    final ConcurrentCompletable<From> completed = new ConcurrentCompletable<>(caller);
+
+    completed.complete(result);
+    assertTrue(completed.thenApply(v -> to) instanceof ImmediateCompleted);
+  }
+
+  @Test
+  public void testAddInline() {
+    final ConcurrentCompletable<From> completable = new ConcurrentCompletable<>(caller);
+    final Runnable a = mock(Runnable.class);
+    final Runnable b = mock(Runnable.class);
+
+    assertTrue(completable.add(a));
+    assertSame(a, completable.callbacks);
+
+    assertTrue(completable.add(b));
+    assertTrue(completable.callbacks instanceof ConcurrentCompletable.RunnablePair);
+
+    assertTrue(completable.complete(result));
+    assertSame(ConcurrentCompletable.END, completable.callbacks);
+    assertFalse(completable.add(a));
+
+    verify(caller).executeAll(Arrays.asList(b, a));
+    verifyNoMoreInteractions(caller);
+  }
+
+  @Test
+  public void testPostCompleteInline() {
+    final ConcurrentCompletable<From> completable = new ConcurrentCompletable<>(caller);
+    final Runnable a = mock(Runnable.class);
+
+    assertTrue(completable.add(a));
+    assertTrue(completable.complete(result));
+
+    verify(caller).execute(a);
+  }
+
+  @Test
+  public void testCancelUpstream() {
+    final ConcurrentCompletable<From> source = new ConcurrentCompletable<>(caller);
+    final ConcurrentCompletable<To> target = source.nextStage();
+
+    assertSame(source, target.upstream);
+
+    final ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+    assertTrue(target.cancel());
+    assertNull(target.upstream);
+    verify(caller).execute(captor.capture());
+
+    captor.getValue().run();
+    assertTrue(source.isCancelled());
+  }
+
+  @Test
+  public void testCancelUpstreamRefCounted() {
+    doAnswer(invocation -> {
+      invocation.getArgumentAt(0, Runnable.class).run();
+      return null;
+    }).when(caller).execute(any(Runnable.class));
+
+    final ConcurrentCompletable<From> source = new ConcurrentCompletable<>(caller,
+      CompletableOptions.builder().refCountedCancellation(true).build());
+
+    /* one fused and one regular dependent */
+    final Stage<To> a = source.thenApply(v -> to);
+    final ConcurrentCompletable<To> b = source.nextStage();
+    assertEquals(2, source.dependents);
+
+    assertTrue(a.cancel());
+    assertFalse(source.isDone());
+    assertEquals(1, source.dependents);
+
+    assertTrue(b.cancel());
+    assertTrue(source.isCancelled());
+  }
+
+  @Test
+  public void testTimeoutReleasesUpstreamRefCounted() {
+    final HashedWheelTimer timer = Mockito.mock(HashedWheelTimer.class);
+    final HashedWheelTimer.Timeout timeout = Mockito.mock(HashedWheelTimer.Timeout.class);
+    final ArgumentCaptor<HashedWheelTimer.TimerTask> task =
+      ArgumentCaptor.forClass(HashedWheelTimer.TimerTask.class);
+
+    doReturn(timeout)
+      .when(timer)
+      .newTimeout(task.capture(), eq(10L), eq(TimeUnit.MILLISECONDS));
+
+    doAnswer(invocation -> {
+      invocation.getArgumentAt(0, Runnable.class).run();
+      return null;
+    }).when(caller).execute(any(Runnable.class));
+
+    final ConcurrentCompletable<From> source = new ConcurrentCompletable<>(caller,
+      CompletableOptions
+        .builder()
+        .refCountedCancellation(true)
+        .timer(timer)
+        .timerExecutor(Runnable::run)
+        .build());
+
+    final Stage<From> a = source.orTimeout(10L, TimeUnit.MILLISECONDS);
+    final ConcurrentCompletable<To> b = source.nextStage();
+    assertEquals(2, source.dependents);
+
+    /* the timed out stage no longer holds on to the source */
+    task.getValue().run(timeout);
+    assertTrue(a.isFailed());
+    assertFalse(source.isDone());
+    assertEquals(1, source.dependents);
+
+    assertTrue(b.cancel());
+    assertTrue(source.isCancelled());
+  }
+
+  @Test
+  public void testCancelUpstreamRefCountedDisabled() {
+    doAnswer(invocation -> {
+      invocation.getArgumentAt(0, Runnable.class).run();
+      return null;
+    }).when(caller).execute(any(Runnable.class));
+
+    final ConcurrentCompletable<From> source = new ConcurrentCompletable<>(caller);
+
+    final Stage<To> a = source.thenApply(v -> to);
+    source.nextStage();
+    assertEquals(0, source.dependents);
+
+    assertTrue(a.cancel());
+    assertTrue(source.isCancelled());
+  }
+
+  @Test
+  public void testCompleteClearsUpstream() {
+    final ConcurrentCompletable<From> source = new ConcurrentCompletable<>(caller);
+    final ConcurrentCompletable<To> target = source.nextStage();
+
+    assertTrue(target.complete(to));
+    assertNull(target.upstream);
+    assertFalse(source.isDone());
+  }
+
+  @Test
+  public void testFuseThenApply() {
+    doAnswer(invocation -> {
+      invocation.getArgumentAt(0, Runnable.class).run();
+      return null;
+    }).when(caller).execute(any(Runnable.class));
+
+    final ConcurrentCompletable<Integer> source = new ConcurrentCompletable<>(caller);
+
+    final ConcurrentCompletable<Integer> a =
+      (ConcurrentCompletable<Integer>) source.thenApply(v -> v + 1);
+    final ConcurrentCompletable<Integer> b =
+      (ConcurrentCompletable<Integer>) a.thenApply(v -> v * 2);
+    final ConcurrentCompletable<Integer> c =
+      (ConcurrentCompletable<Integer>) b.thenApplyFailed(e -> 0);
+
+    /* only the first runnable is registered, the rest are chained onto it */
+    assertTrue(source.callbacks instanceof ConcurrentCompletable.Fusable);
+    assertNull(a.callbacks);
+    assertNull(b.callbacks);
+    assertSame(b.upstream, ((ConcurrentCompletable.Fusable) a.upstream).next);
+    assertSame(c.upstream, ((ConcurrentCompletable.Fusable) b.upstream).next);
+
+    assertTrue(source.complete(1));
+
+    assertEquals(Integer.valueOf(2), a.result);
+    assertEquals(Integer.valueOf(4), b.result);
+    assertEquals(Integer.valueOf(4), c.result);
+    assertNull(c.upstream);
+
+    verify(caller, times(1)).execute(any(Runnable.class));
+  }
+
+  @Test
+  public void testFuseAfterRun() {
+    final ConcurrentCompletable<Integer> source = new ConcurrentCompletable<>(caller);
+    final ConcurrentCompletable<Integer> a =
+      (ConcurrentCompletable<Integer>) source.thenApply(v -> v + 1);
+
+    final ConcurrentCompletable.Fusable runnable = (ConcurrentCompletable.Fusable) a.upstream;
+
+    source.complete(1);
+    runnable.run();
+    assertSame(ConcurrentCompletable.SEALED, runnable.next);
+
+    /* a is done, so it is not fused but handled immediately */
+    final Stage<Integer> b = a.thenApply(v -> v * 2);
+    assertTrue(b.isCompleted());
+  }
+
+  @Test
+  public void testFuseCancel() {
+    final ConcurrentCompletable<Integer> source = new ConcurrentCompletable<>(caller);
+    final ConcurrentCompletable<Integer> a =
+      (ConcurrentCompletable<Integer>) source.thenApply(v -> v + 1);
+    final ConcurrentCompletable<Integer> b =
+      (ConcurrentCompletable<Integer>) a.thenApply(v -> v * 2);
+
+    final ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+    assertTrue(b.cancel());
+    verify(caller).execute(captor.capture());
+
+    captor.getValue().run();
+    assertTrue(a.isCancelled());
+  }
+
+  @Test
+  public void testFuseCancelMiddle() throws Exception {
+    final Caller caller = new DirectCaller() {
+      @Override
+      protected void internalError(final String what, final Throwable e) {
+        throw new AssertionError(what, e);
+      }
+    };
+
+    final ConcurrentCompletable<Integer> source = new ConcurrentCompletable<>(caller,
+      CompletableOptions.builder().refCountedCancellation(true).build());
+
+    final Stage<Integer> a = source.thenApply(v -> v + 1);
+    final Stage<Integer> b = a.thenApply(v -> v * 2);
+    final Stage<Integer> c = b.thenApply(v -> v * 3);
+    /* keeps the source alive */
+    final Stage<Integer> other = source.thenApply(v -> v);
+
+    assertTrue(a.cancel());
+    assertFalse(source.isDone());
+    assertTrue(b.isCancelled());
+    assertTrue(c.isCancelled());
+
+    assertTrue(source.complete(1));
+    assertEquals(Integer.valueOf(1), other.joinNow());
+    assertTrue(c.isCancelled());
+  }
+
+  @Test
+  public void testDeepChain() throws Exception {
+    final Caller caller = new DirectCaller() {
+      @Override
+      protected void internalError(final String what, final Throwable e) {
+        throw new AssertionError(what, e);
+      }
+    };
+
+    final ConcurrentCompletable<Integer> source = new ConcurrentCompletable<>(caller);
+    Stage<Integer> stage = source;
+
+    for (int i = 0; i < 100000; i++) {
+      stage = stage.thenCompose(v -> new ImmediateCompleted<>(caller, v + 1));
+    }
+
+    assertTrue(source.complete(0));
+    assertEquals(Integer.valueOf(100000), stage.joinNow());
+  }
+
+  @Test
+  public void testPostCompleteDefersNested() {
+    final ConcurrentCompletable<From> a = new ConcurrentCompletable<>(caller);
+    final ConcurrentCompletable<From> b = a.nextStage();
+    final Runnable runnable = mock(Runnable.class);
+
+    doAnswer(invocation -> {
+      invocation.getArgumentAt(0, Runnable.class).run();
+      return null;
+    }).when(caller).execute(any(Runnable.class));
+
+    b.add(runnable);
+
+    /* completing b, derived from a, from within a callback of a defers b's callbacks until a's
+     * are done */
+    a.add(() -> {
+      b.complete(result);
+      verify(runnable, times(0)).run();
+    });
+
+    assertTrue(a.complete(result));
+    verify(runnable).run();
+  }
+
+  @Test
+  public void testPostCompleteExplicitInCallback() throws Exception {
+    final Caller caller = new DirectCaller() {
+      @Override
+      protected void internalError(final String what, final Throwable e) {
+        throw new AssertionError(what, e);
+      }
+    };
+
+    final ConcurrentCompletable<Integer> a = new ConcurrentCompletable<>(caller);
+    final ConcurrentCompletable<Integer> b = new ConcurrentCompletable<>(caller);
+    final Stage<Integer> derived = b.thenApply(v -> v + 1).thenCompose(v -> b.thenApply(w -> v));
+
+    /* b is unrelated to a, so its callbacks, and those of the stages derived from it, run before
+     * complete returns */
+    final AtomicReference<Integer> joined = new AtomicReference<>();
+
+    a.whenComplete(v -> {
+      assertTrue(b.complete(v));
+
+      try {
+        joined.set(derived.joinNow());
+      } catch (final ExecutionException e) {
+        throw new RuntimeException(e);
+      }
+    });
+
+    assertTrue(a.complete(1));
+    assertEquals(Integer.valueOf(2), joined.get());
+  }
+
+  @Test
+  public void testPostCompleteDeepComposeChain() throws Exception {
+    final Caller caller = new DirectCaller() {
+      @Override
+      protected void internalError(final String what, final Throwable e) {
+        throw new AssertionError(what, e);
+      }
+    };
+
+    final ConcurrentCompletable<Integer> source = new ConcurrentCompletable<>(caller);
+    final ConcurrentCompletable<Integer> leaf = new ConcurrentCompletable<>(caller);
+
+    Stage<Integer> s = source;
+
+    /* every stage composes the one before it, the first one composes the pending leaf */
+    for (int i = 0; i < 100000; i++) {
+      final Stage<Integer> inner = i == 0 ? leaf : s;
+      s = source.thenCompose(v -> inner);
+    }
+
+    source.complete(0);
+    assertFalse(s.isDone());
+
+    /* results forwarded through handle from within a callback are trampolined */
+    leaf.complete(1);
+    assertEquals(Integer.valueOf(1), s.joinNow());
+  }
+
+  @Test
+  public void testPostCompleteClearsDeferredOnThrow() {
+    final ConcurrentCompletable<From> a = new ConcurrentCompletable<>(caller);
+    final ConcurrentCompletable<From> b = a.nextStage();
+    final Runnable runnable = mock(Runnable.class);
+
+    doAnswer(invocation -> {
+      invocation.getArgumentAt(0, Runnable.class).run();
+      return null;
+    }).when(caller).execute(any(Runnable.class));
+
+    b.add(runnable);
+
+    a.add(() -> {
+      b.complete(result);
+      throw cause;
+    });
+
+    try {
+      a.complete(result);
+      fail("expected exception");
+    } catch (final RuntimeException e) {
+      assertSame(cause, e);
+    }
+
+    assertTrue(ConcurrentCompletable.TRAMPOLINE.get().deferred.isEmpty());
+    assertNull(ConcurrentCompletable.TRAMPOLINE.get().current);
+
+    /* deferred callbacks are not run by some unrelated completion */
+    new ConcurrentCompletable<From>(caller).complete(result);
+    verify(runnable, never()).run();
+  }
+
+  @Test
+  public void testJoinReusesWaiter() throws Exception {
+    final CompletableOptions options =
+      CompletableOptions.builder().joinSpins(0).joinYields(0).build();
+
+    final ConcurrentCompletable<Integer> first = new ConcurrentCompletable<>(caller, options);
+    final ConcurrentCompletable<Integer> second = new ConcurrentCompletable<>(caller, options);
+
+    doAnswer(invocation -> {
+      invocation.getArgumentAt(0, Runnable.class).run();
+      return null;
+    }).when(caller).execute(any(Runnable.class));
+
+    final Thread t1 = completeLater(first, 1);
+    assertEquals(Integer.valueOf(1), first.join());
+    /* the waiter is released by the completing thread */
+    t1.join();
+
+    final ConcurrentCompletable.Waiter waiter = ConcurrentCompletable.WAITER.get();
+    assertTrue(waiter.released);
+
+    final Thread t2 = completeLater(second, 2);
+    assertEquals(Integer.valueOf(2), second.join());
+    t2.join();
+    assertSame(waiter, ConcurrentCompletable.WAITER.get());
+  }
+
+  @Test
+  public void testJoinHoldsNoMonitors() throws Exception {
+    final CompletableOptions options =
+      CompletableOptions.builder().joinSpins(0).joinYields(0).build();
+
+    final ConcurrentCompletable<Integer> completable =
+      new ConcurrentCompletable<>(caller, options);
+
+    doAnswer(invocation -> {
+      invocation.getArgumentAt(0, Runnable.class).run();
+      return null;
+    }).when(caller).execute(any(Runnable.class));
+
+    final Thread thread = new Thread(() -> {
+      try {
+        completable.join();
+      } catch (final Exception e) {
+        throw new RuntimeException(e);
+      }
+    });
+
+    thread.start();
+
+    while (thread.getState() != Thread.State.WAITING) {
+      Thread.sleep(1);
+    }
+
+    /* parking while holding a monitor is what pins the carrier of a virtual thread */
+    final ThreadInfo info = ManagementFactory
+      .getThreadMXBean()
+      .getThreadInfo(new long[]{thread.getId()}, true, true)[0];
+
+    assertEquals(0, info.getLockedMonitors().length);
+    assertEquals(0, info.getLockedSynchronizers().length);
+
+    completable.complete(1);
+    thread.join();
+  }
+
+  @Test
+  public void testJoinTimeoutDoesNotReuseWaiter() throws Exception {
+    final CompletableOptions options =
+      CompletableOptions.builder().joinSpins(0).joinYields(0).build();
+
+    final ConcurrentCompletable<Integer> completable =
+      new ConcurrentCompletable<>(caller, options);
+
+    try {
+      completable.join(1, TimeUnit.MILLISECONDS);
+      fail("expected timeout");
+    } catch (final TimeoutException e) {
+      /* expected */
+    }
+
+    final ConcurrentCompletable.Waiter waiter = ConcurrentCompletable.WAITER.get();
+    assertFalse(waiter.released);
+    assertNull(waiter.thread);
+    /* the abandoned waiter has been unlinked */
+    assertNull(completable.callbacks);
+
+    ConcurrentCompletable.Waiter.acquire().release();
+    assertNotSame(waiter, ConcurrentCompletable.WAITER.get());
+  }
+
+  @Test
+  public void testJoinTimeoutCompactsWaiters() throws Exception {
+    final CompletableOptions options =
+      CompletableOptions.builder().joinSpins(0).joinYields(0).build();
+
+    final ConcurrentCompletable<Integer> completable =
+      new ConcurrentCompletable<>(caller, options);
+
+    final Runnable runnable = mock(Runnable.class);
+    completable.add(runnable);
+
+    for (int i = 0; i < 10; i++) {
+      try {
+        completable.join(1, TimeUnit.MILLISECONDS);
+        fail("expected timeout");
+      } catch (final TimeoutException e) {
+        /* expected */
+      }
+    }
+
+    assertSame(runnable, completable.callbacks);
+  }
+
+  @Test
+  public void testSubscribe() {
+    final ConcurrentCompletable<From> completable = new ConcurrentCompletable<>(caller);
+    final Runnable a = mock(Runnable.class);
+    final Runnable b = mock(Runnable.class);
+
+    doAnswer(invocation -> {
+      invocation.getArgumentAt(0, Runnable.class).run();
+      return null;
+    }).when(caller).execute(any(Runnable.class));
+
+    final Subscription subA = completable.subscribe(a);
+    final Subscription subB = completable.subscribe(b);
+
+    assertTrue(subA.unsubscribe());
+    assertFalse(subA.unsubscribe());
+
+    /* only b is left, which is stored inline */
+    assertSame(subB, completable.callbacks);
+
+    assertTrue(completable.complete(result));
+    assertFalse(subB.unsubscribe());
+
+    verify(a, times(0)).run();
+    verify(b).run();
+  }
+
+  @Test
+  public void testUnsubscribeCompactsLazily() {
+    final ConcurrentCompletable<From> completable = new ConcurrentCompletable<>(caller);
+    final Subscription[] subscriptions = new Subscription[64];
+
+    for (int i = 0; i < subscriptions.length; i++) {
+      subscriptions[i] = completable.subscribe(mock(Runnable.class));
+    }
+
+    /* removed callbacks stay linked until they make up half of the callbacks */
+    for (int i = 0; i < 31; i++) {
+      assertTrue(subscriptions[i].unsubscribe());
+    }
+
+    assertEquals(64, ConcurrentCompletable.size(completable.callbacks));
+    assertEquals(31, completable.removed);
+
+    assertTrue(subscriptions[31].unsubscribe());
+    assertEquals(32, ConcurrentCompletable.size(completable.callbacks));
+    assertEquals(0, completable.removed);
+  }
+
+  @Test
+  public void testSubscribeDone() {
+    final ConcurrentCompletable<From> completable = new ConcurrentCompletable<>(caller);
+    final Runnable a = mock(Runnable.class);
+
+    assertTrue(completable.complete(result));
+
+    final Subscription subscription = completable.subscribe(a);
+    assertFalse(subscription.unsubscribe());
+    verify(caller).execute(a);
+  }
+
+  @Test
+  public void testCompact() {
+    final Runnable a = mock(Runnable.class);
+    final Runnable b = mock(Runnable.class);
+    final ConcurrentCompletable.Subscriber removed =
+      new ConcurrentCompletable.Subscriber(c.completable, null);
+
+    assertNull(ConcurrentCompletable.compact(null));
+    assertSame(a, ConcurrentCompletable.compact(a));
+    assertNull(ConcurrentCompletable.compact(removed));
+
+    final Object entries = ConcurrentCompletable.push(a, ConcurrentCompletable.push(b, null));
+    assertSame(entries, ConcurrentCompletable.compact(entries));
+
+    final ConcurrentCompletable.RunnablePair compacted =
+      (ConcurrentCompletable.RunnablePair) ConcurrentCompletable.compact(
+        ConcurrentCompletable.push(a,
+          ConcurrentCompletable.push(removed, ConcurrentCompletable.push(b, null))));
+
+    /* order is preserved */
+    assertSame(a, compacted.runnable);
+    assertSame(b, compacted.next.runnable);
+    assertNull(compacted.next.next);
+  }
+
+  private Thread completeLater(
+    final ConcurrentCompletable<Integer> completable, final int value
+  ) {
+    final Thread thread = new Thread(() -> {
+      try {
+        Thread.sleep(10);
+      } catch (final InterruptedException e) {
+        return;
+      }
+
+      completable.complete(value);
+    });
+
+    thread.start();
+    return thread;
+  }
+
   @Test
   public void testWhenDone() {
     final Runnable runnable = mock(Runnable.class);
@@ -186,17 +989,17 @@ public class ConcurrentCompletableTest {
 
   /* verify that the state of a completable cannot be changed */
   private void verifyFinalized() {
-    final int state = c.completable.state.get();
+    final int state = c.completable.state;
     final Object result = c.completable.result;
 
     assertFalse(c.completable.complete(this.result));
-    assertEquals(state, c.completable.state.get());
+    assertEquals(state, c.completable.state);
     assertEquals(result, c.completable.result);
     assertFalse(c.completable.fail(cause));
-    assertEquals(state, c.completable.state.get());
+    assertEquals(state, c.completable.state);
     assertEquals(result, c.completable.result);
     assertFalse(c.completable.cancel());
-    assertEquals(state, c.completable.state.get());
+    assertEquals(state, c.completable.state);
     assertEquals(result, c.completable.result);
   }
 
@@ -264,6 +1067,234 @@ public class ConcurrentCompletableTest {
     order.verifyNoMoreInteractions();
   }
 
+  @Test
+  public void testThenApplyAsyncRunnable() {
+    final ConcurrentCompletable<To> target = Mockito.mock(ConcurrentCompletable.class);
+    final Function<From, To> fn = Mockito.mock(Function.class);
+    final Executor executor = Mockito.mock(Executor.class);
+
+    final Completable c = new Completable();
+
+    final ConcurrentCompletable.ThenApplyAsyncRunnable helper =
+      c.completable.new ThenApplyAsyncRunnable<To>(target, executor, fn);
+
+    doReturn(to).when(fn).apply(result);
+
+    c.complete(result);
+    helper.run();
+
+    /* the helper submits itself, and only applies once run by the executor */
+    verify(executor).execute(helper);
+    verify(fn, never()).apply(result);
+
+    helper.run();
+
+    final InOrder order = inOrder(fn, target);
+    order.verify(target).isDone();
+    order.verify(fn).apply(result);
+    order.verify(target).complete(to);
+    order.verifyNoMoreInteractions();
+  }
+
+  @Test
+  public void testThenApplyAsyncRunnableNotCompleted() {
+    final ConcurrentCompletable<To> target = Mockito.mock(ConcurrentCompletable.class);
+    final Function<From, To> fn = Mockito.mock(Function.class);
+    final Executor executor = Mockito.mock(Executor.class);
+
+    final Completable c = new Completable();
+
+    final ConcurrentCompletable.ThenApplyAsyncRunnable helper =
+      c.completable.new ThenApplyAsyncRunnable<To>(target, executor, fn);
+
+    c.fail(cause);
+    helper.run();
+
+    c.cancel();
+    helper.run();
+
+    final InOrder order = inOrder(target);
+    order.verify(target).fail(cause);
+    order.verify(target).cancel();
+    order.verifyNoMoreInteractions();
+
+    verify(executor, never()).execute(any(Runnable.class));
+  }
+
+  @Test
+  public void testThenApplyAsyncRunnableRejected() {
+    final ConcurrentCompletable<To> target = Mockito.mock(ConcurrentCompletable.class);
+    final Function<From, To> fn = Mockito.mock(Function.class);
+    final Executor executor = Mockito.mock(Executor.class);
+    final RejectedExecutionException rejected = new RejectedExecutionException();
+
+    final Completable c = new Completable();
+
+    final ConcurrentCompletable.ThenApplyAsyncRunnable helper =
+      c.completable.new ThenApplyAsyncRunnable<To>(target, executor, fn);
+
+    doThrow(rejected).when(executor).execute(helper);
+
+    c.complete(result);
+    helper.run();
+
+    verify(target).fail(rejected);
+    verify(fn, never()).apply(result);
+  }
+
+  @Test
+  public void testThenComposeAsyncRunnable() {
+    final ConcurrentCompletable<To> target = Mockito.mock(ConcurrentCompletable.class);
+    final Function<From, Stage<To>> fn = Mockito.mock(Function.class);
+    final Executor executor = Mockito.mock(Executor.class);
+
+    final Completable c = new Completable();
+
+    final ConcurrentCompletable.ThenComposeAsyncRunnable helper =
+      c.completable.new ThenComposeAsyncRunnable<To>(target, executor, fn);
+
+    doNothing().when(c.completable).handleStage(any(), eq(target));
+
+    c.complete(result);
+    helper.run();
+    verify(executor).execute(helper);
+    verify(c.completable, never()).handleStage(any(), eq(target));
+
+    helper.run();
+    verify(c.completable).handleStage(any(), eq(target));
+  }
+
+  @Test
+  public void testThenApplyAsync() throws Exception {
+    final Executor executor = Mockito.mock(Executor.class);
+
+    doAnswer(invocation -> {
+      invocation.getArgumentAt(0, Runnable.class).run();
+      return null;
+    }).when(caller).execute(any(Runnable.class));
+
+    final ConcurrentCompletable<From> source = new ConcurrentCompletable<>(caller);
+    final Stage<To> next = source.thenApplyAsync(v -> to, executor);
+
+    final ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+
+    source.complete(result);
+    verify(executor).execute(task.capture());
+    assertFalse(next.isDone());
+
+    task.getValue().run();
+    assertSame(to, next.joinNow());
+  }
+
+  @Test
+  public void testThenAsyncDone() throws Exception {
+    final Executor executor = Mockito.mock(Executor.class);
+
+    final CompletableOptions options =
+      CompletableOptions.builder().monomorphic(true).refCountedCancellation(true).build();
+
+    final ConcurrentCompletable<From> source = new ConcurrentCompletable<>(caller, options);
+    source.complete(result);
+
+    final Stage<To> a = source.thenApplyAsync(v -> to, executor);
+    final Stage<To> b = source.thenComposeAsync(v -> a, executor);
+
+    /* done stages may be shared, so deriving from them must not retain them */
+    assertEquals(0, source.dependents);
+    verify(executor, times(2)).execute(any(Runnable.class));
+    assertFalse(a.isDone());
+    assertFalse(b.isDone());
+  }
+
+  @Test
+  public void testOrTimeout() throws Exception {
+    final HashedWheelTimer timer = Mockito.mock(HashedWheelTimer.class);
+    final HashedWheelTimer.Timeout timeout = Mockito.mock(HashedWheelTimer.Timeout.class);
+    final ArgumentCaptor<HashedWheelTimer.TimerTask> task =
+      ArgumentCaptor.forClass(HashedWheelTimer.TimerTask.class);
+
+    doReturn(timeout)
+      .when(timer)
+      .newTimeout(task.capture(), eq(10L), eq(TimeUnit.MILLISECONDS));
+
+    final Executor timerExecutor = Mockito.mock(Executor.class);
+    final ArgumentCaptor<Runnable> expire = ArgumentCaptor.forClass(Runnable.class);
+    doNothing().when(timerExecutor).execute(expire.capture());
+
+    final ConcurrentCompletable<From> source = new ConcurrentCompletable<>(caller,
+      CompletableOptions.builder().timer(timer).timerExecutor(timerExecutor).build());
+    final Stage<From> stage = source.orTimeout(10L, TimeUnit.MILLISECONDS);
+
+    /* the thread of the timer only hands off to the timer executor */
+    task.getValue().run(timeout);
+    assertFalse(stage.isDone());
+
+    expire.getValue().run();
+    assertTrue(stage.isFailed());
+    assertTrue(stage.cause() instanceof TimeoutException);
+    assertEquals(0, stage.cause().getStackTrace().length);
+    assertFalse(source.isDone());
+  }
+
+  @Test
+  public void testOrTimeoutDoneFirst() throws Exception {
+    final HashedWheelTimer timer = Mockito.mock(HashedWheelTimer.class);
+    final HashedWheelTimer.Timeout timeout = Mockito.mock(HashedWheelTimer.Timeout.class);
+
+    doReturn(timeout)
+      .when(timer)
+      .newTimeout(any(HashedWheelTimer.TimerTask.class), eq(10L), eq(TimeUnit.MILLISECONDS));
+
+    doAnswer(invocation -> {
+      invocation.getArgumentAt(0, Runnable.class).run();
+      return null;
+    }).when(caller).execute(any(Runnable.class));
+
+    final ConcurrentCompletable<From> source =
+      new ConcurrentCompletable<>(caller, CompletableOptions.builder().timer(timer).build());
+    final Stage<From> stage = source.orTimeout(10L, TimeUnit.MILLISECONDS);
+
+    source.complete(result);
+
+    verify(timeout).cancel();
+    assertSame(result, stage.joinNow());
+  }
+
+  @Test
+  public void testOrTimeoutDone() throws Exception {
+    final HashedWheelTimer timer = Mockito.mock(HashedWheelTimer.class);
+
+    final ConcurrentCompletable<From> source =
+      new ConcurrentCompletable<>(caller, CompletableOptions.builder().timer(timer).build());
+    source.complete(result);
+
+    assertSame(source, source.orTimeout(10L, TimeUnit.MILLISECONDS));
+    verify(timer, never()).newTimeout(any(), Mockito.anyLong(), any());
+  }
+
+  @Test
+  public void testCompleteOnTimeout() throws Exception {
+    final HashedWheelTimer timer = Mockito.mock(HashedWheelTimer.class);
+    final HashedWheelTimer.Timeout timeout = Mockito.mock(HashedWheelTimer.Timeout.class);
+    final ArgumentCaptor<HashedWheelTimer.TimerTask> task =
+      ArgumentCaptor.forClass(HashedWheelTimer.TimerTask.class);
+
+    doReturn(timeout)
+      .when(timer)
+      .newTimeout(task.capture(), eq(10L), eq(TimeUnit.MILLISECONDS));
+
+    final ConcurrentCompletable<From> source = new ConcurrentCompletable<>(caller,
+      CompletableOptions.builder().timer(timer).timerExecutor(Runnable::run).build());
+    final Stage<From> stage = source.completeOnTimeout(result, 10L, TimeUnit.MILLISECONDS);
+
+    task.getValue().run(timeout);
+    assertSame(result, stage.joinNow());
+
+    /* the source finishing after the timeout has no effect on the timed out stage */
+    source.complete(null);
+    assertSame(result, stage.joinNow());
+  }
+
   @Test
   public void testThenApplyFailedRunnable() {
     final ConcurrentCompletable<From> target = Mockito.mock(ConcurrentCompletable.class);
@@ -379,7 +1410,7 @@ public class ConcurrentCompletableTest {
 
     order.verify(complete).get();
     order.verify(notComplete).get();
-    order.verify(notCompleteStage).whenDone(any());
+    order.verify(notCompleteStage).whenDone(any(Runnable.class));
 
     verifyNotCompleteRunnable(target, order, notComplete, notCompleteStage, next);
 
@@ -527,17 +1558,17 @@ public class ConcurrentCompletableTest {
       Mockito.spy(new ConcurrentCompletable<>(caller));
 
     public void complete(final From result) {
-      completable.state.set(ConcurrentCompletable.COMPLETED);
+      completable.state = ConcurrentCompletable.COMPLETED;
       completable.result = result;
     }
 
     public void cancel() {
-      completable.state.set(ConcurrentCompletable.CANCELLED);
+      completable.state = ConcurrentCompletable.CANCELLED;
       completable.result = ConcurrentCompletable.CANCEL;
     }
 
     public void fail(final Exception cause) {
-      completable.state.set(ConcurrentCompletable.FAILED);
+      completable.state = ConcurrentCompletable.FAILED;
       completable.result = cause;
     }
   }
@@ -0,0 +1,77 @@
+package eu.toolchain.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.ExecutionException;
+import java.util.function.DoubleConsumer;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ConcurrentDoubleCompletableTest {
+  private static final RuntimeException cause = new RuntimeException();
+
+  @Rule
+  public ExpectedException expected = ExpectedException.none();
+
+  @Mock
+  private DoubleConsumer consumer;
+
+  private final Caller caller = new DirectCaller() {
+    @Override
+    protected void internalError(final String what, final Throwable e) {
+      throw new AssertionError(what, e);
+    }
+  };
+
+  private ConcurrentDoubleCompletable c;
+
+  @Before
+  public void setup() {
+    c = new ConcurrentDoubleCompletable(caller);
+  }
+
+  @Test
+  public void testComplete() throws Exception {
+    c.whenCompleteAsDouble(consumer);
+
+    assertTrue(c.complete(0.5D));
+    assertFalse(c.complete(1.5D));
+
+    verify(consumer).accept(0.5D);
+    assertEquals(0.5D, c.joinAsDouble(), 0D);
+    assertEquals(Double.valueOf(0.5D), c.join());
+  }
+
+  @Test
+  public void testFail() throws Exception {
+    assertTrue(c.fail(cause));
+    assertSame(cause, c.cause());
+
+    expected.expect(ExecutionException.class);
+    c.joinNowAsDouble();
+  }
+
+  @Test
+  public void testThenApplyDouble() throws Exception {
+    final DoubleStage next = c.thenApplyDouble(v -> v * 2D);
+    c.complete(0.25D);
+    assertEquals(0.5D, next.joinNowAsDouble(), 0D);
+  }
+
+  @Test
+  public void testThenApplyAsLong() throws Exception {
+    final LongStage next = c.thenApplyAsLong(Math::round);
+    c.complete(1.75D);
+    assertEquals(2L, next.joinNowAsLong());
+  }
+}
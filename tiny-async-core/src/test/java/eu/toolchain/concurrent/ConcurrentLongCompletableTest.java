@@ -0,0 +1,177 @@
+package eu.toolchain.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.LongConsumer;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ConcurrentLongCompletableTest {
+  private static final RuntimeException cause = new RuntimeException();
+
+  @Rule
+  public ExpectedException expected = ExpectedException.none();
+
+  @Mock
+  private LongConsumer consumer;
+
+  private final Caller caller = new DirectCaller() {
+    @Override
+    protected void internalError(final String what, final Throwable e) {
+      throw new AssertionError(what, e);
+    }
+  };
+
+  private ConcurrentLongCompletable c;
+
+  @Before
+  public void setup() {
+    c = new ConcurrentLongCompletable(caller);
+  }
+
+  @Test
+  public void testComplete() throws Exception {
+    c.whenCompleteAsLong(consumer);
+    verify(consumer, never()).accept(42L);
+
+    assertTrue(c.complete(42L));
+    assertFalse(c.complete(43L));
+
+    verify(consumer).accept(42L);
+    assertTrue(c.isDone());
+    assertTrue(c.isCompleted());
+    assertEquals(42L, c.joinAsLong());
+    assertEquals(42L, c.joinNowAsLong());
+    assertEquals(Long.valueOf(42L), c.join());
+  }
+
+  @Test
+  public void testCompleteBoxed() throws Exception {
+    assertTrue(c.complete(Long.valueOf(42L)));
+    assertEquals(42L, c.joinNowAsLong());
+  }
+
+  @Test
+  public void testCompleteBoxedNull() throws Exception {
+    assertTrue(c.complete((Long) null));
+    assertTrue(c.isFailed());
+    assertTrue(c.cause() instanceof NullPointerException);
+  }
+
+  @Test
+  public void testDerivedKeepsOptions() throws Exception {
+    final CompletableOptions options = CompletableOptions.builder().build();
+    final ConcurrentCompletable<String> source = new ConcurrentCompletable<>(caller, options);
+    source.complete("hello");
+
+    final ConcurrentLongCompletable next =
+      (ConcurrentLongCompletable) source.thenApplyAsLong(String::length);
+
+    assertSame(options, next.options);
+    assertEquals(5L, next.joinNowAsLong());
+  }
+
+  @Test
+  public void testFail() throws Exception {
+    c.whenCompleteAsLong(consumer);
+    assertTrue(c.fail(cause));
+
+    verify(consumer, never()).accept(0L);
+    assertTrue(c.isFailed());
+    assertSame(cause, c.cause());
+
+    expected.expect(ExecutionException.class);
+    c.joinNowAsLong();
+  }
+
+  @Test
+  public void testCancel() throws Exception {
+    assertTrue(c.cancel());
+    assertTrue(c.isCancelled());
+
+    expected.expect(CancellationException.class);
+    c.joinNowAsLong();
+  }
+
+  @Test
+  public void testJoinNowNotDone() throws Exception {
+    expected.expect(IllegalStateException.class);
+    c.joinNowAsLong();
+  }
+
+  @Test
+  public void testThenApplyLong() throws Exception {
+    final LongStage next = c.thenApplyLong(v -> v * 2).thenApplyLong(v -> v + 1);
+    c.complete(20L);
+    assertEquals(41L, next.joinNowAsLong());
+  }
+
+  @Test
+  public void testThenApplyLongThrows() throws Exception {
+    final LongStage next = c.thenApplyLong(v -> {
+      throw cause;
+    });
+
+    c.complete(20L);
+    assertTrue(next.isFailed());
+    assertSame(cause, next.cause());
+  }
+
+  @Test
+  public void testThenApplyLongCancelUpstream() throws Exception {
+    final LongStage next = c.thenApplyLong(v -> v * 2);
+    next.cancel();
+    assertTrue(c.isCancelled());
+  }
+
+  @Test
+  public void testThenApplyAsLong() throws Exception {
+    final ConcurrentCompletable<String> source = new ConcurrentCompletable<>(caller);
+    final LongStage next = source.thenApplyAsLong(String::length);
+
+    source.complete("hello");
+    assertEquals(5L, next.joinNowAsLong());
+
+    /* source is already done */
+    assertEquals(5L, source.thenApplyAsLong(String::length).joinNowAsLong());
+  }
+
+  @Test
+  public void testThenApplyAsLongFailed() throws Exception {
+    final ConcurrentCompletable<String> source = new ConcurrentCompletable<>(caller);
+    final LongStage next = source.thenApplyAsLong(String::length);
+
+    source.fail(cause);
+    assertTrue(next.isFailed());
+    assertSame(cause, next.cause());
+  }
+
+  @Test
+  public void testThenApplyAsDouble() throws Exception {
+    final DoubleStage next = c.thenApplyAsDouble(v -> v / 2D);
+
+    c.complete(5L);
+    assertEquals(2.5D, next.joinNowAsDouble(), 0D);
+  }
+
+  @Test
+  public void testThenApply() throws Exception {
+    final Stage<String> next = c.thenApply(Long::toHexString);
+
+    c.complete(255L);
+    assertEquals("ff", next.joinNow());
+  }
+}
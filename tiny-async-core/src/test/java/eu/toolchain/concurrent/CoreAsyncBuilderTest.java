@@ -1,9 +1,16 @@
 package eu.toolchain.concurrent;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
 import static org.mockito.Mockito.mock;
 
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import org.junit.Before;
 import org.junit.Rule;
@@ -44,6 +51,13 @@ public class CoreAsyncBuilderTest {
     builder().caller(null);
   }
 
+  @Test
+  public void testBuilderNullCompletableOptions() {
+    except.expect(NullPointerException.class);
+    except.expectMessage("completableOptions");
+    builder().completableOptions(null);
+  }
+
   @Test
   public void testBuilderThreadedWithoutExecutor() {
     except.expect(IllegalStateException.class);
@@ -76,6 +90,103 @@ public class CoreAsyncBuilderTest {
     assertEquals(executor, async.executor());
   }
 
+  @Test
+  public void testBuilderCallerBatchSize() {
+    final CoreAsync async = builder().callerBatchSize(64).executor(executor).build();
+    assertTrue(async.caller() instanceof BatchingExecutorCaller);
+  }
+
+  @Test
+  public void testBuilderInvalidCallerBatchSize() {
+    except.expect(IllegalArgumentException.class);
+    except.expectMessage("callerBatchSize");
+    builder().callerBatchSize(0);
+  }
+
+  @Test
+  public void testBuilderVirtualThreads() {
+    assumeTrue(VirtualThreads.isAvailable());
+
+    final CoreAsync async = builder().virtualThreads(true).build();
+    assertNotNull(async.executor());
+    async.executor().shutdown();
+  }
+
+  @Test
+  public void testBuilderVirtualThreadsUnavailable() {
+    assumeFalse(VirtualThreads.isAvailable());
+
+    except.expect(IllegalStateException.class);
+    except.expectMessage("virtual threads require Java 21 or later");
+    builder().virtualThreads(true).build();
+  }
+
+  @Test
+  public void testBuilderVirtualThreadsExplicitExecutor() {
+    final CoreAsync async = builder().virtualThreads(true).executor(executor).build();
+    assertEquals(executor, async.executor());
+  }
+
+  @Test
+  public void testBuilderVirtualThreadCallerUnavailable() {
+    assumeFalse(VirtualThreads.isAvailable());
+
+    except.expect(IllegalStateException.class);
+    except.expectMessage("virtual threads require Java 21 or later");
+    builder().virtualThreadCaller(true).build();
+  }
+
+  @Test
+  public void testBuilderVirtualThreadCallerToggled() {
+    final CoreAsync async =
+        builder().virtualThreadCaller(true).virtualThreadCaller(false).caller(caller).build();
+    assertEquals(caller, async.caller());
+  }
+
+  @Test
+  public void testBuilderVirtualThreadCallerExplicitExecutor() {
+    final CoreAsync async =
+        builder().virtualThreadCaller(true).callerExecutor(executor).caller(caller).build();
+    assertTrue(async.caller() instanceof ExecutorCaller);
+  }
+
+  @Test
+  public void testBuilderFailFastCollect() throws Exception {
+    final CoreAsync async = builder()
+        .completableOptions(CompletableOptions.builder().failFastCollect(true).build())
+        .build();
+
+    final Completable<Object> a = async.completable();
+    final Completable<Object> b = async.completable();
+    final RuntimeException cause = new RuntimeException();
+
+    final Stage<Collection<Object>> collected = async.collect(ImmutableList.of(a, b));
+
+    a.fail(cause);
+    assertTrue(collected.isFailed());
+    assertEquals(cause, collected.cause());
+    assertTrue(b.isCancelled());
+  }
+
+  @Test
+  public void testBuilderSerializedStreamCollect() throws Exception {
+    final CoreAsync async = builder()
+        .completableOptions(CompletableOptions.builder().serializedStreamCollect(true).build())
+        .build();
+
+    final Completable<Integer> a = async.completable();
+    final Completable<Integer> b = async.completable();
+    final List<Integer> results = new ArrayList<>();
+
+    final Stage<List<Integer>> collected =
+        async.streamCollect(ImmutableList.of(a, b), results::add, () -> results);
+
+    b.complete(2);
+    a.complete(1);
+
+    assertEquals(ImmutableList.of(2, 1), collected.join());
+  }
+
   @Test
   public void setupThreadedCaller() {
     final Caller caller = mock(Caller.class);
@@ -2,7 +2,10 @@ package eu.toolchain.concurrent;
 
 import static eu.toolchain.concurrent.CoreAsync.buildCollectedException;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyCollection;
@@ -22,10 +25,16 @@ import static org.mockito.Mockito.when;
 import com.google.common.collect.ImmutableList;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -34,6 +43,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.invocation.InvocationOnMock;
@@ -157,27 +167,49 @@ public class CoreAsyncTest {
     @SuppressWarnings("unchecked") final Callable<Object> callable = mock(Callable.class);
 
     doReturn(executor).when(underTest).executor();
-    doReturn(completable).when(underTest).completable();
-    doReturn(future).when(underTest).doCall(callable, executor, completable);
+    doReturn(future).when(underTest).doCall(callable, executor);
 
     assertEquals(future, underTest.call(callable));
 
     verify(underTest).executor();
-    verify(underTest).completable();
-    verify(underTest).doCall(callable, executor, completable);
+    verify(underTest).doCall(callable, executor);
   }
 
   @Test
   public void testCall2() throws Exception {
     @SuppressWarnings("unchecked") final Callable<Object> callable = mock(Callable.class);
 
-    doReturn(completable).when(underTest).completable();
-    doReturn(future).when(underTest).doCall(callable, executor, completable);
+    doReturn(future).when(underTest).doCall(callable, executor);
 
     assertEquals(future, underTest.call(callable, executor));
 
-    verify(underTest).completable();
-    verify(underTest).doCall(callable, executor, completable);
+    verify(underTest).doCall(callable, executor);
+  }
+
+  @Test
+  public void testCallTask() throws Exception {
+    doAnswer(invocation -> {
+      invocation.getArgumentAt(0, Runnable.class).run();
+      return null;
+    }).when(executor).execute(any(Runnable.class));
+
+    when(callable.call()).thenReturn(result);
+
+    final Stage<Object> stage = underTest.doCall(callable, executor);
+
+    assertTrue(stage instanceof CallTask);
+    assertEquals(result, stage.joinNow());
+    verify(executor, never()).submit(any(Runnable.class));
+  }
+
+  @Test
+  public void testCallTaskExecuteThrows() throws Exception {
+    doThrow(e).when(executor).execute(any(Runnable.class));
+
+    final Stage<Object> stage = underTest.doCall(callable, executor);
+
+    assertEquals(e, stage.cause());
+    verify(callable, never()).call();
   }
 
   @Test
@@ -390,14 +422,14 @@ public class CoreAsyncTest {
     final Collection<Stage<Object>> futures = ImmutableList.of(f1, f2);
 
     doReturn(completable).when(underTest).completable();
-    doNothing().when(underTest).bindSignals(completable, futures);
 
     assertEquals(completable, underTest.doCollect(futures, collector));
 
     verify(underTest).completable();
-    verify(underTest).bindSignals(completable, futures);
-    verify(f1).handle(any(CollectHelper.class));
-    verify(f2).handle(any(CollectHelper.class));
+    verify(underTest, never()).bindSignals(completable, futures);
+    verify(completable).whenCancelled(any(Runnable.class));
+    verify(f1).handle(any(CollectHelper.Slot.class));
+    verify(f2).handle(any(CollectHelper.Slot.class));
   }
 
   @SuppressWarnings("unchecked")
@@ -464,8 +496,8 @@ public class CoreAsyncTest {
 
     verify(underTest).completable();
     verify(underTest).bindSignals(completable, futures);
-    verify(f1).handle(any(CollectHelper.class));
-    verify(f2).handle(any(CollectHelper.class));
+    verify(f1).handle(any(StreamCollectHelper.class));
+    verify(f2).handle(any(StreamCollectHelper.class));
   }
 
   @Test
@@ -532,11 +564,159 @@ public class CoreAsyncTest {
     verify(f2).handle(any(CollectAndDiscardHelper.class));
   }
 
+  @Test
+  public void testCollectLongsEmpty() throws Exception {
+    final Collection<LongStage> stages = mock(Collection.class);
+    doReturn(true).when(stages).isEmpty();
+    doReturn(future).when(underTest).completed(any(long[].class));
+
+    assertEquals(future, underTest.collectLongs(stages));
+
+    verify(stages).isEmpty();
+    verify(underTest).completed(any(long[].class));
+    verify(underTest, never()).doCollectLongs(stages);
+  }
+
+  @Test
+  public void testCollectLongs() throws Exception {
+    final Collection<LongStage> stages = mock(Collection.class);
+    doReturn(false).when(stages).isEmpty();
+    doReturn(future).when(underTest).doCollectLongs(stages);
+
+    assertEquals(future, underTest.collectLongs(stages));
+
+    verify(stages).isEmpty();
+    verify(underTest).doCollectLongs(stages);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testDoCollectLongs() throws Exception {
+    final LongStage l1 = mock(LongStage.class);
+    final LongStage l2 = mock(LongStage.class);
+    final Collection<LongStage> stages = ImmutableList.of(l1, l2);
+
+    doReturn(completable).when(underTest).completable();
+    doNothing().when(underTest).bindSignals(completable, stages);
+
+    assertEquals(completable, underTest.doCollectLongs(stages));
+
+    verify(underTest).completable();
+    verify(underTest).bindSignals(completable, stages);
+    verify(l1).whenDone(any(CollectLongsHelper.class));
+    verify(l2).whenDone(any(CollectLongsHelper.class));
+  }
+
+  @Test
+  public void testReduceLongs() throws Exception {
+    final Collection<LongStage> stages = mock(Collection.class);
+    doReturn(new ImmediateCompleted<>(caller, new long[]{1L, 2L, 3L}))
+        .when(underTest)
+        .collectLongs(stages);
+
+    assertEquals(6L, underTest.reduceLongs(stages, 0L, Long::sum).joinNowAsLong());
+  }
+
+  @Test
+  public void testDelay() throws Exception {
+    final HashedWheelTimer timer = mock(HashedWheelTimer.class);
+    final HashedWheelTimer.Timeout timeout = mock(HashedWheelTimer.Timeout.class);
+    final ArgumentCaptor<HashedWheelTimer.TimerTask> task =
+        ArgumentCaptor.forClass(HashedWheelTimer.TimerTask.class);
+
+    final Executor timerExecutor = mock(Executor.class);
+
+    underTest = new CoreAsync(executor, null, caller, clockSource, ManagedOptions.newDefault(),
+        CompletableOptions.builder().timer(timer).timerExecutor(timerExecutor).build());
+
+    doReturn(timeout).when(timer).newTimeout(task.capture(), eq(10L), eq(TimeUnit.SECONDS));
+
+    final Stage<Void> delay = underTest.delay(10L, TimeUnit.SECONDS);
+    assertFalse(delay.isDone());
+
+    final ArgumentCaptor<Runnable> handoff = ArgumentCaptor.forClass(Runnable.class);
+    doNothing().when(timerExecutor).execute(handoff.capture());
+
+    /* the timer thread only hands off to the timer executor */
+    task.getValue().run(timeout);
+    assertFalse(delay.isDone());
+    verify(caller, never()).execute(any(Runnable.class));
+
+    handoff.getValue().run();
+    assertTrue(delay.isCompleted());
+  }
+
+  @Test
+  public void testDelayContinuationOffTimerThread() throws Exception {
+    final ExecutorService timerExecutor =
+        Executors.newSingleThreadExecutor(r -> new Thread(r, "timer-executor"));
+
+    try {
+      underTest = new CoreAsync(executor, null, new DirectCaller() {
+        @Override
+        protected void internalError(final String what, final Throwable e) {
+          throw new AssertionError(what, e);
+        }
+      }, clockSource, ManagedOptions.newDefault(),
+          CompletableOptions.builder().timerExecutor(timerExecutor).build());
+
+      final Thread thread = underTest
+          .delay(10L, TimeUnit.MILLISECONDS)
+          .thenApply(v -> Thread.currentThread())
+          .join(10L, TimeUnit.SECONDS);
+
+      assertEquals("timer-executor", thread.getName());
+    } finally {
+      timerExecutor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testRetryDelayDefaultsToTimer() throws Exception {
+    doReturn(future).when(underTest).delay(10L, TimeUnit.MILLISECONDS);
+    assertEquals(future, underTest.retryDelay(10L));
+  }
+
+  @Test
+  public void testRetryDelayScheduler() throws Exception {
+    final ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+    final ScheduledFuture<?> scheduled = mock(ScheduledFuture.class);
+
+    underTest =
+        spy(new CoreAsync(executor, scheduler, caller, clockSource, ManagedOptions.newDefault(),
+            CompletableOptions.newDefault()));
+
+    doReturn(scheduled)
+        .when(scheduler)
+        .schedule(any(Callable.class), eq(10L), eq(TimeUnit.MILLISECONDS));
+
+    final Stage<Void> delay = underTest.retryDelay(10L);
+
+    verify(underTest, never()).delay(10L, TimeUnit.MILLISECONDS);
+    verify(scheduler).schedule(any(Callable.class), eq(10L), eq(TimeUnit.MILLISECONDS));
+    assertFalse(delay.isDone());
+  }
+
   @Test
   public void testFuture() {
     assertTrue(underTest.completable() instanceof ConcurrentCompletable);
   }
 
+  @Test
+  public void testLocalCompletable() {
+    assertTrue(underTest.localCompletable() instanceof LocalCompletable);
+  }
+
+  @Test
+  public void testLongCompletable() {
+    assertTrue(underTest.longCompletable() instanceof ConcurrentLongCompletable);
+  }
+
+  @Test
+  public void testDoubleCompletable() {
+    assertTrue(underTest.doubleCompletable() instanceof ConcurrentDoubleCompletable);
+  }
+
   @Test
   public void testResolved0() {
     doReturn(future).when(underTest).completed(null);
@@ -559,6 +739,48 @@ public class CoreAsyncTest {
     assertTrue(underTest.cancelled() instanceof ImmediateCancelled);
   }
 
+  @Test
+  public void testCompletedShared() {
+    assertSame(underTest.completed(), underTest.completed(null));
+    assertSame(underTest.completed(true), underTest.completed(Boolean.TRUE));
+    assertSame(underTest.completed(false), underTest.completed(Boolean.FALSE));
+    assertSame(underTest.completed(Collections.emptyList()),
+        underTest.completed(Collections.emptyList()));
+    assertSame(underTest.completed(Collections.emptySet()),
+        underTest.completed(Collections.emptySet()));
+    assertSame(underTest.completed(Collections.emptyMap()),
+        underTest.completed(Collections.emptyMap()));
+
+    assertNotSame(underTest.completed(result), underTest.completed(result));
+    assertNotSame(underTest.completed(new ArrayList<>()), underTest.completed(new ArrayList<>()));
+  }
+
+  @Test
+  public void testCancelledShared() {
+    assertSame(underTest.cancelled(), underTest.cancelled());
+  }
+
+  @Test
+  public void testMonomorphic() throws Exception {
+    underTest = new CoreAsync(executor, null, caller, clockSource, ManagedOptions.newDefault(),
+        CompletableOptions.builder().monomorphic(true).build());
+
+    final Stage<Object> completed = underTest.completed(result);
+    final Stage<Object> failed = underTest.failed(e);
+    final Stage<Object> cancelled = underTest.cancelled();
+
+    assertTrue(completed instanceof ConcurrentCompletable);
+    assertTrue(failed instanceof ConcurrentCompletable);
+    assertTrue(cancelled instanceof ConcurrentCompletable);
+
+    assertEquals(result, completed.joinNow());
+    assertEquals(e, failed.cause());
+    assertTrue(cancelled.isCancelled());
+
+    assertTrue(underTest.completed() instanceof ConcurrentCompletable);
+    assertSame(underTest.completed(), underTest.completed(null));
+  }
+
   @Test
   public void testManaged() {
     final Supplier<? extends Stage<Object>> setup = mock(Supplier.class);
@@ -598,4 +820,23 @@ public class CoreAsyncTest {
     final Throwable e = buildCollectedException(errors);
     assertEquals(b, e.getSuppressed()[0]);
   }
+
+  @Test
+  public void testBuildCollectedExceptionDropped() {
+    final List<Throwable> errors = new ArrayList<>();
+
+    for (int i = 0; i < CoreAsync.MAX_SUPPRESSED + 11; i++) {
+      errors.add(new Exception("error" + i));
+    }
+
+    final Throwable e = buildCollectedException(errors);
+    final Throwable[] suppressed = e.getSuppressed();
+
+    assertEquals(CoreAsync.MAX_SUPPRESSED + 1, suppressed.length);
+    assertEquals(errors.get(1), suppressed[0]);
+
+    final DroppedErrorsException dropped =
+        (DroppedErrorsException) suppressed[CoreAsync.MAX_SUPPRESSED];
+    assertEquals(10, dropped.getDropped());
+  }
 }
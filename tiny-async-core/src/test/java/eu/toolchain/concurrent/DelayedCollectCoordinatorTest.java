@@ -121,4 +121,51 @@ public class DelayedCollectCoordinatorTest {
 
     verify(consumer, times(1)).accept(result);
   }
+
+  @Test
+  public void testParallelism() throws Exception {
+    final List<Callable<Stage<Object>>> callables =
+        ImmutableList.of(callable, callable2, callable3, callable4);
+
+    final DelayedCollectCoordinator<Object, Object> coordinator =
+        new DelayedCollectCoordinator<Object, Object>(caller, callables, consumer, supplier, future,
+            2);
+
+    final Object result = new Object();
+
+    coordinator.run();
+
+    verify(f).handle(coordinator);
+    verify(f2).handle(coordinator);
+    verify(callable3, never()).call();
+
+    coordinator.completed(result);
+    verify(f3).handle(coordinator);
+    verify(callable4, never()).call();
+
+    coordinator.completed(result);
+    coordinator.completed(result);
+    verify(f4).handle(coordinator);
+    verify(supplier, never()).get();
+
+    coordinator.completed(result);
+    verify(supplier).get();
+    verify(future).complete(any());
+  }
+
+  @Test
+  public void testCallableThrows() throws Exception {
+    final List<Callable<Stage<Object>>> callables = ImmutableList.of(callable, callable2);
+
+    when(callable.call()).thenThrow(new Exception());
+
+    final DelayedCollectCoordinator<Object, Object> coordinator =
+        new DelayedCollectCoordinator<Object, Object>(caller, callables, consumer, supplier, future,
+            1);
+
+    coordinator.run();
+
+    verify(callable2, never()).call();
+    verify(supplier).get();
+  }
 }
@@ -2,12 +2,17 @@ package eu.toolchain.concurrent;
 
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import java.util.Arrays;
 import java.util.concurrent.ExecutorService;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.InOrder;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
@@ -48,6 +53,59 @@ public class ExecutorCallerTest {
     verify(runnable).run();
   }
 
+  @Test
+  public void testExecuteAllChunks() {
+    final Runnable a = mock(Runnable.class);
+    final Runnable b = mock(Runnable.class);
+    final Runnable c = mock(Runnable.class);
+
+    underTest = new ExecutorCaller(executor, caller, 2);
+    underTest.executeAll(Arrays.asList(a, b, c));
+
+    /* one task for a and b, and c on its own */
+    verify(executor, times(2)).execute(any(Runnable.class));
+    verify(executor).execute(c);
+
+    final InOrder order = inOrder(a, b, c);
+    order.verify(a).run();
+    order.verify(b).run();
+    order.verify(c).run();
+  }
+
+  @Test
+  public void testExecuteAllSingleTask() {
+    final Runnable a = mock(Runnable.class);
+    final Runnable b = mock(Runnable.class);
+
+    underTest.executeAll(Arrays.asList(a, b));
+
+    verify(executor, times(1)).execute(any(Runnable.class));
+    verify(a).run();
+    verify(b).run();
+  }
+
+  @Test
+  public void testExecuteAllThrowingRunnable() {
+    final Runnable a = mock(Runnable.class);
+    final Runnable b = mock(Runnable.class);
+    final Thread.UncaughtExceptionHandler handler = mock(Thread.UncaughtExceptionHandler.class);
+    final RuntimeException e = new RuntimeException();
+    final Thread t = Thread.currentThread();
+    final Thread.UncaughtExceptionHandler original = t.getUncaughtExceptionHandler();
+
+    doThrow(e).when(a).run();
+    t.setUncaughtExceptionHandler(handler);
+
+    try {
+      underTest.executeAll(Arrays.asList(a, b));
+    } finally {
+      t.setUncaughtExceptionHandler(original);
+    }
+
+    verify(handler).uncaughtException(t, e);
+    verify(b).run();
+  }
+
   @Test
   public void testLeakedManagedReference() {
     underTest.referenceLeaked(result, stack);
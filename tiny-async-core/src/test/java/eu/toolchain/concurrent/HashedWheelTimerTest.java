@@ -0,0 +1,118 @@
+package eu.toolchain.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class HashedWheelTimerTest {
+  @Rule
+  public ExpectedException expected = ExpectedException.none();
+
+  private HashedWheelTimer timer;
+
+  @Before
+  public void setup() {
+    /* a tiny wheel, so that timeouts have to go around it a couple of times */
+    timer = new HashedWheelTimer(Executors.defaultThreadFactory(), 1, TimeUnit.MILLISECONDS, 4);
+  }
+
+  @After
+  public void teardown() {
+    timer.stop();
+  }
+
+  @Test
+  public void testRoundToPowerOfTwo() {
+    assertEquals(1, HashedWheelTimer.roundToPowerOfTwo(1));
+    assertEquals(4, HashedWheelTimer.roundToPowerOfTwo(3));
+    assertEquals(4, HashedWheelTimer.roundToPowerOfTwo(4));
+    assertEquals(512, HashedWheelTimer.roundToPowerOfTwo(500));
+  }
+
+  @Test
+  public void testExpire() throws Exception {
+    final CountDownLatch latch = new CountDownLatch(1);
+    final long start = System.nanoTime();
+
+    final HashedWheelTimer.Timeout timeout =
+      timer.newTimeout(t -> latch.countDown(), 20, TimeUnit.MILLISECONDS);
+
+    assertTrue(latch.await(10, TimeUnit.SECONDS));
+    assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+    assertTrue(timeout.isExpired());
+    assertFalse(timeout.cancel());
+  }
+
+  @Test
+  public void testErrorDoesNotStopTimer() throws Exception {
+    final AtomicInteger errors = new AtomicInteger();
+    final CountDownLatch latch = new CountDownLatch(1);
+
+    timer.stop();
+    timer = new HashedWheelTimer(runnable -> {
+      final Thread thread = new Thread(runnable);
+      thread.setUncaughtExceptionHandler((t, e) -> errors.incrementAndGet());
+      return thread;
+    }, 1, TimeUnit.MILLISECONDS, 4);
+
+    timer.newTimeout(t -> {
+      throw new AssertionError("error in task");
+    }, 10, TimeUnit.MILLISECONDS);
+    timer.newTimeout(t -> latch.countDown(), 30, TimeUnit.MILLISECONDS);
+
+    assertTrue(latch.await(10, TimeUnit.SECONDS));
+    assertEquals(1, errors.get());
+  }
+
+  @Test
+  public void testLongDelayDoesNotOverflow() throws Exception {
+    final AtomicInteger expired = new AtomicInteger();
+    final CountDownLatch latch = new CountDownLatch(1);
+
+    final HashedWheelTimer.Timeout timeout =
+      timer.newTimeout(t -> expired.incrementAndGet(), Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    timer.newTimeout(t -> latch.countDown(), 20, TimeUnit.MILLISECONDS);
+
+    assertTrue(latch.await(10, TimeUnit.SECONDS));
+    assertEquals(0, expired.get());
+    assertFalse(timeout.isExpired());
+  }
+
+  @Test
+  public void testCancel() throws Exception {
+    final AtomicInteger cancelled = new AtomicInteger();
+    final CountDownLatch latch = new CountDownLatch(1);
+
+    final HashedWheelTimer.Timeout timeout =
+      timer.newTimeout(t -> cancelled.incrementAndGet(), 10, TimeUnit.MILLISECONDS);
+    assertTrue(timeout.cancel());
+    assertFalse(timeout.cancel());
+    assertTrue(timeout.isCancelled());
+
+    /* timeouts expire in order, so once this one has the cancelled one would have too */
+    timer.newTimeout(t -> latch.countDown(), 30, TimeUnit.MILLISECONDS);
+
+    assertTrue(latch.await(10, TimeUnit.SECONDS));
+    assertEquals(0, cancelled.get());
+    assertFalse(timeout.isExpired());
+  }
+
+  @Test
+  public void testStopped() {
+    timer.stop();
+
+    expected.expect(IllegalStateException.class);
+    timer.newTimeout(t -> {
+    }, 10, TimeUnit.MILLISECONDS);
+  }
+}
@@ -2,6 +2,7 @@ package eu.toolchain.concurrent;
 
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
@@ -14,8 +15,10 @@ import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import java.util.Arrays;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -77,6 +80,22 @@ public abstract class ImmediateAsyncFutureTestBase {
     }).when(caller).execute(any(Runnable.class));
   }
 
+  @Test
+  public void testSubscribe() throws Exception {
+    final Subscription subscription = underTest.subscribe(finished);
+    verify(caller).execute(finished);
+    verify(finished).run();
+    assertFalse(subscription.unsubscribe());
+  }
+
+  @Test
+  public void testWhenDoneCollection() throws Exception {
+    final Runnable other = mock(Runnable.class);
+
+    assertEquals(underTest, underTest.whenDone(Arrays.asList(finished, other)));
+    verify(caller).executeAll(Arrays.asList(finished, other));
+  }
+
   @Test
   public void testIsDone() throws Exception {
     assertTrue(underTest.isDone());
@@ -154,6 +173,48 @@ public abstract class ImmediateAsyncFutureTestBase {
     verify(fn, completed()).apply(result);
   }
 
+  @SuppressWarnings("unchecked")
+  @Test
+  public void thenApplyAsync() throws Exception {
+    final Function<From, To> fn = mock(Function.class);
+    final Executor executor = mock(Executor.class);
+
+    doReturn(to).when(fn).apply(result);
+    doAnswer(invocation -> {
+      invocation.getArgumentAt(0, Runnable.class).run();
+      return null;
+    }).when(executor).execute(any(Runnable.class));
+
+    final Stage<To> stage = underTest.thenApplyAsync(fn, executor);
+
+    assertEquals(isResolved(), stage.isCompleted());
+    assertEquals(isFailed(), stage.isFailed());
+    assertEquals(isCancelled(), stage.isCancelled());
+    verify(executor, completed()).execute(any(Runnable.class));
+    verify(fn, completed()).apply(result);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void thenComposeAsync() throws Exception {
+    final Function<From, Stage<To>> fn = mock(Function.class);
+    final Executor executor = mock(Executor.class);
+
+    doReturn(toFuture).when(fn).apply(result);
+    doReturn(toFuture).when(toFuture).handle(any());
+    doAnswer(invocation -> {
+      invocation.getArgumentAt(0, Runnable.class).run();
+      return null;
+    }).when(executor).execute(any(Runnable.class));
+
+    final Stage<To> stage = underTest.thenComposeAsync(fn, executor);
+
+    assertEquals(isFailed(), stage.isFailed());
+    assertEquals(isCancelled(), stage.isCancelled());
+    verify(executor, completed()).execute(any(Runnable.class));
+    verify(toFuture, completed()).handle(any());
+  }
+
   @SuppressWarnings("unchecked")
   @Test
   public void thenCompose() throws Exception {
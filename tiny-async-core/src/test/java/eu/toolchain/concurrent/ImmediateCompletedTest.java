@@ -1,5 +1,11 @@
 package eu.toolchain.concurrent;
 
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+import org.junit.Test;
+
 public class ImmediateCompletedTest extends ImmediateAsyncFutureTestBase {
   @Override
   protected AbstractImmediate<From> setupFuture(
@@ -12,4 +18,14 @@ public class ImmediateCompletedTest extends ImmediateAsyncFutureTestBase {
   protected ExpectedState setupState() {
     return ExpectedState.COMPLETED;
   }
+
+  @Test
+  public void testThenApplySameResult() {
+    final Object value = new Object();
+    final ImmediateCompleted<Object> completed =
+        new ImmediateCompleted<>(mock(Caller.class), value);
+
+    assertSame(completed, completed.thenApply(v -> v));
+    assertNotSame(completed, completed.thenApply(v -> new Object()));
+  }
 }
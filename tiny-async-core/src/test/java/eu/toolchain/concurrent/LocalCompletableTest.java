@@ -0,0 +1,367 @@
+package eu.toolchain.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.mockito.InOrder;
+
+public class LocalCompletableTest {
+  @Rule
+  public ExpectedException except = ExpectedException.none();
+
+  private final Object result = new Object();
+  private final RuntimeException cause = new RuntimeException();
+
+  private Caller caller;
+  private LocalCompletable<Object> completable;
+
+  @Before
+  public void setup() {
+    caller = new DirectCaller() {
+      @Override
+      protected void internalError(final String what, final Throwable e) {
+        throw new AssertionError(what, e);
+      }
+    };
+
+    completable = new LocalCompletable<>(caller, CompletableOptions.newDefault());
+  }
+
+  @Test
+  public void testComplete() throws Exception {
+    final Runnable a = mock(Runnable.class);
+    final Runnable b = mock(Runnable.class);
+
+    completable.whenDone(a);
+    completable.whenDone(b);
+
+    assertTrue(completable.complete(result));
+    assertFalse(completable.complete(result));
+    assertFalse(completable.fail(cause));
+    assertFalse(completable.cancel());
+
+    assertTrue(completable.isDone());
+    assertTrue(completable.isCompleted());
+    assertSame(result, completable.join());
+    assertNull(completable.listeners);
+
+    final InOrder order = inOrder(a, b);
+    order.verify(a).run();
+    order.verify(b).run();
+  }
+
+  @Test
+  public void testManyListeners() {
+    final Runnable[] runnables = new Runnable[LocalCompletable.INITIAL_LISTENERS * 3];
+
+    for (int i = 0; i < runnables.length; i++) {
+      runnables[i] = mock(Runnable.class);
+      completable.whenDone(runnables[i]);
+    }
+
+    completable.complete(result);
+
+    for (final Runnable runnable : runnables) {
+      verify(runnable).run();
+    }
+  }
+
+  @Test
+  public void testFail() throws Exception {
+    @SuppressWarnings("unchecked")
+    final Consumer<Throwable> consumer = mock(Consumer.class);
+
+    completable.whenFailed(consumer);
+
+    assertTrue(completable.fail(cause));
+    assertTrue(completable.isFailed());
+    assertSame(cause, completable.cause());
+    verify(consumer).accept(cause);
+
+    except.expect(ExecutionException.class);
+    completable.joinNow();
+  }
+
+  @Test
+  public void testCancel() throws Exception {
+    final Runnable runnable = mock(Runnable.class);
+
+    completable.whenCancelled(runnable);
+
+    assertTrue(completable.cancel());
+    assertTrue(completable.isCancelled());
+    verify(runnable).run();
+
+    except.expect(CancellationException.class);
+    completable.joinNow();
+  }
+
+  @Test
+  public void testJoinPending() throws Exception {
+    except.expect(IllegalStateException.class);
+    completable.join();
+  }
+
+  @Test
+  public void testListenersRunOnCompletingThread() {
+    /* a caller that hands off to another thread must not be used */
+    final Caller threaded = mock(Caller.class);
+    final LocalCompletable<Object> local =
+        new LocalCompletable<>(threaded, CompletableOptions.newDefault());
+
+    final Runnable a = mock(Runnable.class);
+    final Runnable b = mock(Runnable.class);
+    local.whenDone(a);
+
+    assertTrue(local.complete(result));
+    local.whenDone(b);
+
+    verify(a).run();
+    verify(b).run();
+    verifyZeroInteractions(threaded);
+  }
+
+  @Test
+  public void testWhenDoneAfterCompletion() {
+    final Runnable runnable = mock(Runnable.class);
+
+    completable.complete(result);
+    completable.whenDone(runnable);
+    verify(runnable).run();
+  }
+
+  @Test
+  public void testSubscribe() {
+    final Runnable a = mock(Runnable.class);
+    final Runnable b = mock(Runnable.class);
+
+    final Subscription subscription = completable.subscribe(a);
+    completable.whenDone(b);
+
+    assertTrue(subscription.unsubscribe());
+    assertFalse(subscription.unsubscribe());
+
+    completable.complete(result);
+    verify(a, never()).run();
+    verify(b).run();
+  }
+
+  @Test
+  public void testThenApply() throws Exception {
+    final Stage<Integer> a = completable.thenApply(v -> 1);
+    final Stage<Integer> b = a.thenApply(v -> v + 1);
+
+    assertTrue(b instanceof LocalCompletable);
+    assertFalse(b.isDone());
+
+    completable.complete(result);
+    assertEquals(Integer.valueOf(2), b.join());
+  }
+
+  @Test
+  public void testDeepChain() throws Exception {
+    Stage<Integer> stage = completable.thenApply(v -> 0);
+
+    for (int i = 0; i < 100000; i++) {
+      stage = stage.thenApply(v -> v + 1);
+    }
+
+    completable.complete(result);
+    assertEquals(Integer.valueOf(100000), stage.join());
+  }
+
+  @Test
+  public void testThenApplyThrows() throws Exception {
+    final Stage<Object> a = completable.thenApply(v -> {
+      throw cause;
+    });
+
+    completable.complete(result);
+    assertSame(cause, a.cause());
+  }
+
+  @Test
+  public void testThenApplyFailed() throws Exception {
+    final Stage<Object> a = completable.thenApply(v -> result).thenApplyFailed(e -> e);
+
+    completable.fail(cause);
+    assertSame(cause, a.join());
+  }
+
+  @Test
+  public void testThenCompose() throws Exception {
+    final LocalCompletable<Object> next =
+        new LocalCompletable<>(caller, CompletableOptions.newDefault());
+    final Stage<Object> a = completable.thenCompose(v -> next);
+
+    completable.complete(result);
+    assertFalse(a.isDone());
+
+    next.complete(result);
+    assertSame(result, a.join());
+  }
+
+  @Test
+  public void testThenComposeCancelInner() throws Exception {
+    final LocalCompletable<Object> next =
+        new LocalCompletable<>(caller, CompletableOptions.newDefault());
+    final Stage<Object> a = completable.thenCompose(v -> next);
+
+    completable.complete(result);
+    assertTrue(a.cancel());
+    assertTrue(next.isCancelled());
+  }
+
+  @Test
+  public void testThenComplete() throws Exception {
+    final Stage<Integer> a = completable.thenComplete(42);
+
+    assertFalse(a.isDone());
+    completable.complete(result);
+    assertEquals(Integer.valueOf(42), a.join());
+  }
+
+  @Test
+  public void testCancelUpstream() {
+    final Stage<Object> a = completable.thenApply(v -> v);
+
+    assertTrue(a.cancel());
+    assertTrue(completable.isCancelled());
+  }
+
+  @Test
+  public void testCancelUpstreamRefCounted() {
+    final LocalCompletable<Object> source = new LocalCompletable<>(caller,
+        CompletableOptions.builder().refCountedCancellation(true).build());
+
+    final Stage<Object> a = source.thenApply(v -> v);
+    final Stage<Object> b = source.thenApply(v -> v);
+
+    assertTrue(a.cancel());
+    assertFalse(source.isDone());
+
+    assertTrue(b.cancel());
+    assertTrue(source.isCancelled());
+  }
+
+  @Test
+  public void testSubscribeCompacts() {
+    final Runnable runnable = mock(Runnable.class);
+    final Subscription kept = completable.subscribe(runnable);
+
+    for (int i = 0; i < 1000; i++) {
+      assertTrue(completable.subscribe(runnable).unsubscribe());
+    }
+
+    /* unsubscribed listeners are compacted away */
+    assertTrue(completable.listeners.length <= LocalCompletable.INITIAL_LISTENERS);
+    assertEquals(1, completable.size);
+
+    completable.complete(result);
+    verify(runnable).run();
+    assertFalse(kept.unsubscribe());
+  }
+
+  @Test
+  public void testPostCompleteExplicitInListener() throws Exception {
+    final LocalCompletable<Object> other =
+        new LocalCompletable<>(caller, CompletableOptions.newDefault());
+    final Stage<Object> derived = other.thenApply(v -> v);
+    final AtomicReference<Object> joined = new AtomicReference<>();
+
+    /* other is unrelated to the completable, so the stages derived from it are done as soon as it
+     * has been completed */
+    completable.whenComplete(v -> {
+      assertTrue(other.complete(v));
+
+      try {
+        joined.set(derived.joinNow());
+      } catch (final ExecutionException e) {
+        throw new RuntimeException(e);
+      }
+    });
+
+    completable.complete(result);
+    assertSame(result, joined.get());
+  }
+
+  @Test
+  public void testDeepComposeChain() throws Exception {
+    final LocalCompletable<Object> leaf =
+        new LocalCompletable<>(caller, CompletableOptions.newDefault());
+
+    Stage<Object> s = completable;
+
+    for (int i = 0; i < 100000; i++) {
+      final Stage<Object> inner = i == 0 ? leaf : s;
+      s = completable.thenCompose(v -> inner);
+    }
+
+    completable.complete(result);
+    assertFalse(s.isDone());
+
+    leaf.complete(result);
+    assertSame(result, s.join());
+  }
+
+  @Test
+  public void testShare() throws Exception {
+    final Stage<Object> shared = completable.share();
+
+    assertTrue(shared instanceof ConcurrentCompletable);
+    assertFalse(shared.isDone());
+
+    completable.complete(result);
+    assertSame(result, shared.join());
+
+    /* cancelling the shared stage does not affect the local one */
+    final LocalCompletable<Object> other =
+        new LocalCompletable<>(caller, CompletableOptions.newDefault());
+    other.share().cancel();
+    assertFalse(other.isDone());
+  }
+
+  @Test
+  public void testShareDone() throws Exception {
+    completable.complete(result);
+    assertTrue(completable.share() instanceof ImmediateCompleted);
+  }
+
+  @Test
+  public void testCheckLocalThread() throws Exception {
+    final LocalCompletable<Object> checked = new LocalCompletable<>(caller,
+        CompletableOptions.builder().checkLocalThread(true).build());
+
+    final AtomicReference<Throwable> error = new AtomicReference<>();
+
+    final Thread thread = new Thread(() -> {
+      try {
+        checked.complete(result);
+      } catch (final Throwable e) {
+        error.set(e);
+      }
+    });
+
+    thread.start();
+    thread.join();
+
+    assertTrue(error.get() instanceof IllegalStateException);
+    assertFalse(checked.isDone());
+  }
+}
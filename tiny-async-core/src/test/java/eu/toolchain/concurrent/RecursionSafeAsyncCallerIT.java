@@ -1,7 +1,6 @@
 package eu.toolchain.concurrent;
 
 import static org.junit.Assert.assertFalse;
-import static org.junit.Assert.assertTrue;
 
 import com.google.common.util.concurrent.AtomicLongMap;
 import java.util.Arrays;
@@ -124,9 +123,10 @@ public class RecursionSafeAsyncCallerIT {
   }
 
   @Test
-  public void testRecursionsFailure() throws Exception {
-    // make sure the stack is too small to accommodate the current test
-    assertTrue(doRecursions(false));
+  public void testRecursionsTrampolined() throws Exception {
+    // callbacks are trampolined by the completable, so the stack does not blow up even without
+    // enabling recursionSafe
+    assertFalse(doRecursions(false));
   }
 
   @Test
@@ -160,7 +160,7 @@ public class RecursionSafeAsyncCallerIT {
 
     Stage<Integer> tail = source;
 
-    // 100k should blow up the stack comfortably without enabling recursionSafe
+    // 100k would blow up the stack comfortably if callbacks were called recursively
     for (int i = 0; i < 100000; i++) {
       tail = tail.thenCompose(value -> {
         // immediate completable
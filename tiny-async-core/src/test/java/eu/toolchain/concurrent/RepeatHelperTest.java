@@ -0,0 +1,144 @@
+package eu.toolchain.concurrent;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RepeatHelperTest {
+  private static final long PERIOD = TimeUnit.SECONDS.toNanos(1);
+
+  @Mock
+  private HashedWheelTimer timer;
+  @Mock
+  private HashedWheelTimer.Timeout timeout;
+  @Mock
+  private Supplier<Stage<Object>> action;
+  @Mock
+  private Caller caller;
+  @Mock
+  private Executor executor;
+
+  private ConcurrentCompletable<Void> target;
+  private ConcurrentCompletable<Object> run;
+
+  private RepeatHelper helper;
+
+  @Before
+  public void setup() {
+    doAnswer(invocation -> {
+      invocation.getArgumentAt(0, Runnable.class).run();
+      return null;
+    }).when(caller).execute(any(Runnable.class));
+
+    doAnswer(invocation -> {
+      invocation.getArgumentAt(0, Runnable.class).run();
+      return null;
+    }).when(executor).execute(any(Runnable.class));
+
+    doReturn(timeout)
+      .when(timer)
+      .newTimeout(any(HashedWheelTimer.TimerTask.class), anyLong(), eq(TimeUnit.NANOSECONDS));
+
+    target = new ConcurrentCompletable<>(caller);
+    run = new ConcurrentCompletable<>(caller);
+    doReturn(run).when(action).get();
+
+    helper = new RepeatHelper(timer, executor, action, PERIOD, target);
+  }
+
+  @Test
+  public void testStart() {
+    helper.start();
+    verify(timer).newTimeout(helper, PERIOD, TimeUnit.NANOSECONDS);
+    verify(action, never()).get();
+  }
+
+  @Test
+  public void testRunsOnExecutor() {
+    helper.start();
+    helper.run(timeout);
+
+    verify(executor).execute(any(Runnable.class));
+    verify(action).get();
+  }
+
+  @Test
+  public void testDoesNotOverlap() {
+    helper.start();
+    helper.run(timeout);
+    verify(action).get();
+
+    /* the next run is not scheduled until the current one is done */
+    verify(timer, times(1)).newTimeout(any(), anyLong(), any());
+
+    run.complete(null);
+    verify(timer, times(2)).newTimeout(any(), anyLong(), any());
+    assertFalse(target.isDone());
+  }
+
+  @Test
+  public void testActionFailed() {
+    final RuntimeException cause = new RuntimeException();
+
+    helper.start();
+    helper.run(timeout);
+    run.fail(cause);
+
+    assertTrue(target.isFailed());
+    assertSame(cause, target.cause());
+    verify(timer, times(1)).newTimeout(any(), anyLong(), any());
+  }
+
+  @Test
+  public void testActionThrows() {
+    final RuntimeException cause = new RuntimeException();
+    doAnswer(invocation -> {
+      throw cause;
+    }).when(action).get();
+
+    helper.start();
+    helper.run(timeout);
+
+    assertSame(cause, target.cause());
+  }
+
+  @Test
+  public void testCancelWhileScheduled() {
+    helper.start();
+    target.cancel();
+
+    verify(timeout).cancel();
+
+    /* a timeout which fires regardless does nothing */
+    helper.run(timeout);
+    verify(action, never()).get();
+  }
+
+  @Test
+  public void testCancelWhileRunning() {
+    helper.start();
+    helper.run(timeout);
+    target.cancel();
+
+    assertTrue(run.isCancelled());
+    verify(timer, times(1)).newTimeout(any(), anyLong(), any());
+  }
+}
@@ -45,6 +45,24 @@ public class RetryUntilResolvedIT {
     assertEquals(6, calls.get());
   }
 
+  @Test(timeout = TIMEOUT)
+  public void testRetryWithTimer() throws Exception {
+    final Async async = CoreAsync.builder().threaded(false).build();
+    final AtomicInteger calls = new AtomicInteger();
+
+    final Stage<RetryResult<Object>> f = async.retryUntilCompleted(() -> {
+      if (calls.getAndIncrement() < 5) {
+        throw new RuntimeException("doCall");
+      }
+
+      return async.completed(RESULT);
+    }, RetryPolicy.timed(10000, TimeUnit.MILLISECONDS,
+      RetryPolicy.linear(50, TimeUnit.MILLISECONDS)));
+
+    assertEquals(RESULT, f.join().getResult());
+    assertEquals(6, calls.get());
+  }
+
   @Test
   public void testTimeout() throws Exception {
     final AtomicInteger calls = new AtomicInteger();
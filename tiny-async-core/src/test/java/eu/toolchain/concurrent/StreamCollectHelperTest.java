@@ -1,16 +1,28 @@
 package eu.toolchain.concurrent;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
@@ -104,4 +116,134 @@ public class StreamCollectHelperTest {
     helper.completed(result);
     verify(target).fail(any(Exception.class));
   }
+
+  @Test
+  public void testSerialized() throws Exception {
+    final StreamCollectHelper<Object, Object> helper =
+        new StreamCollectHelper<>(caller, 3, consumer, supplier, target, true);
+
+    when(supplier.get()).thenReturn(transformed);
+
+    helper.completed(result);
+    helper.completed(null);
+    verify(target, never()).complete(transformed);
+
+    helper.completed(result);
+
+    final InOrder order = inOrder(consumer, supplier, target);
+    order.verify(consumer).accept(result);
+    order.verify(consumer).accept(null);
+    order.verify(consumer).accept(result);
+    order.verify(supplier).get();
+    order.verify(target).complete(transformed);
+  }
+
+  @Test
+  public void testSerializedConsumerThrows() throws Exception {
+    final AtomicInteger internalErrors = new AtomicInteger();
+
+    final Caller caller = new DirectCaller() {
+      @Override
+      protected void internalError(final String what, final Throwable cause) {
+        assertSame(e, cause);
+        internalErrors.incrementAndGet();
+      }
+    };
+
+    final StreamCollectHelper<Object, Object> helper =
+        new StreamCollectHelper<>(caller, 2, consumer, supplier, target, true);
+
+    when(supplier.get()).thenReturn(transformed);
+    doThrow(e).doNothing().when(consumer).accept(result);
+
+    helper.completed(result);
+    helper.completed(result);
+
+    assertEquals(1, internalErrors.get());
+    verify(consumer, times(2)).accept(result);
+    verify(target).complete(transformed);
+  }
+
+  @Test
+  public void testSerializedConsumerError() throws Exception {
+    final Error error = new Error("consumer");
+    final Object queued = new Object();
+
+    final StreamCollectHelper<Object, Object> helper =
+        new StreamCollectHelper<>(caller, 2, consumer, supplier, target, true);
+
+    when(supplier.get()).thenReturn(transformed);
+
+    /* queue another result while draining, then fail with an error */
+    doAnswer(invocation -> {
+      helper.completed(queued);
+      throw error;
+    }).when(consumer).accept(result);
+
+    try {
+      helper.completed(result);
+      fail("expected Error");
+    } catch (final Error e) {
+      assertSame(error, e);
+    }
+
+    assertEquals(0, helper.wip);
+    verify(consumer).accept(queued);
+    verify(target).complete(transformed);
+  }
+
+  @Test
+  public void testSerializedConcurrent() throws Exception {
+    final int threads = 8;
+    final int perThread = 10000;
+
+    final Caller caller = new DirectCaller() {
+      @Override
+      protected void internalError(final String what, final Throwable cause) {
+        throw new AssertionError(what, cause);
+      }
+    };
+
+    final AtomicBoolean inside = new AtomicBoolean();
+    final AtomicBoolean overlapped = new AtomicBoolean();
+    final List<Object> consumed = new ArrayList<>();
+
+    final Consumer<Object> consumer = value -> {
+      if (!inside.compareAndSet(false, true)) {
+        overlapped.set(true);
+      }
+
+      consumed.add(value);
+      inside.set(false);
+    };
+
+    final StreamCollectHelper<Object, Object> helper =
+        new StreamCollectHelper<>(caller, threads * perThread, consumer, () -> transformed,
+            target, true);
+
+    final List<Thread> workers = new ArrayList<>();
+
+    for (int t = 0; t < threads; t++) {
+      workers.add(new Thread(() -> {
+        for (int i = 0; i < perThread; i++) {
+          helper.completed(result);
+        }
+      }));
+    }
+
+    for (final Thread worker : workers) {
+      worker.start();
+    }
+
+    for (final Thread worker : workers) {
+      worker.join();
+    }
+
+    assertFalse(overlapped.get());
+    verify(target).complete(transformed);
+
+    synchronized (consumed) {
+      assertEquals(threads * perThread, consumed.size());
+    }
+  }
 }
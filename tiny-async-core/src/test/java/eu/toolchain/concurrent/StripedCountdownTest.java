@@ -0,0 +1,84 @@
+package eu.toolchain.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class StripedCountdownTest {
+  @Rule
+  public ExpectedException except = ExpectedException.none();
+
+  @Test
+  public void testZeroCount() {
+    except.expect(IllegalArgumentException.class);
+    new StripedCountdown(0);
+  }
+
+  @Test
+  public void testSingleStripe() {
+    final StripedCountdown countdown = new StripedCountdown(2, 8);
+
+    assertEquals(1, countdown.stripes());
+    assertFalse(countdown.countDown());
+    assertTrue(countdown.countDown());
+
+    except.expect(IllegalStateException.class);
+    countdown.countDown();
+  }
+
+  @Test
+  public void testStripes() {
+    final int count = StripedCountdown.MIN_STRIPE_SIZE * 8 + 3;
+    final StripedCountdown countdown = new StripedCountdown(count, 4);
+
+    assertEquals(4, countdown.stripes());
+
+    /* a single thread exhausts its own stripe, then moves on to the others */
+    for (int i = 0; i < count - 1; i++) {
+      assertFalse(countdown.countDown());
+    }
+
+    assertTrue(countdown.countDown());
+
+    except.expect(IllegalStateException.class);
+    countdown.countDown();
+  }
+
+  @Test
+  public void testConcurrent() throws Exception {
+    final int threads = 8;
+    final int perThread = StripedCountdown.MIN_STRIPE_SIZE * 4;
+
+    final StripedCountdown countdown = new StripedCountdown(threads * perThread, 8);
+    final AtomicInteger zeroes = new AtomicInteger();
+
+    final List<Thread> workers = new ArrayList<>();
+
+    for (int t = 0; t < threads; t++) {
+      workers.add(new Thread(() -> {
+        for (int i = 0; i < perThread; i++) {
+          if (countdown.countDown()) {
+            zeroes.incrementAndGet();
+          }
+        }
+      }));
+    }
+
+    for (final Thread worker : workers) {
+      worker.start();
+    }
+
+    for (final Thread worker : workers) {
+      worker.join();
+    }
+
+    assertEquals(1, zeroes.get());
+  }
+}
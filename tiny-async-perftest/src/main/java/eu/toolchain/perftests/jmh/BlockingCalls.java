@@ -0,0 +1,88 @@
+package eu.toolchain.perftests.jmh;
+
+import eu.toolchain.concurrent.Async;
+import eu.toolchain.concurrent.CoreAsync;
+import eu.toolchain.concurrent.Stage;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how long it takes to complete a large number of concurrent blocking calls submitted
+ * through {@link Async#call(java.util.concurrent.Callable)}.
+ *
+ * <p>Each call sleeps for one millisecond, standing in for a blocking request like a JDBC query.
+ * With a fixed pool the number of calls in flight is capped by the number of threads, while with
+ * virtual threads every call gets a thread of its own.
+ *
+ * <p>The {@code virtual} executor requires Java 21 or later.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class BlockingCalls {
+  private static final int POOL_SIZE = 200;
+
+  @Param({"10000", "100000"})
+  public int calls;
+
+  @Param({"pool", "virtual"})
+  public String executor;
+
+  private ExecutorService pool;
+  private Async async;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    switch (executor) {
+      case "pool":
+        pool = Executors.newFixedThreadPool(POOL_SIZE);
+        async = CoreAsync.builder().executor(pool).build();
+        break;
+      case "virtual":
+        async = CoreAsync.builder().virtualThreads(true).build();
+        break;
+      default:
+        throw new IllegalArgumentException("executor: " + executor);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void teardown() {
+    if (pool != null) {
+      pool.shutdown();
+    }
+  }
+
+  @Benchmark
+  public Collection<Long> blocking() throws Exception {
+    final Collection<Stage<Long>> stages = new ArrayList<>(calls);
+
+    for (int i = 0; i < calls; i++) {
+      stages.add(async.call(() -> {
+        Thread.sleep(1);
+        return System.nanoTime();
+      }));
+    }
+
+    return async.collect(stages).join();
+  }
+}
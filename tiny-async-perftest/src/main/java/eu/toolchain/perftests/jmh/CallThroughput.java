@@ -0,0 +1,67 @@
+package eu.toolchain.perftests.jmh;
+
+import eu.toolchain.concurrent.CoreAsync;
+import eu.toolchain.concurrent.Stage;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Throughput of {@link eu.toolchain.concurrent.Async#call(Callable)} with trivial callables, where
+ * the cost is dominated by the overhead of submitting the call.
+ *
+ * <p>{@code submit} measures calls submitted as a {@link java.util.concurrent.FutureTask} through
+ * {@link CoreAsync#doCall(Callable, ExecutorService, eu.toolchain.concurrent.Completable)}, as a
+ * baseline for {@code call}.
+ */
+@State(Scope.Benchmark)
+public class CallThroughput {
+  private static final int CALLS = 1000;
+  private static final int THREADS = 4;
+
+  private static final Callable<Boolean> CALLABLE = () -> true;
+
+  private ExecutorService executor;
+  private CoreAsync async;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    executor = Executors.newFixedThreadPool(THREADS);
+    async = CoreAsync.builder().executor(executor).build();
+  }
+
+  @TearDown(Level.Trial)
+  public void teardown() {
+    executor.shutdown();
+  }
+
+  @Benchmark
+  public Collection<Boolean> call() throws Exception {
+    final Collection<Stage<Boolean>> stages = new ArrayList<>(CALLS);
+
+    for (int i = 0; i < CALLS; i++) {
+      stages.add(async.call(CALLABLE));
+    }
+
+    return async.collect(stages).join();
+  }
+
+  @Benchmark
+  public Collection<Boolean> submit() throws Exception {
+    final Collection<Stage<Boolean>> stages = new ArrayList<>(CALLS);
+
+    for (int i = 0; i < CALLS; i++) {
+      stages.add(async.doCall(CALLABLE, executor, async.completable()));
+    }
+
+    return async.collect(stages).join();
+  }
+}
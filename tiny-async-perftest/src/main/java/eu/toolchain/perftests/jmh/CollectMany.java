@@ -1,24 +1,108 @@
 package eu.toolchain.perftests.jmh;
 
 import com.google.common.util.concurrent.ListenableFuture;
+import eu.toolchain.concurrent.Completable;
 import eu.toolchain.concurrent.Stage;
 import eu.toolchain.concurrent.Async;
 import eu.toolchain.concurrent.CoreAsync;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
 
+/**
+ * Collects a large number of stages.
+ *
+ * <p>{@code fanIn} completes pending stages from the given number of threads once they have been
+ * collected, which measures how well completing a single collect scales with the number of
+ * threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
 public class CollectMany {
-  private static final int SIZE = 10000;
+  @Param({"10000", "1000000"})
+  public int size;
 
   private static Async async = CoreAsync.builder().build();
 
+  /**
+   * Stages which are completed by a number of threads once collected.
+   */
+  @State(Scope.Benchmark)
+  public static class FanIn {
+    @Param({"1", "4", "16"})
+    public int threads;
+
+    private ExecutorService executor;
+
+    private List<Completable<Boolean>> pending;
+    private Stage<Collection<Boolean>> collected;
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+      executor = Executors.newFixedThreadPool(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void teardownTrial() {
+      executor.shutdown();
+    }
+
+    @Setup(Level.Invocation)
+    public void setupInvocation(final CollectMany benchmark) {
+      pending = new ArrayList<>(benchmark.size);
+
+      for (int i = 0; i < benchmark.size; i++) {
+        pending.add(async.completable());
+      }
+
+      collected = async.collect(pending);
+    }
+  }
+
+  @Benchmark
+  public Collection<Boolean> fanIn(final FanIn state) throws Exception {
+    final List<Future<?>> futures = new ArrayList<>(state.threads);
+    final int chunk = (size + state.threads - 1) / state.threads;
+
+    for (int t = 0; t < state.threads; t++) {
+      final int start = t * chunk;
+      final int end = Math.min(size, start + chunk);
+
+      futures.add(state.executor.submit(() -> {
+        for (int i = start; i < end; i++) {
+          state.pending.get(i).complete(true);
+        }
+      }));
+    }
+
+    for (final Future<?> future : futures) {
+      future.get();
+    }
+
+    return state.collected.join();
+  }
+
   @Benchmark
   public void tiny() throws Exception {
     final List<Stage<Boolean>> futures = new ArrayList<>();
 
-    for (int i = 0; i < SIZE; i++) {
+    for (int i = 0; i < size; i++) {
       futures.add(async.completed(true));
     }
 
@@ -29,7 +113,7 @@ public class CollectMany {
   public void guava() throws Exception {
     final List<ListenableFuture<Boolean>> futures = new ArrayList<>();
 
-    for (int i = 0; i < SIZE; i++) {
+    for (int i = 0; i < size; i++) {
       futures.add(com.google.common.util.concurrent.Futures.immediateFuture(true));
     }
 
@@ -40,7 +124,7 @@ public class CollectMany {
   public void completable() throws Exception {
     final List<CompletableFuture<Boolean>> futures = new ArrayList<>();
 
-    for (int i = 0; i < SIZE; i++) {
+    for (int i = 0; i < size; i++) {
       futures.add(CompletableFuture.completedFuture(true));
     }
 
@@ -0,0 +1,66 @@
+package eu.toolchain.perftests.jmh;
+
+import eu.toolchain.concurrent.Async;
+import eu.toolchain.concurrent.CoreAsync;
+import java.util.Collections;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Synchronous chains on already completed stages, intended to be run with {@code -prof gc} to
+ * check the allocation rate of the fast path.
+ */
+public class CompletedChain {
+  private static Async async = CoreAsync.builder().build();
+
+  @Benchmark
+  public Object tinyNull() throws Exception {
+    return async
+        .completed()
+        .thenApply(v -> v)
+        .thenApply(v -> v)
+        .thenApply(v -> v)
+        .thenApply(v -> v)
+        .thenApply(v -> v)
+        .joinNow();
+  }
+
+  @Benchmark
+  public Boolean tinyBoolean() throws Exception {
+    return async
+        .completed(true)
+        .thenApply(v -> !v)
+        .thenApply(v -> !v)
+        .thenApply(v -> !v)
+        .thenApply(v -> !v)
+        .thenApply(v -> !v)
+        .joinNow();
+  }
+
+  @Benchmark
+  public List<Object> tinyEmptyList() throws Exception {
+    return async
+        .completed(Collections.emptyList())
+        .thenApply(v -> v)
+        .thenApply(v -> v)
+        .thenApply(v -> v)
+        .thenApply(v -> v)
+        .thenApply(v -> v)
+        .joinNow();
+  }
+
+  /**
+   * Every step produces a new value, which rules out reusing the stage of the previous step.
+   */
+  @Benchmark
+  public Long tinyLong() throws Exception {
+    return async
+        .completed(1000L)
+        .thenApply(v -> v + 1)
+        .thenApply(v -> v + 1)
+        .thenApply(v -> v + 1)
+        .thenApply(v -> v + 1)
+        .thenApply(v -> v + 1)
+        .joinNow();
+  }
+}
@@ -0,0 +1,73 @@
+package eu.toolchain.perftests.jmh;
+
+import eu.toolchain.concurrent.Async;
+import eu.toolchain.concurrent.Completable;
+import eu.toolchain.concurrent.CoreAsync;
+import eu.toolchain.concurrent.Stage;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Completes deep chains of stages synchronously on the calling thread.
+ *
+ * <p>Callbacks are trampolined, so this completes without a {@link StackOverflowError} regardless
+ * of depth.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class DeepChain {
+  private final Async async = CoreAsync.builder().build();
+
+  @Param({"1000", "1000000"})
+  public int depth;
+
+  @Benchmark
+  public Integer thenCompose() throws Exception {
+    final Completable<Integer> source = async.completable();
+    Stage<Integer> stage = source;
+
+    for (int i = 0; i < depth; i++) {
+      stage = stage.thenCompose(v -> async.completed(v + 1));
+    }
+
+    source.complete(0);
+    return checkDepth(stage.joinNow());
+  }
+
+  @Benchmark
+  public Integer whenComplete() throws Exception {
+    final Completable<Integer> source = async.completable();
+    Completable<Integer> current = source;
+
+    for (int i = 0; i < depth; i++) {
+      final Completable<Integer> next = async.completable();
+      current.whenComplete(v -> next.complete(v + 1));
+      current = next;
+    }
+
+    source.complete(0);
+    return checkDepth(current.joinNow());
+  }
+
+  private Integer checkDepth(final Integer result) {
+    if (result != depth) {
+      throw new IllegalStateException(
+          String.format("chain did not complete: expected %d, but was %d", depth, result));
+    }
+
+    return result;
+  }
+}
@@ -0,0 +1,62 @@
+package eu.toolchain.perftests.jmh;
+
+import eu.toolchain.concurrent.CoreAsync;
+import eu.toolchain.concurrent.Stage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Throughput of {@link eu.toolchain.concurrent.Async#eventuallyCollect} across parallelism levels.
+ *
+ * <p>Every callable is called on a thread pool, so completions arrive concurrently and compete to
+ * claim the next callable.
+ */
+@State(Scope.Benchmark)
+public class EventuallyCollect {
+  private static final int CALLS = 1000;
+  private static final int THREADS = 4;
+
+  @Param({"1", "16", "256"})
+  public int parallelism;
+
+  private ExecutorService executor;
+  private CoreAsync async;
+  private List<Callable<Stage<Boolean>>> callables;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    executor = Executors.newFixedThreadPool(THREADS);
+    async = CoreAsync.builder().executor(executor).build();
+
+    callables = new ArrayList<>(CALLS);
+
+    for (int i = 0; i < CALLS; i++) {
+      callables.add(() -> async.call(() -> true));
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void teardown() {
+    executor.shutdown();
+  }
+
+  @Benchmark
+  public long eventuallyCollect() throws Exception {
+    final LongAdder count = new LongAdder();
+
+    return async
+        .eventuallyCollect(callables, v -> count.increment(), count::sum, parallelism)
+        .join();
+  }
+}
@@ -0,0 +1,80 @@
+package eu.toolchain.perftests.jmh;
+
+import eu.toolchain.concurrent.Async;
+import eu.toolchain.concurrent.CompletableOptions;
+import eu.toolchain.concurrent.Completable;
+import eu.toolchain.concurrent.CoreAsync;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the latency of joining a completable which is completed shortly after by another
+ * thread.
+ *
+ * <p>{@code joinSpins = 0} corresponds to parking immediately.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class JoinLatency {
+  @Param({"0", "256"})
+  public int joinSpins;
+
+  private Async async;
+
+  private final AtomicReference<Completable<Integer>> pending = new AtomicReference<>();
+  private volatile boolean running;
+  private Thread completer;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    final CompletableOptions options =
+        CompletableOptions.builder().joinSpins(joinSpins).joinYields(0).build();
+
+    async = CoreAsync.builder().completableOptions(options).build();
+
+    running = true;
+
+    completer = new Thread(() -> {
+      while (running) {
+        final Completable<Integer> c = pending.getAndSet(null);
+
+        if (c != null) {
+          c.complete(42);
+        }
+      }
+    });
+
+    completer.setDaemon(true);
+    completer.start();
+  }
+
+  @TearDown(Level.Trial)
+  public void teardown() throws Exception {
+    running = false;
+    completer.join();
+  }
+
+  @Benchmark
+  public Integer join() throws Exception {
+    final Completable<Integer> c = async.completable();
+    pending.set(c);
+    return c.join();
+  }
+}
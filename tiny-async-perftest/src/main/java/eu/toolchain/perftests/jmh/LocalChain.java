@@ -0,0 +1,57 @@
+package eu.toolchain.perftests.jmh;
+
+import eu.toolchain.concurrent.Async;
+import eu.toolchain.concurrent.Completable;
+import eu.toolchain.concurrent.CoreAsync;
+import eu.toolchain.concurrent.Stage;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares building and completing a short pipeline of stages on a single thread, using
+ * concurrent and thread confined completables.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class LocalChain {
+  private final Async async = CoreAsync.builder().build();
+
+  @Param({"4", "16"})
+  public int length;
+
+  @Benchmark
+  public Integer concurrent() throws Exception {
+    return run(async.completable());
+  }
+
+  @Benchmark
+  public Integer local() throws Exception {
+    return run(async.localCompletable());
+  }
+
+  private Integer run(final Completable<Integer> source) throws Exception {
+    Stage<Integer> stage = source;
+
+    for (int i = 0; i < length; i++) {
+      stage = stage.thenApply(v -> v + 1);
+      stage.whenComplete(v -> {
+      });
+    }
+
+    source.complete(0);
+    return stage.joinNow();
+  }
+}
@@ -63,6 +63,49 @@ public class ManyListeners {
     executor.shutdown();
   }
 
+  /**
+   * Same as {@link #tiny()}, but with listeners executed on the executor, which dispatches them in
+   * chunks.
+   */
+  @Benchmark
+  public void tinyThreaded() throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+    final Async async = CoreAsync.builder().threaded(true).executor(executor).build();
+
+    final AtomicInteger sum = new AtomicInteger();
+    final CountDownLatch latch = new CountDownLatch(1);
+    final CountDownLatch tasks = new CountDownLatch(CALLBACK_COUNT * SIZE);
+
+    final Consumer<Integer> callback = result -> {
+      sum.addAndGet(result);
+      tasks.countDown();
+    };
+
+    for (int i = 0; i < SIZE; i++) {
+      final int current = i;
+
+      final Stage<Integer> future = async.call(() -> {
+        latch.await();
+        return current;
+      });
+
+      for (int c = 0; c < CALLBACK_COUNT; c++) {
+        future.whenComplete(callback);
+      }
+    }
+
+    latch.countDown();
+    tasks.await(1, TimeUnit.SECONDS);
+
+    if (sum.get() != EXPECTED_SUM) {
+      throw new IllegalStateException(
+          String.format("did not properly collect all values: expected %d, but was %d",
+              EXPECTED_SUM, sum.get()));
+    }
+
+    executor.shutdown();
+  }
+
   @Benchmark
   public void guava() throws Exception {
     final ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
@@ -0,0 +1,90 @@
+package eu.toolchain.perftests.jmh;
+
+import eu.toolchain.concurrent.Async;
+import eu.toolchain.concurrent.CompletableOptions;
+import eu.toolchain.concurrent.Completable;
+import eu.toolchain.concurrent.CoreAsync;
+import eu.toolchain.concurrent.Stage;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs the same chain of operations on stages which are completed, failed, cancelled, and
+ * pending.
+ *
+ * <p>With the default options, the call sites in {@link #step(Stage)} see all stage
+ * implementations, which is the type profile of a typical service. With {@code monomorphic}, they
+ * only see {@link eu.toolchain.concurrent.ConcurrentCompletable}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class MixedChain {
+  private static final int COUNT = 1000;
+  private static final RuntimeException ERROR = new RuntimeException("error");
+
+  @Param({"false", "true"})
+  public boolean monomorphic;
+
+  private Async async;
+
+  @Setup
+  public void setup() {
+    final CompletableOptions options =
+        CompletableOptions.builder().monomorphic(monomorphic).build();
+
+    async = CoreAsync.builder().completableOptions(options).build();
+  }
+
+  @Benchmark
+  public int mixed() throws Exception {
+    int sum = 0;
+
+    for (int i = 0; i < COUNT; i++) {
+      final Stage<Integer> stage;
+
+      switch (i & 3) {
+        case 0:
+          stage = step(async.completed(i));
+          break;
+        case 1:
+          stage = step(async.failed(ERROR));
+          break;
+        case 2:
+          stage = step(async.cancelled());
+          break;
+        default:
+          final Completable<Integer> pending = async.completable();
+          stage = step(pending);
+          pending.complete(i);
+          break;
+      }
+
+      if (stage.isCompleted()) {
+        sum += stage.joinNow();
+      }
+    }
+
+    return sum;
+  }
+
+  private Stage<Integer> step(final Stage<Integer> stage) {
+    return stage
+        .thenApply(v -> v + 1)
+        .thenCompose(v -> async.completed(v * 2))
+        .thenApplyFailed(e -> -1);
+  }
+}
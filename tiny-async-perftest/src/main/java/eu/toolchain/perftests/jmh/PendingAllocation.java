@@ -0,0 +1,76 @@
+package eu.toolchain.perftests.jmh;
+
+import eu.toolchain.concurrent.Async;
+import eu.toolchain.concurrent.Completable;
+import eu.toolchain.concurrent.CoreAsync;
+import eu.toolchain.concurrent.Stage;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the footprint of pending stages.
+ *
+ * <p>Run with {@code -prof gc} and compare {@code gc.alloc.rate.norm} (bytes/op).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 3)
+public class PendingAllocation {
+  private final Async async = CoreAsync.builder().build();
+
+  @Benchmark
+  public Object tinyCompletable() {
+    return async.completable();
+  }
+
+  @Benchmark
+  public Object tinyThenApply() {
+    final Completable<Integer> source = async.completable();
+    final Stage<Integer> stage = source.thenApply(v -> v + 1);
+    source.complete(1);
+    return stage;
+  }
+
+  @Benchmark
+  public Object tinyThenApplyChain() {
+    final Completable<Integer> source = async.completable();
+    final Stage<Integer> stage =
+        source.thenApply(v -> v + 1).thenApply(v -> v + 1).thenApply(v -> v + 1);
+    source.complete(1);
+    return stage;
+  }
+
+  @Benchmark
+  public Object completableFuture() {
+    return new CompletableFuture<Integer>();
+  }
+
+  @Benchmark
+  public Object completableFutureThenApply() {
+    final CompletableFuture<Integer> source = new CompletableFuture<>();
+    final CompletableFuture<Integer> stage = source.thenApply(v -> v + 1);
+    source.complete(1);
+    return stage;
+  }
+
+  @Benchmark
+  public Object completableFutureThenApplyChain() {
+    final CompletableFuture<Integer> source = new CompletableFuture<>();
+    final CompletableFuture<Integer> stage =
+        source.thenApply(v -> v + 1).thenApply(v -> v + 1).thenApply(v -> v + 1);
+    source.complete(1);
+    return stage;
+  }
+}